@@ -6,4 +6,4 @@ setlocal enabledelayedexpansion
     for /f "delims=" %%a in ('dir %jarpath%\lib\*.jar /s/b') do set jars=%%a;!jars!
 	set jars=!jars:~0,-1!
 	echo %jars%
-endlocal & java -classpath %jars% org.neo4j.etl.NeoIntegrationCli %*
\ No newline at end of file
+endlocal & java %JAVA_OPTS% -classpath %jars% org.neo4j.etl.NeoIntegrationCli %*
\ No newline at end of file
@@ -26,7 +26,10 @@ import org.neo4j.etl.environment.ImportToolDirectorySupplier;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.ImportToolOptions;
 import org.neo4j.etl.sql.ConnectionConfig;
+import org.neo4j.etl.sql.ConnectionPool;
 import org.neo4j.etl.sql.DatabaseType;
+import org.neo4j.etl.sql.exportcsv.ExportToCsvConfig;
+import org.neo4j.etl.sql.exportcsv.io.OrphanRelationships;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
 import org.neo4j.etl.sql.exportcsv.mapping.FilterOptions;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMappings;
@@ -174,6 +177,133 @@ public class ExportFromRdbmsCli implements Runnable
             title = "exclude|include|none(default)")
     private String exclusionMode = "none";
 
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--export-threads"},
+            description = "Number of mappings to export to CSV concurrently, each using its own connection.",
+            title = "count")
+    private int exportThreads = 1;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--table-partitions"},
+            description = "Split tables with a numeric primary key into up to this many key ranges, " +
+                    "exported concurrently as separate CSV parts.",
+            title = "count")
+    private int tablePartitions = 1;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--export-buffer-size"},
+            description = "Size in bytes of the buffer each export thread encodes CSV data into before writing " +
+                    "it to disk (default 1048576).",
+            title = "bytes")
+    private int exportBufferSize = ExportToCsvConfig.DEFAULT_EXPORT_BUFFER_SIZE;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--direct-export-buffers"},
+            description = "Allocate export buffers outside the Java heap.")
+    private boolean directExportBuffers = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--streaming"},
+            description = "Stream exported rows straight into neo4j-import through named pipes instead of " +
+                    "writing intermediate CSV files (not supported on Windows).")
+    private boolean streaming = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--compress"},
+            description = "Write gzip-compressed CSV files, compressing blocks of each file in parallel.")
+    private boolean compress = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--row-buffer-size"},
+            description = "Number of rows fetched ahead of the thread writing each CSV file (default 1024). " +
+                    "0 fetches and writes rows on the same thread.",
+            title = "rows")
+    private int rowBufferSize = ExportToCsvConfig.DEFAULT_ROW_BUFFER_SIZE;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--fetch-size"},
+            description = "Number of rows fetched from the database per round trip. Defaults to streaming rows " +
+                    "for MySQL, 10000 for PostgreSQL and 1000 for Oracle. Positive values only take effect for " +
+                    "MySQL when the URL includes useCursorFetch=true.",
+            title = "rows")
+    private Integer fetchSize;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--no-native-export"},
+            description = "Always export rows through JDBC result sets, even where the database can write the CSV " +
+                    "itself (PostgreSQL COPY).")
+    private boolean noNativeExport = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--shared-table-scans"},
+            description = "Export each table's node and foreign key relationship mappings from a single query, " +
+                    "writing all of their CSV files as the rows are read. Not used when streaming.")
+    private boolean sharedTableScans = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--resume"},
+            description = "Resume an interrupted export in the most recent CSV directory, skipping mappings whose " +
+                    "files were completed and verified. Use with --force if the graph directory already exists. " +
+                    "Not used when streaming.")
+    private boolean resume = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--delta-state"},
+            description = "File in which the high-water mark of each mapping's watermark column is kept between " +
+                    "runs. Only rows changed since the last run are exported, into <mapping>_delta CSV files, and " +
+                    "no store is created. Not used when streaming.",
+            title = "file")
+    private String deltaStateFile;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--watermark-column"},
+            description = "Column that increases whenever a row is inserted or updated, such as an updated_at " +
+                    "timestamp, used by --delta-state. May be given once per table.",
+            title = "table.column")
+    private List<String> watermarkColumns = new ArrayList<>();
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--hash-composite-keys"},
+            description = "Write composite keys used as node and relationship IDs as 64-bit hashes, rather than as " +
+                    "their concatenated parts. The export fails if two different node keys hash to the same ID. " +
+                    "Node keys are held on the heap, at about 32 bytes each: raise its maximum size for large " +
+                    "exports, e.g. with JAVA_OPTS=-Xmx8g.")
+    private boolean hashCompositeKeys = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--orphan-relationships"},
+            description = "Specifies how to handle relationships whose start or end node wasn't exported. " +
+                    "ignore: Leave them for the import tool to report. " +
+                    "log: Count them for each relationship mapping, and leave them for the import tool to report. " +
+                    "drop: Count them for each relationship mapping, and leave them out of the export. " +
+                    "With log or drop, node IDs are held on the heap, at about 32 bytes each: raise its maximum " +
+                    "size for large exports, e.g. with JAVA_OPTS=-Xmx8g.",
+            title = "ignore(default)|log|drop")
+    private String orphanRelationships = "ignore";
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--metadata-cache"},
+            description = "File in which table metadata is cached between runs. Only tables whose definitions " +
+                    "have changed since the last run are introspected again.",
+            title = "file")
+    private String metadataCacheFile;
+
     @SuppressWarnings("FieldCanBeLocal")
     @Arguments(description = "Tables to be excluded/included",
             title = "table1 table2 ...")
@@ -186,25 +316,32 @@ public class ExportFromRdbmsCli implements Runnable
         {
             DatabaseType databaseType = DatabaseType.fromString( this.commandGroupMetadata.getName() );
 
-            ConnectionConfig connectionConfig = this.url == null ?
+            ConnectionConfig.Builder connectionConfigBuilder = this.url == null ?
                     ConnectionConfig.forDatabaseFromHostAndPort(databaseType)
                             .host(host)
                             .port( port != null ? port : databaseType.defaultPort() )
                             .database(database)
                             .username(user)
                             .password(password)
-                            .build()
                     :
                     ConnectionConfig.forDatabaseFromUrl(databaseType)
                             .url(url)
                             .username(user)
-                            .password(password)
-                            .build();
+                            .password(password);
+
+            if ( fetchSize != null )
+            {
+                connectionConfigBuilder.fetchSize( fetchSize );
+            }
+
+            ConnectionConfig connectionConfig = connectionConfigBuilder.build();
 
             Environment environment = new Environment(
                     new ImportToolDirectorySupplier( Paths.get( importToolDirectory ) ).supply(),
-                    new DestinationDirectorySupplier( Paths.get( destinationDirectory ), force ).supply(),
-                    new CsvDirectorySupplier( Paths.get( csvRootDirectory ) ).supply(),
+                    deltaStateFile != null
+                            ? Paths.get( destinationDirectory )
+                            : new DestinationDirectorySupplier( Paths.get( destinationDirectory ), force ).supply(),
+                    new CsvDirectorySupplier( Paths.get( csvRootDirectory ), resume ).supply(),
                     ImportToolOptions.initialiseFromFile( Paths.get( importToolOptionsFile ) ) );
 
             ImportToolOptions importToolOptions = environment.importToolOptions();
@@ -216,14 +353,40 @@ public class ExportFromRdbmsCli implements Runnable
                     .build();
 
             TinyIntResolver tinyIntResolver = new TinyIntResolver( TinyIntAs.parse( tinyIntAs ) );
-            MetadataMappings metadataMappings = createMetadataMappings( connectionConfig, formatting, tinyIntResolver );
 
-            new ExportFromRdbms(
-                    new ExportRdbmsEventHandler(),
-                    metadataMappings,
-                    connectionConfig,
-                    formatting,
-                    environment, tinyIntResolver ).call();
+            // Introspection and export share one pool, so connections opened while generating the mappings are
+            // reused by the export workers
+            try ( ConnectionPool connectionPool = new ConnectionPool( connectionConfig, 1, exportThreads ) )
+            {
+                MetadataMappings metadataMappings =
+                        createMetadataMappings( connectionPool, formatting, tinyIntResolver );
+
+                ExportToCsvConfig exportConfig = ExportToCsvConfig.builder()
+                        .destination( environment.csvDirectory() )
+                        .connectionConfig( connectionConfig )
+                        .formatting( formatting )
+                        .exportThreads( exportThreads )
+                        .tablePartitions( tablePartitions )
+                        .exportBufferSize( exportBufferSize )
+                        .directExportBuffers( directExportBuffers )
+                        .streaming( streaming )
+                        .compress( compress )
+                        .rowBufferSize( rowBufferSize )
+                        .nativeExport( !noNativeExport )
+                        .sharedTableScans( sharedTableScans )
+                        .resume( resume )
+                        .deltaStateFile( deltaStateFile != null ? Paths.get( deltaStateFile ) : null )
+                        .hashCompositeKeys( hashCompositeKeys )
+                        .orphanRelationships( OrphanRelationships.parse( orphanRelationships ) )
+                        .build();
+
+                new ExportFromRdbms(
+                        new ExportRdbmsEventHandler(),
+                        metadataMappings,
+                        exportConfig,
+                        connectionPool,
+                        environment, tinyIntResolver ).call();
+            }
         }
         catch ( Exception e )
         {
@@ -231,7 +394,7 @@ public class ExportFromRdbmsCli implements Runnable
         }
     }
 
-    private MetadataMappings createMetadataMappings( ConnectionConfig connectionConfig,
+    private MetadataMappings createMetadataMappings( ConnectionPool connectionPool,
                                                      Formatting formatting,
                                                      TinyIntResolver tinyIntResolver ) throws Exception
     {
@@ -248,16 +411,22 @@ public class ExportFromRdbmsCli implements Runnable
             generateMetadataMappings = new GenerateMetadataMapping(
                     new GenerateMetadataMappingEventHandler(),
                     emptyOutputStream(),
-                    connectionConfig,
+                    connectionPool,
                     formatting,
                     new DefaultExportSqlSupplier(),
                     filterOptions,
-                    tinyIntResolver );
+                    tinyIntResolver,
+                    exportThreads );
             Schema schema = this.schema != null ? new Schema( this.schema ) : Schema.UNDEFINED;
             ((GenerateMetadataMapping) generateMetadataMappings).forSchema( schema );
+
+            if ( metadataCacheFile != null )
+            {
+                ((GenerateMetadataMapping) generateMetadataMappings).withMetadataCache( Paths.get( metadataCacheFile ) );
+            }
         }
 
-        return generateMetadataMappings.call();
+        return generateMetadataMappings.call().withWatermarkColumns( watermarkColumns );
     }
 
     private OutputStream emptyOutputStream()
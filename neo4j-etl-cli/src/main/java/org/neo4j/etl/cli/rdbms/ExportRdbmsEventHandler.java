@@ -4,6 +4,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.neo4j.etl.commands.rdbms.ExportFromRdbmsEvents;
+import org.neo4j.etl.neo4j.importcsv.io.ImportProgress;
 import org.neo4j.etl.util.CliRunner;
 
 import static java.lang.String.format;
@@ -23,6 +24,12 @@ public class ExportRdbmsEventHandler implements ExportFromRdbmsEvents
         CliRunner.print( "Creating Neo4j store from CSV..." );
     }
 
+    @Override
+    public void onImportProgress( ImportProgress progress )
+    {
+        CliRunner.print( format( "Import: %s", progress ) );
+    }
+
     @Override
     public void onExportComplete( Path destinationDirectory )
     {
@@ -137,6 +137,32 @@ public class GenerateMetadataMappingCli implements Runnable
             title = "exclude|include|none(default)")
     private String exclusionMode = "none";
 
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--introspection-threads"},
+            description = "Number of tables (or schemas) to read metadata for concurrently, each using its own " +
+                    "connection.",
+            title = "count")
+    private int introspectionThreads = 1;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--metadata-cache"},
+            description = "File in which table metadata is cached between runs. Only tables whose definitions " +
+                    "have changed since the last run are introspected again.",
+            title = "file")
+    private String metadataCacheFile;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @Option(type = OptionType.COMMAND,
+            name = {"--incremental-from"},
+            description = "Existing mapping file to update in place, regenerating only the mappings for tables " +
+                    "added, altered or dropped since it was generated. Unless --metadata-cache is given, changes " +
+                    "are tracked in <file>.metadata-cache.json. The first run with no cache leaves the file as " +
+                    "it is, and tracks changes from then on.",
+            title = "file")
+    private String incrementalFrom;
+
     @SuppressWarnings("FieldCanBeLocal")
     @Arguments(description = "Tables to be excluded/included",
             title = "table1 table2 ...")
@@ -178,13 +204,26 @@ public class GenerateMetadataMappingCli implements Runnable
 
             Schema schema = this.schema != null ? new Schema( this.schema ) : Schema.UNDEFINED;
 
-            new GenerateMetadataMapping(
+            GenerateMetadataMapping generateMetadataMapping = new GenerateMetadataMapping(
                     new GenerateMetadataMappingEventHandler(),
                     System.out,
                     connectionConfig,
                     formatting,
                     new DefaultExportSqlSupplier(),
-                    filterOptions, new TinyIntResolver( filterOptions.tinyIntAs() ) ).forSchema( schema ).call();
+                    filterOptions, new TinyIntResolver( filterOptions.tinyIntAs() ),
+                    introspectionThreads );
+
+            if ( metadataCacheFile != null )
+            {
+                generateMetadataMapping.withMetadataCache( Paths.get( metadataCacheFile ) );
+            }
+
+            if ( incrementalFrom != null )
+            {
+                generateMetadataMapping.incrementalFrom( Paths.get( incrementalFrom ) );
+            }
+
+            generateMetadataMapping.forSchema( schema ).call();
         }
         catch ( Exception e )
         {
@@ -1,19 +1,39 @@
 package org.neo4j.etl.commands;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.DatabaseClient;
+import org.neo4j.etl.sql.QueryResults;
 import org.neo4j.etl.sql.metadata.*;
 import org.neo4j.etl.util.ArrayUtils;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
 
 public class DatabaseInspector
 {
+    // Below this many tables, three metadata queries per table are cheaper than reading the whole schema
+    private static final int MAX_TABLES_INSPECTED_INDIVIDUALLY = 10;
+
     private final List<String> tablesToExclude;
     private final DatabaseClient databaseClient;
     private final TableInfoAssembler tableInfoAssembler;
+    private final int parallelism;
+    private final Optional<TableInfoCache> cache;
 
     public DatabaseInspector( DatabaseClient databaseClient, List<String> tablesToExclude )
     {
@@ -21,9 +41,28 @@ public class DatabaseInspector
     }
 
     public DatabaseInspector(DatabaseClient databaseClient, Formatting formatting, List<String> tablesToExclude) {
+        this( databaseClient, formatting, tablesToExclude, 1, Optional.empty() );
+    }
+
+    // Tables (or, where metadata is read a schema at a time, each schema's metadata queries and then its tables) are
+    // introspected concurrently by up to parallelism threads, each borrowing its own connection from the client's
+    // pool. Tables whose definitions haven't changed since they were cached aren't introspected at all.
+    public DatabaseInspector( DatabaseClient databaseClient,
+                              Formatting formatting,
+                              List<String> tablesToExclude,
+                              int parallelism,
+                              Optional<TableInfoCache> cache )
+    {
+        if ( parallelism < 1 )
+        {
+            throw new IllegalArgumentException( "Introspection parallelism must be greater than zero" );
+        }
+
         this.databaseClient = databaseClient;
         this.tablesToExclude = tablesToExclude;
         this.tableInfoAssembler = new TableInfoAssembler( databaseClient, formatting, tablesToExclude );
+        this.parallelism = parallelism;
+        this.cache = cache;
     }
 
     public SchemaExport buildSchemaExport( Schema schema ) throws Exception
@@ -32,24 +71,130 @@ public class DatabaseInspector
         HashSet<Table> tables = new HashSet<>();
         HashSet<JoinTable> joinTables = new HashSet<>();
 
-        for ( TableName tableName : databaseClient.tables( schema ) )
+        List<TableName> tableNames = databaseClient.tables( schema ).stream()
+                .filter( tableName -> !ArrayUtils.containsIgnoreCase( tablesToExclude, tableName.simpleName() ) )
+                .collect( Collectors.toList() );
+
+        Map<TableName, String> ddlMarkers = cache.isPresent() ? ddlMarkers( tableNames ) : new HashMap<>();
+        Map<TableName, TableInfo> tableInfos = new ConcurrentHashMap<>();
+        List<TableName> tablesToInspect = new ArrayList<>();
+
+        for ( TableName tableName : tableNames )
         {
-            if ( !ArrayUtils.containsIgnoreCase( tablesToExclude, tableName.simpleName() ) )
+            Optional<TableInfo> cachedTableInfo = cache.flatMap( c -> c.get( tableName, ddlMarkers.get( tableName ) ) );
+
+            if ( cachedTableInfo.isPresent() )
+            {
+                tableInfos.put( tableName, cachedTableInfo.get() );
+            }
+            else
             {
-                buildSchema( tableName, tables, joins, joinTables );
+                tablesToInspect.add( tableName );
             }
         }
 
+        if ( cache.isPresent() )
+        {
+            Loggers.Default.log( Level.INFO, format( "Reusing cached metadata for %s of %s tables",
+                    tableNames.size() - tablesToInspect.size(), tableNames.size() ) );
+        }
+
+        inspect( tablesToInspect, tableInfos );
+
+        for ( TableName tableName : tableNames )
+        {
+            buildSchema( tableInfos.get( tableName ), tables, joins, joinTables );
+        }
+
+        if ( cache.isPresent() )
+        {
+            TableInfoCache tableInfoCache = cache.get();
+
+            tablesToInspect.forEach( tableName ->
+                    tableInfoCache.put( tableName, ddlMarkers.get( tableName ), tableInfos.get( tableName ) ) );
+            tableInfoCache.retainAll( tableNames );
+            tableInfoCache.save();
+        }
+
         return new SchemaExport( tables, joins, joinTables );
     }
 
-    private void buildSchema( TableName tableName,
+    private void inspect( List<TableName> tableNames, Map<TableName, TableInfo> tableInfos ) throws Exception
+    {
+        if ( tableNames.isEmpty() )
+        {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( parallelism );
+
+        try
+        {
+            if ( databaseClient.supportsSchemaMetaData() && tableNames.size() > MAX_TABLES_INSPECTED_INDIVIDUALLY )
+            {
+                try
+                {
+                    tableInfos.putAll( tableInfoAssembler.createTableInfos( tableNames, executor ) );
+                    return;
+                }
+                catch ( Exception e )
+                {
+                    Loggers.Default.log( Level.WARNING, format( "Unable to read metadata a schema at a time, so " +
+                            "reading it a table at a time instead: %s", e.getMessage() ) );
+                }
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+
+            for ( TableName tableName : tableNames )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    tableInfos.put( tableName, tableInfoAssembler.createTableInfo( tableName ) );
+                    return null;
+                } ) );
+            }
+
+            for ( Future<?> future : futures )
+            {
+                await( future );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    // Markers are read a schema at a time. If they can't be read, nothing is taken from the cache.
+    private Map<TableName, String> ddlMarkers( List<TableName> tableNames )
+    {
+        Map<TableName, String> ddlMarkers = new HashMap<>();
+
+        for ( String schema : tableNames.stream().map( TableName::schema ).collect( Collectors.toSet() ) )
+        {
+            try ( QueryResults results = databaseClient.schemaDdlMarkers( schema ) )
+            {
+                results.stream().forEach( row -> ddlMarkers.put(
+                        new TableName( schema, row.get( "TABLE_NAME" ) ), row.get( "DDL_MARKER" ) ) );
+            }
+            catch ( Exception e )
+            {
+                Loggers.Default.log( Level.WARNING,
+                        format( "Unable to check schema %s for changes, so its metadata won't be cached: %s",
+                                schema, e.getMessage() ) );
+                ddlMarkers.keySet().removeIf( tableName -> tableName.schema().equals( schema ) );
+            }
+        }
+
+        return ddlMarkers;
+    }
+
+    private void buildSchema( TableInfo tableInfo,
                               Collection<Table> tables,
                               Collection<Join> joins,
-                              Collection<JoinTable> joinTables ) throws Exception
+                              Collection<JoinTable> joinTables )
     {
-        TableInfo tableInfo = tableInfoAssembler.createTableInfo( tableName );
-
         if ( tableInfo.representsJoinTable() )
         {
             joinTables.add( tableInfo.createJoinTable() );
@@ -60,4 +205,21 @@ public class DatabaseInspector
             joins.addAll( tableInfo.createJoins() );
         }
     }
+
+    private static void await( Future<?> future ) throws Exception
+    {
+        try
+        {
+            future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof Exception )
+            {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
 }
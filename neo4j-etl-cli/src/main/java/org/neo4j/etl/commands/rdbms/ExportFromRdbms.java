@@ -5,13 +5,16 @@ import java.util.concurrent.Callable;
 import org.neo4j.etl.environment.Environment;
 import org.neo4j.etl.neo4j.importcsv.ImportFromCsvCommand;
 import org.neo4j.etl.neo4j.importcsv.config.ImportConfig;
+import org.neo4j.etl.neo4j.importcsv.config.ImportToolTuning;
 import org.neo4j.etl.neo4j.importcsv.config.Manifest;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.neo4j.importcsv.fields.IdType;
 import org.neo4j.etl.sql.ConnectionConfig;
+import org.neo4j.etl.sql.ConnectionPool;
 import org.neo4j.etl.sql.exportcsv.ExportToCsvCommand;
 import org.neo4j.etl.sql.exportcsv.ExportToCsvConfig;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
+import org.neo4j.etl.sql.exportcsv.mapping.IdTypeResolver;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMappings;
 
 public class ExportFromRdbms implements Callable<Void>
@@ -19,8 +22,8 @@ public class ExportFromRdbms implements Callable<Void>
 
     private final ExportFromRdbmsEvents events;
     private final MetadataMappings metadataMappings;
-    private final ConnectionConfig connectionConfig;
-    private final Formatting formatting;
+    private final ExportToCsvConfig exportConfig;
+    private final ConnectionPool connectionPool;
     private final Environment environment;
     private TinyIntResolver tinyIntResolver;
 
@@ -44,11 +47,38 @@ public class ExportFromRdbms implements Callable<Void>
                            Formatting formatting,
                            Environment environment,
                            TinyIntResolver tinyIntResolver )
+    {
+        this( events,
+                metadataMappings,
+                ExportToCsvConfig.builder()
+                        .destination( environment.csvDirectory() )
+                        .connectionConfig( connectionConfig )
+                        .formatting( formatting )
+                        .build(),
+                environment,
+                tinyIntResolver );
+    }
+
+    public ExportFromRdbms( ExportFromRdbmsEvents events,
+                            MetadataMappings metadataMappings,
+                            ExportToCsvConfig exportConfig,
+                            Environment environment,
+                            TinyIntResolver tinyIntResolver )
+    {
+        this( events, metadataMappings, exportConfig, null, environment, tinyIntResolver );
+    }
+
+    public ExportFromRdbms( ExportFromRdbmsEvents events,
+                            MetadataMappings metadataMappings,
+                            ExportToCsvConfig exportConfig,
+                            ConnectionPool connectionPool,
+                            Environment environment,
+                            TinyIntResolver tinyIntResolver )
     {
         this.events = events;
         this.metadataMappings = metadataMappings;
-        this.connectionConfig = connectionConfig;
-        this.formatting = formatting;
+        this.exportConfig = exportConfig;
+        this.connectionPool = connectionPool;
         this.environment = environment;
         this.tinyIntResolver = tinyIntResolver;
     }
@@ -56,19 +86,37 @@ public class ExportFromRdbms implements Callable<Void>
     @Override
     public Void call() throws Exception
     {
-        ExportToCsvConfig config = ExportToCsvConfig.builder()
-                .destination( environment.csvDirectory() )
-                .connectionConfig( connectionConfig )
-                .formatting( formatting )
-                .build();
-
         events.onExportingToCsv( environment.csvDirectory() );
 
-        Manifest manifest = new ExportToCsvCommand( config, metadataMappings, tinyIntResolver ).execute();
+        ExportToCsvCommand exportToCsvCommand =
+                new ExportToCsvCommand( exportConfig, metadataMappings, tinyIntResolver, connectionPool );
+
+        if ( exportConfig.streaming() )
+        {
+            exportToCsvCommand.stream( manifest ->
+            {
+                events.onCreatingNeo4jStore();
+                doImport( exportConfig.formatting(), manifest );
+            } );
+        }
+        else if ( exportConfig.deltaStateFile().isPresent() )
+        {
+            // The import tool can only create a new store, so delta CSVs are left for the caller to apply to an
+            // existing graph
+            exportToCsvCommand.execute();
 
-        events.onCreatingNeo4jStore();
+            events.onExportComplete( environment.csvDirectory() );
 
-        doImport( formatting, manifest );
+            return null;
+        }
+        else
+        {
+            Manifest manifest = exportToCsvCommand.execute();
+
+            events.onCreatingNeo4jStore();
+
+            doImport( exportConfig.formatting(), manifest );
+        }
 
         events.onExportComplete( environment.destinationDirectory() );
 
@@ -77,15 +125,21 @@ public class ExportFromRdbms implements Callable<Void>
 
     private void doImport( Formatting formatting, Manifest manifest ) throws Exception
     {
+        IdType idType = new IdTypeResolver( tinyIntResolver, exportConfig.hashCompositeKeys() )
+                .resolve( metadataMappings );
+        ImportToolTuning tuning = ImportToolTuning.forHost( manifest, idType );
+
         ImportConfig.Builder builder = ImportConfig.builder()
                 .importToolDirectory( environment.importToolDirectory() )
-                .importToolOptions( environment.importToolOptions() )
+                .importToolOptions( tuning.applyTo( environment.importToolOptions(),
+                        ImportFromCsvCommand.supportedOptions( environment.importToolDirectory() ) ) )
                 .destination( environment.destinationDirectory() )
                 .formatting( formatting )
-                .idType( IdType.String );
+                .idType( idType )
+                .environment( tuning.environment() );
 
         manifest.addNodesAndRelationshipsToBuilder( builder );
 
-        new ImportFromCsvCommand( builder.build() ).execute();
+        new ImportFromCsvCommand( builder.build(), events::onImportProgress ).execute();
     }
 }
@@ -2,6 +2,8 @@ package org.neo4j.etl.commands.rdbms;
 
 import java.nio.file.Path;
 
+import org.neo4j.etl.neo4j.importcsv.io.ImportProgress;
+
 public interface ExportFromRdbmsEvents
 {
     ExportFromRdbmsEvents EMPTY = new ExportFromRdbmsEvents()
@@ -18,6 +20,12 @@ public interface ExportFromRdbmsEvents
             // Do nothing
         }
 
+        @Override
+        public void onImportProgress( ImportProgress progress )
+        {
+            // Do nothing
+        }
+
         @Override
         public void onExportComplete( Path destinationDirectory )
         {
@@ -29,5 +37,8 @@ public interface ExportFromRdbmsEvents
 
     void onCreatingNeo4jStore();
 
+    // Called as the import tool starts each stage and reports its progress through it
+    void onImportProgress( ImportProgress progress );
+
     void onExportComplete( Path destinationDirectory );
 }
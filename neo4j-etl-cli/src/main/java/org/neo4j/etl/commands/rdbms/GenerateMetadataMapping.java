@@ -5,8 +5,13 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.logging.Level;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,6 +21,7 @@ import org.neo4j.etl.commands.DatabaseInspector;
 import org.neo4j.etl.commands.SchemaExport;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.ConnectionConfig;
+import org.neo4j.etl.sql.ConnectionPool;
 import org.neo4j.etl.sql.DatabaseClient;
 import org.neo4j.etl.sql.exportcsv.DatabaseExportSqlSupplier;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
@@ -23,7 +29,14 @@ import org.neo4j.etl.sql.exportcsv.mapping.ExclusionMode;
 import org.neo4j.etl.sql.exportcsv.mapping.FilterOptions;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMappings;
 import org.neo4j.etl.sql.exportcsv.mapping.RelationshipNameResolver;
+import org.neo4j.etl.sql.exportcsv.supplier.SizeEstimator;
 import org.neo4j.etl.sql.metadata.Schema;
+import org.neo4j.etl.sql.metadata.TableInfoCache;
+import org.neo4j.etl.sql.metadata.TableName;
+import org.neo4j.etl.util.FileUtils;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
 
 public class GenerateMetadataMapping implements Callable<MetadataMappings>
 {
@@ -46,28 +59,80 @@ public class GenerateMetadataMapping implements Callable<MetadataMappings>
     private final GenerateMetadataMappingEvents events;
     private final OutputStream output;
     private final ConnectionConfig connectionConfig;
+    private final ConnectionPool connectionPool;
     private final Formatting formatting;
     private final DatabaseExportSqlSupplier sqlSupplier;
     private final RelationshipNameResolver relationshipNameResolver;
     private final FilterOptions filterOptions;
     private final TinyIntResolver tinyIntResolver;
+    private final int introspectionThreads;
     private Schema schema;
+    private Path metadataCacheFile;
+    private Path existingMappingFile;
+
+    public GenerateMetadataMapping( GenerateMetadataMappingEvents events,
+                                    OutputStream output,
+                                    ConnectionConfig connectionConfig,
+                                    Formatting formatting,
+                                    DatabaseExportSqlSupplier sqlSupplier,
+                                    FilterOptions filterOptions, TinyIntResolver tinyIntResolver )
+    {
+        this( events, output, connectionConfig, formatting, sqlSupplier, filterOptions, tinyIntResolver, 1 );
+    }
 
     public GenerateMetadataMapping( GenerateMetadataMappingEvents events,
                                     OutputStream output,
                                     ConnectionConfig connectionConfig,
                                     Formatting formatting,
                                     DatabaseExportSqlSupplier sqlSupplier,
+                                    FilterOptions filterOptions, TinyIntResolver tinyIntResolver,
+                                    int introspectionThreads )
+    {
+        this( events, output, connectionConfig, null, formatting, sqlSupplier, filterOptions, tinyIntResolver,
+                introspectionThreads );
+    }
+
+    public GenerateMetadataMapping( GenerateMetadataMappingEvents events,
+                                    OutputStream output,
+                                    ConnectionPool connectionPool,
+                                    Formatting formatting,
+                                    DatabaseExportSqlSupplier sqlSupplier,
                                     FilterOptions filterOptions, TinyIntResolver tinyIntResolver )
+    {
+        this( events, output, connectionPool, formatting, sqlSupplier, filterOptions, tinyIntResolver, 1 );
+    }
+
+    public GenerateMetadataMapping( GenerateMetadataMappingEvents events,
+                                    OutputStream output,
+                                    ConnectionPool connectionPool,
+                                    Formatting formatting,
+                                    DatabaseExportSqlSupplier sqlSupplier,
+                                    FilterOptions filterOptions, TinyIntResolver tinyIntResolver,
+                                    int introspectionThreads )
+    {
+        this( events, output, null, connectionPool, formatting, sqlSupplier, filterOptions, tinyIntResolver,
+                introspectionThreads );
+    }
+
+    private GenerateMetadataMapping( GenerateMetadataMappingEvents events,
+                                     OutputStream output,
+                                     ConnectionConfig connectionConfig,
+                                     ConnectionPool connectionPool,
+                                     Formatting formatting,
+                                     DatabaseExportSqlSupplier sqlSupplier,
+                                     FilterOptions filterOptions, TinyIntResolver tinyIntResolver,
+                                     int introspectionThreads )
     {
         this.events = events;
         this.output = output;
         this.connectionConfig = connectionConfig;
+        this.connectionPool = connectionPool;
         this.formatting = formatting;
         this.sqlSupplier = sqlSupplier;
         this.filterOptions = filterOptions;
         this.relationshipNameResolver = new RelationshipNameResolver( filterOptions.relationshipNameFrom() );
         this.tinyIntResolver = tinyIntResolver;
+        this.introspectionThreads = introspectionThreads;
         this.schema = Schema.UNDEFINED;
     }
 
@@ -76,22 +141,89 @@ public class GenerateMetadataMapping implements Callable<MetadataMappings>
         return this;
     }
 
+    // Table metadata is cached in this file between runs, and only tables that have changed are introspected again
+    public GenerateMetadataMapping withMetadataCache( Path metadataCacheFile )
+    {
+        this.metadataCacheFile = metadataCacheFile;
+        return this;
+    }
+
+    // Updates an existing mapping file in place, regenerating only the mappings that touch tables added, altered
+    // or dropped since it was generated. Changes are detected with the metadata cache, which defaults to a file
+    // alongside the mapping file. Until there is a cache, the mapping file is left as it is.
+    public GenerateMetadataMapping incrementalFrom( Path existingMappingFile )
+    {
+        this.existingMappingFile = existingMappingFile;
+
+        if ( metadataCacheFile == null )
+        {
+            metadataCacheFile = existingMappingFile.resolveSibling(
+                    existingMappingFile.getFileName() + ".metadata-cache.json" );
+        }
+
+        return this;
+    }
+
     @Override
     public MetadataMappings call() throws Exception
     {
         events.onGeneratingMetadataMapping();
 
-        DatabaseClient databaseClient = new DatabaseClient( connectionConfig );
+        MetadataMappings metadataMappings;
 
-        if ( filterOptions.exclusionMode().equals( ExclusionMode.INCLUDE ) )
+        try ( DatabaseClient databaseClient = createDatabaseClient() )
         {
-            filterOptions.invertTables( databaseClient.tables( this.schema ) );
+            if ( filterOptions.exclusionMode().equals( ExclusionMode.INCLUDE ) )
+            {
+                filterOptions.invertTables( databaseClient.tables( this.schema ) );
+            }
+
+            Optional<TableInfoCache> cache = metadataCacheFile == null ?
+                    Optional.empty() :
+                    Optional.of( TableInfoCache.load( metadataCacheFile, formatting, filterOptions.tablesToExclude() ) );
+
+            SchemaExport schemaExport =
+                    new DatabaseInspector( databaseClient, formatting, filterOptions.tablesToExclude(),
+                            introspectionThreads, cache ).buildSchemaExport( this.schema );
+            metadataMappings = schemaExport
+                    .generateMetadataMappings( formatting, sqlSupplier, relationshipNameResolver, tinyIntResolver );
+
+            if ( existingMappingFile != null && Files.exists( existingMappingFile ) )
+            {
+                MetadataMappings existingMappings = load( existingMappingFile.toString(), formatting ).call();
+
+                if ( cache.get().hasEarlierRun() )
+                {
+                    Set<TableName> changedTables = cache.get().changedTables();
+
+                    Loggers.Default.log( Level.INFO, format( "Regenerating mappings for %s added, altered or " +
+                            "dropped tables in %s", changedTables.size(), existingMappingFile ) );
+
+                    metadataMappings = metadataMappings.retainUnchanged( existingMappings, changedTables );
+                }
+                else
+                {
+                    // Without a cache there's no telling which tables changed since the mapping file was written,
+                    // so rather than regenerate (and lose any edits to) every mapping, the file is kept as it is
+                    // and the tables as they are now become the baseline for the next run
+                    Loggers.Default.log( Level.WARNING, format( "No metadata cache from an earlier run in %s, so " +
+                            "keeping the mappings in %s as they are. Tables added, altered or dropped from now on " +
+                            "will be regenerated by the next run.", metadataCacheFile, existingMappingFile ) );
+
+                    metadataMappings = existingMappings;
+                }
+            }
+
+            // Estimates are refreshed for every mapping, including those kept from an existing mapping file
+            MetadataMappings estimatedMappings = new MetadataMappings();
+            new SizeEstimator( databaseClient ).estimate( metadataMappings ).forEach( estimatedMappings::add );
+            metadataMappings = estimatedMappings;
         }
 
-        SchemaExport schemaExport = new DatabaseInspector( databaseClient, formatting, filterOptions.tablesToExclude() )
-                .buildSchemaExport( this.schema );
-        MetadataMappings metadataMappings = schemaExport
-                .generateMetadataMappings( formatting, sqlSupplier, relationshipNameResolver, tinyIntResolver );
+        if ( existingMappingFile != null )
+        {
+            writeMappingFile( metadataMappings );
+        }
 
         try ( Writer writer = new OutputStreamWriter( output ) )
         {
@@ -103,4 +235,19 @@ public class GenerateMetadataMapping implements Callable<MetadataMappings>
 
         return metadataMappings;
     }
+
+    private void writeMappingFile( MetadataMappings metadataMappings ) throws IOException
+    {
+        ObjectWriter objectWriter = new ObjectMapper().writer().withDefaultPrettyPrinter();
+
+        FileUtils.writeAtomically( existingMappingFile,
+                output -> objectWriter.writeValue( output, metadataMappings.toJson() ) );
+    }
+
+    private DatabaseClient createDatabaseClient() throws Exception
+    {
+        return connectionPool == null ?
+                new DatabaseClient( connectionConfig, introspectionThreads ) :
+                new DatabaseClient( connectionPool );
+    }
 }
@@ -9,10 +9,19 @@ import org.neo4j.etl.util.Supplier;
 public class CsvDirectorySupplier implements Supplier<Path>
 {
     private final Path csvRootDirectory;
+    private final boolean resume;
 
     public CsvDirectorySupplier( Path csvRootDirectory )
+    {
+        this( csvRootDirectory, false );
+    }
+
+    // When resuming, the most recent CSV directory is reused, so that the files already exported to it by an
+    // interrupted run can be picked up
+    public CsvDirectorySupplier( Path csvRootDirectory, boolean resume )
     {
         this.csvRootDirectory = csvRootDirectory;
+        this.resume = resume;
     }
 
     @Override
@@ -23,11 +32,19 @@ public class CsvDirectorySupplier implements Supplier<Path>
 
         Path csvDirectory = csvRootDirectory.resolve( String.format( "csv-%03d", index++ ) );
 
+        Path previousDirectory = null;
+
         while ( Files.exists( csvDirectory ) )
         {
+            previousDirectory = csvDirectory;
             csvDirectory = csvRootDirectory.resolve( String.format( "csv-%03d", index++ ) );
         }
 
+        if ( resume && previousDirectory != null )
+        {
+            return previousDirectory;
+        }
+
         Files.createDirectories( csvDirectory );
 
         return csvDirectory;
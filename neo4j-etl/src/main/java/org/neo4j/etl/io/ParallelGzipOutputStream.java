@@ -0,0 +1,178 @@
+package org.neo4j.etl.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.etl.util.FutureUtils;
+
+// Splits the stream into fixed-size blocks and compresses each one as a separate gzip member on the supplied
+// executor. Members are written out in order, and concatenated gzip members form a valid gzip file, so readers
+// see a single stream.
+public class ParallelGzipOutputStream extends OutputStream
+{
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final OutputStream output;
+    private final Executor executor;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final Deque<CompletableFuture<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private byte[] block;
+    private int count;
+    private boolean blockSubmitted;
+    private boolean closed;
+
+    public ParallelGzipOutputStream( OutputStream output, Executor executor, int parallelism )
+    {
+        this( output, executor, DEFAULT_BLOCK_SIZE, parallelism * 2 );
+    }
+
+    public ParallelGzipOutputStream( OutputStream output, Executor executor, int blockSize, int maxPendingBlocks )
+    {
+        if ( blockSize < 1 || maxPendingBlocks < 1 )
+        {
+            throw new IllegalArgumentException( "Block size and pending blocks must be greater than zero" );
+        }
+
+        this.output = output;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write( int b ) throws IOException
+    {
+        if ( count == blockSize )
+        {
+            submitBlock();
+        }
+
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write( byte[] bytes, int offset, int length ) throws IOException
+    {
+        while ( length > 0 )
+        {
+            if ( count == blockSize )
+            {
+                submitBlock();
+            }
+
+            int copied = Math.min( length, blockSize - count );
+            System.arraycopy( bytes, offset, block, count, copied );
+
+            count += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    // Flushing ends the current gzip member early, so it should only be called when the data written so far must
+    // reach the underlying stream
+    @Override
+    public void flush() throws IOException
+    {
+        if ( count > 0 )
+        {
+            submitBlock();
+        }
+
+        while ( !pendingBlocks.isEmpty() )
+        {
+            writeNextBlock();
+        }
+
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( closed )
+        {
+            return;
+        }
+
+        closed = true;
+
+        try
+        {
+            // An empty file isn't valid gzip, so even an empty stream gets one (empty) member
+            if ( !blockSubmitted )
+            {
+                submitBlock();
+            }
+
+            flush();
+        }
+        finally
+        {
+            pendingBlocks.forEach( pendingBlock -> pendingBlock.cancel( true ) );
+            pendingBlocks.clear();
+            output.close();
+        }
+    }
+
+    private void submitBlock() throws IOException
+    {
+        byte[] data = block;
+        int length = count;
+
+        pendingBlocks.add( FutureUtils.exceptionableFuture( () -> compress( data, length ), executor ) );
+        blockSubmitted = true;
+
+        block = new byte[blockSize];
+        count = 0;
+
+        while ( pendingBlocks.size() >= maxPendingBlocks )
+        {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException
+    {
+        try
+        {
+            output.write( pendingBlocks.poll().get() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for block to be compressed" );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException( "Unable to compress block", e.getCause() );
+        }
+    }
+
+    private static byte[] compress( byte[] data, int length ) throws IOException
+    {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream( Math.max( 64, length / 4 ) );
+
+        try ( GZIPOutputStream gzip = new GZIPOutputStream( compressed, 64 * 1024 ) )
+        {
+            gzip.write( data, 0, length );
+        }
+
+        return compressed.toByteArray();
+    }
+}
@@ -1,16 +1,68 @@
 package org.neo4j.etl.neo4j.importcsv;
 
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+import org.neo4j.etl.io.InMemoryStreamRecorder;
 import org.neo4j.etl.neo4j.importcsv.config.ImportConfig;
+import org.neo4j.etl.neo4j.importcsv.io.ImportProgress;
+import org.neo4j.etl.neo4j.importcsv.io.ImportProgressParser;
 import org.neo4j.etl.process.Commands;
 import org.neo4j.etl.process.Result;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
 
 public class ImportFromCsvCommand
 {
+    // Tests which options the import tool supports by looking for them in its usage. If the usage can't be read, no
+    // option is taken to be supported.
+    public static Predicate<String> supportedOptions( Path importToolDirectory )
+    {
+        String usage;
+
+        try
+        {
+            Result result = Commands.builder( importToolDirectory.resolve( ImportConfig.IMPORT_TOOL ).toString(),
+                    "--help" )
+                    .inheritWorkingDirectory()
+                    .ignoreFailures()
+                    .timeout( 1, TimeUnit.MINUTES )
+                    .inheritEnvironment()
+                    .build()
+                    .execute()
+                    .await();
+
+            usage = result.stdout() + result.stderr();
+        }
+        catch ( Exception e )
+        {
+            Loggers.Default.log( Level.WARNING,
+                    format( "Unable to check which options the import tool supports: %s", e.getMessage() ) );
+            usage = "";
+        }
+
+        String importToolUsage = usage;
+
+        return option -> importToolUsage.contains( "--" + option );
+    }
+
     private final ImportConfig config;
+    private final Consumer<ImportProgress> progressListener;
 
     public ImportFromCsvCommand( ImportConfig config )
+    {
+        this( config, progress -> {} );
+    }
+
+    // The listener is called on the thread reading the import tool's output, as each stage and progress line appears
+    public ImportFromCsvCommand( ImportConfig config, Consumer<ImportProgress> progressListener )
     {
         this.config = config;
+        this.progressListener = progressListener;
     }
 
     public int execute() throws Exception
@@ -23,7 +75,8 @@ public class ImportFromCsvCommand
                 .inheritWorkingDirectory()
                 .failOnNonZeroExitValue()
                 .noTimeout()
-                .inheritEnvironment()
+                .augmentEnvironment( config.environment() )
+                .redirectStdOutTo( new ImportProgressParser<>( new InMemoryStreamRecorder(), progressListener ) )
                 .build();
 
         Result result = commands.execute().await();
@@ -1,19 +1,32 @@
 package org.neo4j.etl.neo4j.importcsv.config;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
-import static java.util.Arrays.asList;
+import org.neo4j.etl.util.Preconditions;
+
+import static java.util.Collections.singletonList;
 
 public class CsvFiles
 {
     private final Path header;
-    private final Path body;
+    private final List<Path> bodies;
 
     public CsvFiles( Path header, Path body )
+    {
+        this( header, singletonList( body ) );
+    }
+
+    // A data file exported in several parts is still a single input group: the import tool reads the header
+    // followed by each of the parts in turn
+    public CsvFiles( Path header, List<Path> bodies )
     {
         this.header = header;
-        this.body = body;
+        this.bodies = Collections.unmodifiableList(
+                new ArrayList<>( Preconditions.requireNonEmptyList( bodies, "Bodies" ) ) );
     }
 
     public Path header()
@@ -21,13 +34,16 @@ public class CsvFiles
         return header;
     }
 
-    public Path body()
+    public List<Path> bodies()
     {
-        return body;
+        return bodies;
     }
 
     public Collection<Path> asCollection()
     {
-        return asList( header, body );
+        Collection<Path> files = new ArrayList<>();
+        files.add( header );
+        files.addAll( bodies );
+        return files;
     }
 }
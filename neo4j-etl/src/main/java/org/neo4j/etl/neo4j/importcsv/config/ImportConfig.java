@@ -2,6 +2,7 @@ package org.neo4j.etl.neo4j.importcsv.config;
 
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Map;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.ImportToolOptions;
@@ -29,6 +30,7 @@ public class ImportConfig implements CommandsSupplier
     private final IdType idType;
     private final Collection<NodeConfig> nodes;
     private final Collection<RelationshipConfig> relationships;
+    private final Map<String, String> environment;
 
     ImportConfig( ImportConfigBuilder builder )
     {
@@ -39,6 +41,13 @@ public class ImportConfig implements CommandsSupplier
         this.nodes = builder.nodes;
         this.relationships = builder.relationships;
         this.importToolOptions = builder.importToolOptions;
+        this.environment = builder.environment;
+    }
+
+    // Added to the environment the import tool inherits
+    public Map<String, String> environment()
+    {
+        return environment;
     }
 
     @Override
@@ -105,6 +114,8 @@ public class ImportConfig implements CommandsSupplier
 
         Builder addRelationshipConfig( RelationshipConfig relationshipConfig );
 
+        Builder environment( Map<String, String> environment );
+
         ImportConfig build();
     }
 }
@@ -3,6 +3,8 @@ package org.neo4j.etl.neo4j.importcsv.config;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.ImportToolOptions;
@@ -22,6 +24,7 @@ class ImportConfigBuilder implements ImportConfig.Builder.SetImportToolDirectory
     IdType idType = IdType.String;
     final Collection<NodeConfig> nodes = new ArrayList<>();
     final Collection<RelationshipConfig> relationships = new ArrayList<>();
+    Map<String, String> environment = Collections.emptyMap();
 
     @Override
     public SetImportToolOptions importToolDirectory( Path directory )
@@ -72,6 +75,13 @@ class ImportConfigBuilder implements ImportConfig.Builder.SetImportToolDirectory
         return this;
     }
 
+    @Override
+    public ImportConfig.Builder environment( Map<String, String> environment )
+    {
+        this.environment = environment;
+        return this;
+    }
+
     @Override
     public ImportConfig build()
     {
@@ -0,0 +1,200 @@
+package org.neo4j.etl.neo4j.importcsv.config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.ImportToolOptions;
+import org.neo4j.etl.neo4j.importcsv.fields.IdType;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// Sizes the import tool to the exported data and the host. Left to itself, the import tool runs with a default heap
+// and its own guess at how much memory to use, which runs out on large imports and leaves much of a large machine
+// idle. Anything set by hand, in the options file or the HEAP_SIZE environment variable, is left as it is.
+public class ImportToolTuning
+{
+    public static final String HEAP_SIZE = "HEAP_SIZE";
+
+    private static final long MB = 1024L * 1024;
+    private static final long GB = 1024 * MB;
+    // Rough sizes of the import tool's off-heap structures per node and relationship: its node and relationship
+    // caches, and the ID mapper, whose entries for string IDs are the largest part
+    private static final long BYTES_PER_NODE = 16;
+    private static final long BYTES_PER_STRING_ID = 48;
+    private static final long BYTES_PER_RELATIONSHIP = 24;
+    private static final long MIN_HEAP = GB;
+    // Above this the JVM can no longer use compressed object pointers
+    private static final long MAX_HEAP = 31 * GB;
+    // Left for the operating system and everything else running on the host
+    private static final long RESERVED_MEMORY = GB;
+
+    public static ImportToolTuning forHost( Manifest manifest, IdType idType )
+    {
+        return tune( manifest, idType, Runtime.getRuntime().availableProcessors(), physicalMemory() );
+    }
+
+    // Without row counts (or when the host's memory isn't known) only the processors are set
+    static ImportToolTuning tune( Manifest manifest, IdType idType, int processors, long physicalMemory )
+    {
+        long nodes = manifest.rows( GraphObjectType.Node );
+        long relationships = manifest.rows( GraphObjectType.Relationship );
+
+        if ( physicalMemory <= 0 || nodes + relationships == 0 )
+        {
+            return new ImportToolTuning( processors, 0, 0, nodes, relationships, manifest.bytes(), 0 );
+        }
+
+        long required = nodes * (BYTES_PER_NODE + (idType == IdType.String ? BYTES_PER_STRING_ID : 0)) +
+                relationships * BYTES_PER_RELATIONSHIP;
+        long usable = Math.max( physicalMemory - RESERVED_MEMORY, 2 * MIN_HEAP );
+
+        // Batches of rows in flight on each processor are held on the heap, so it grows with the data and the
+        // number of processors
+        long heap = clamp( MIN_HEAP + manifest.bytes() / 64 + processors * 64 * MB,
+                MIN_HEAP, Math.min( MAX_HEAP, usable / 4 ) );
+        // Twice the estimate, as it's only a rough one, but no more than the heap leaves
+        long maxMemory = clamp( required * 2, GB, usable - heap );
+
+        return new ImportToolTuning( processors, maxMemory, heap, nodes, relationships, manifest.bytes(), required );
+    }
+
+    private static long clamp( long value, long min, long max )
+    {
+        return Math.min( Math.max( value, min ), max );
+    }
+
+    private static long physicalMemory()
+    {
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+
+        if ( operatingSystem instanceof com.sun.management.OperatingSystemMXBean )
+        {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getTotalPhysicalMemorySize();
+        }
+
+        return 0;
+    }
+
+    private final int processors;
+    private final long maxMemory;
+    private final long heapSize;
+    private final long nodes;
+    private final long relationships;
+    private final long bytes;
+    private final long requiredMemory;
+
+    private ImportToolTuning( int processors,
+                              long maxMemory,
+                              long heapSize,
+                              long nodes,
+                              long relationships,
+                              long bytes,
+                              long requiredMemory )
+    {
+        this.processors = processors;
+        this.maxMemory = maxMemory;
+        this.heapSize = heapSize;
+        this.nodes = nodes;
+        this.relationships = relationships;
+        this.bytes = bytes;
+        this.requiredMemory = requiredMemory;
+    }
+
+    public int processors()
+    {
+        return processors;
+    }
+
+    // Zero if not tuned
+    public long maxMemory()
+    {
+        return maxMemory;
+    }
+
+    // Zero if not tuned
+    public long heapSize()
+    {
+        return heapSize;
+    }
+
+    // Adds the tuned processors and max memory to the options, unless they are already set, and logs the settings
+    // chosen. Max memory is only added if this version of the import tool supports it.
+    public ImportToolOptions applyTo( ImportToolOptions importToolOptions, Predicate<String> supportsOption )
+    {
+        ImportToolOptions tunedOptions = importToolOptions;
+        List<String> settings = new ArrayList<>();
+        boolean maxMemoryTuned = false;
+
+        if ( importToolOptions.contains( "processors" ) )
+        {
+            settings.add( "processors as set in the options file" );
+        }
+        else
+        {
+            tunedOptions = tunedOptions.with( "processors", Integer.toString( processors ) );
+            settings.add( format( "%s processors", processors ) );
+        }
+
+        if ( importToolOptions.contains( "max-memory" ) )
+        {
+            settings.add( "max memory as set in the options file" );
+        }
+        else if ( maxMemory > 0 && !supportsOption.test( "max-memory" ) )
+        {
+            Loggers.Default.log( Level.WARNING, format( "This version of the import tool doesn't support " +
+                    "--max-memory, so it will decide for itself how much memory to use (~%s may be needed)",
+                    megabytes( requiredMemory ) ) );
+        }
+        else if ( maxMemory > 0 )
+        {
+            maxMemoryTuned = true;
+            tunedOptions = tunedOptions.with( "max-memory", megabytes( maxMemory ) );
+            settings.add( format( "%s max memory", megabytes( maxMemory ) ) );
+        }
+
+        if ( heapSize > 0 && StringUtils.isNotEmpty( System.getenv( HEAP_SIZE ) ) )
+        {
+            settings.add( format( "heap as set by %s", HEAP_SIZE ) );
+        }
+        else if ( heapSize > 0 )
+        {
+            settings.add( format( "%s heap", megabytes( heapSize ) ) );
+        }
+
+        Loggers.Default.log( Level.INFO, format( "Sizing the import tool for ~%s nodes and ~%s relationships " +
+                "(%s MB of CSV data): %s", nodes, relationships, bytes / MB, StringUtils.join( settings, ", " ) ) );
+
+        if ( maxMemoryTuned && requiredMemory > maxMemory )
+        {
+            Loggers.Default.log( Level.WARNING, format( "The import may need ~%s of memory, more than the %s " +
+                    "available to it", megabytes( requiredMemory ), megabytes( maxMemory ) ) );
+        }
+
+        return tunedOptions;
+    }
+
+    // The import tool script reads its heap size from the environment
+    public Map<String, String> environment()
+    {
+        if ( heapSize == 0 || StringUtils.isNotEmpty( System.getenv( HEAP_SIZE ) ) )
+        {
+            return Collections.emptyMap();
+        }
+
+        return Collections.singletonMap( HEAP_SIZE, megabytes( heapSize ) );
+    }
+
+    private static String megabytes( long bytes )
+    {
+        return format( "%sm", bytes / MB );
+    }
+}
@@ -26,6 +26,19 @@ public class Manifest
                                 RelationshipConfig.builder().addInputFiles( csvFiles.asCollection() ).build() ) );
     }
 
+    public long rows( GraphObjectType graphObjectType )
+    {
+        return manifestEntries.stream()
+                .filter( manifestEntry -> graphObjectType == manifestEntry.graphObjectType() )
+                .mapToLong( ManifestEntry::rows )
+                .sum();
+    }
+
+    public long bytes()
+    {
+        return manifestEntries.stream().mapToLong( ManifestEntry::bytes ).sum();
+    }
+
     private Collection<CsvFiles> csvFilesForNodes()
     {
         return csvFilesForGraphObject( GraphObjectType.Node );
@@ -4,11 +4,21 @@ public class ManifestEntry
 {
     private final GraphObjectType graphObjectType;
     private final CsvFiles csvFiles;
+    private final long rows;
+    private final long bytes;
 
     public ManifestEntry( GraphObjectType graphObjectType, CsvFiles csvFiles )
+    {
+        this( graphObjectType, csvFiles, 0, 0 );
+    }
+
+    // Rows and bytes are those exported, or estimated where the data hasn't been written yet; zero if not known
+    public ManifestEntry( GraphObjectType graphObjectType, CsvFiles csvFiles, long rows, long bytes )
     {
         this.graphObjectType = graphObjectType;
         this.csvFiles = csvFiles;
+        this.rows = rows;
+        this.bytes = bytes;
     }
 
     public GraphObjectType graphObjectType()
@@ -20,4 +30,14 @@ public class ManifestEntry
     {
         return csvFiles;
     }
+
+    public long rows()
+    {
+        return rows;
+    }
+
+    public long bytes()
+    {
+        return bytes;
+    }
 }
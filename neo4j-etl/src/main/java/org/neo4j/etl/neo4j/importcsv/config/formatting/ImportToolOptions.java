@@ -62,6 +62,20 @@ public class ImportToolOptions
         }
     }
 
+    public boolean contains( String option )
+    {
+        return importToolOptions.containsKey( option );
+    }
+
+    // A copy of these options with another added, leaving these unchanged
+    public ImportToolOptions with( String option, String value )
+    {
+        Map<String, String> options = new HashMap<>( importToolOptions );
+        options.put( option, value );
+
+        return new ImportToolOptions( options );
+    }
+
     public Delimiter getDelimiter( String delimiter )
     {
         if ( StringUtils.isNotEmpty( delimiter ) )
@@ -3,7 +3,6 @@ package org.neo4j.etl.neo4j.importcsv.config.formatting;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -13,8 +12,6 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import org.neo4j.etl.util.OperatingSystem;
 
-import static java.lang.String.format;
-
 public class QuoteChar
 {
     public static final QuoteChar DOUBLE_QUOTES = new QuoteChar( "\"", OperatingSystem.isWindows() ? "\\\"" : "\"" );
@@ -22,8 +19,7 @@ public class QuoteChar
     public static final QuoteChar TICK_QUOTES = new QuoteChar( "`", "`" );
     public static final QuoteChar NO_QUOTES = new QuoteChar( "", "" );
 
-    private static final Pattern ESCAPE_CHAR_PATTERN = Pattern.compile( "\\\\" );
-    private static final String ESCAPE_CHAR_REPLACEMENT = "\\\\";
+    private static final char ESCAPE_CHAR = '\\';
 
     public static QuoteChar fromJson( JsonNode root )
     {
@@ -35,15 +31,11 @@ public class QuoteChar
 
     private final String quote;
     private final String argValue;
-    private final Pattern pattern;
-    private final String escaped;
 
     QuoteChar( String quote, String argValue )
     {
         this.quote = quote;
         this.argValue = argValue;
-        this.pattern = Pattern.compile( quote, Pattern.LITERAL );
-        this.escaped = format( "%s%s", quote, quote );
     }
 
     public String value()
@@ -58,7 +50,7 @@ public class QuoteChar
 
     public String enquote( String value )
     {
-        StringWriter writer = new StringWriter();
+        StringWriter writer = new StringWriter( value.length() + 2 * quote.length() );
         try
         {
             writeEnquoted( value, writer );
@@ -70,22 +62,89 @@ public class QuoteChar
         return writer.toString();
     }
 
+    // Scans the value once, writing runs of characters that need no escaping straight through to the writer and
+    // doubling up escape and quote characters as they are encountered
     public void writeEnquoted( String value, Writer writer ) throws IOException
     {
         writer.write( quote );
 
-        if ( value.contains( "\\" ) )
+        int quoteLength = quote.length();
+        char quoteStart = quoteLength == 0 ? ESCAPE_CHAR : quote.charAt( 0 );
+        int length = value.length();
+        int start = 0;
+        int i = 0;
+
+        while ( i < length )
         {
-            value = ESCAPE_CHAR_PATTERN.matcher( value ).replaceAll( "\\\\\\\\" );
+            char c = value.charAt( i );
+
+            if ( c == ESCAPE_CHAR )
+            {
+                writer.write( value, start, i + 1 - start );
+                writer.write( ESCAPE_CHAR );
+                start = ++i;
+            }
+            else if ( c == quoteStart && quoteLength > 0 && value.startsWith( quote, i ) )
+            {
+                i += quoteLength;
+                writer.write( value, start, i - start );
+                writer.write( quote );
+                start = i;
+            }
+            else
+            {
+                i++;
+            }
         }
 
-        if ( value.contains( quote ) )
+        writer.write( value, start, length - start );
+        writer.write( quote );
+    }
+
+    public boolean isEnquoted( String value )
+    {
+        int quoteLength = quote.length();
+
+        return quoteLength > 0 && value.length() >= 2 * quoteLength &&
+                value.startsWith( quote ) && value.endsWith( quote );
+    }
+
+    // Reverses enquote: strips the surrounding quotes and undoes the doubling of escape and quote characters
+    public String dequote( String value )
+    {
+        if ( !isEnquoted( value ) )
         {
-            value = pattern.matcher( value ).replaceAll( escaped );
+            throw new IllegalArgumentException( "Value is not enquoted: " + value );
         }
 
-        writer.write( value );
-        writer.write( quote );
+        int quoteLength = quote.length();
+        int end = value.length() - quoteLength;
+        StringBuilder builder = new StringBuilder( end - quoteLength );
+        int i = quoteLength;
+
+        while ( i < end )
+        {
+            char c = value.charAt( i );
+
+            if ( c == ESCAPE_CHAR && i + 1 < end && value.charAt( i + 1 ) == ESCAPE_CHAR )
+            {
+                builder.append( ESCAPE_CHAR );
+                i += 2;
+            }
+            else if ( value.startsWith( quote, i ) && value.startsWith( quote, i + quoteLength ) &&
+                    i + 2 * quoteLength <= end )
+            {
+                builder.append( quote );
+                i += 2 * quoteLength;
+            }
+            else
+            {
+                builder.append( c );
+                i++;
+            }
+        }
+
+        return builder.toString();
     }
 
     public JsonNode toJson()
@@ -1,5 +1,7 @@
 package org.neo4j.etl.neo4j.importcsv.fields;
 
+import java.util.Optional;
+
 import com.fasterxml.jackson.databind.JsonNode;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatter;
@@ -104,5 +106,16 @@ public interface CsvField
 
     String value( Formatter formatter );
 
+    // Node IDs, and the start and end IDs of relationships, which the import tool resolves through its ID mapper
+    default boolean isId()
+    {
+        return false;
+    }
+
+    default Optional<IdSpace> idSpace()
+    {
+        return Optional.empty();
+    }
+
     JsonNode toJson();
 }
@@ -40,6 +40,18 @@ class StartId implements CsvField
         this.idSpace = Optional.ofNullable( idSpace );
     }
 
+    @Override
+    public boolean isId()
+    {
+        return true;
+    }
+
+    @Override
+    public Optional<IdSpace> idSpace()
+    {
+        return idSpace;
+    }
+
     @Override
     public String value( Formatter formatter )
     {
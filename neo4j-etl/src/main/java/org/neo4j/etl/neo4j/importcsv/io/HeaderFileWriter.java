@@ -1,11 +1,13 @@
 package org.neo4j.etl.neo4j.importcsv.io;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
@@ -17,11 +19,18 @@ public class HeaderFileWriter
 {
     private final Path directory;
     private final Formatting formatting;
+    private final boolean compress;
 
     public HeaderFileWriter( Path directory, Formatting formatting )
+    {
+        this( directory, formatting, false );
+    }
+
+    public HeaderFileWriter( Path directory, Formatting formatting, boolean compress )
     {
         this.directory = directory;
         this.formatting = formatting;
+        this.compress = compress;
     }
 
     public Path writeHeaderFile( String description,
@@ -34,6 +43,18 @@ public class HeaderFileWriter
                 .map( f -> f.value( formatting.propertyFormatter() ) )
                 .collect( Collectors.joining( formatting.delimiter().value() ) );
 
+        if ( compress )
+        {
+            Path headerFile = directory.resolve( format( "%s_headers.csv.gz", filenamePrefix ) );
+
+            try ( OutputStream output = new GZIPOutputStream( Files.newOutputStream( headerFile ) ) )
+            {
+                output.write( headers.getBytes() );
+            }
+
+            return headerFile;
+        }
+
         Path headerFile = directory.resolve( format( "%s_headers.csv", filenamePrefix ) );
         Files.write( headerFile, headers.getBytes() );
 
@@ -0,0 +1,55 @@
+package org.neo4j.etl.neo4j.importcsv.io;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+// A point in the import tool's progress through one of its stages
+public class ImportProgress
+{
+    private final String stage;
+    private final Integer percent;
+    private final String rate;
+    private final Duration elapsed;
+
+    public ImportProgress( String stage, Integer percent, String rate, Duration elapsed )
+    {
+        this.stage = stage;
+        this.percent = percent;
+        this.rate = rate;
+        this.elapsed = elapsed;
+    }
+
+    public String stage()
+    {
+        return stage;
+    }
+
+    // Only reported by the import tool in versions that print progress as a percentage, and at the end of a stage
+    public Optional<Integer> percent()
+    {
+        return Optional.ofNullable( percent );
+    }
+
+    // Throughput as reported by the import tool (e.g. "5.52 MB/s"), or derived from the percentage completed
+    public Optional<String> rate()
+    {
+        return Optional.ofNullable( rate );
+    }
+
+    // Since the stage started
+    public Duration elapsed()
+    {
+        return elapsed;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s%s%s (%ss)", stage,
+                percent().map( p -> format( " %s%%", p ) ).orElse( "" ),
+                rate().map( r -> format( " at %s", r ) ).orElse( "" ),
+                elapsed.getSeconds() );
+    }
+}
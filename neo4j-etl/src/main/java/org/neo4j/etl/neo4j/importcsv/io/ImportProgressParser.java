@@ -0,0 +1,137 @@
+package org.neo4j.etl.neo4j.importcsv.io;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.neo4j.etl.io.StreamEventHandler;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// Recognises the import tool's stages and progress in its output, publishing each as it happens, while passing every
+// line on to the inner handler. Newer versions of the import tool number their stages and report progress as a
+// percentage; older versions name each stage as it starts and redraw a progress bar with the stage's throughput.
+public class ImportProgressParser<T> implements StreamEventHandler<T>
+{
+    // "(1/4) Node import 2018-03-28 10:40:38.540+0000"
+    private static final Pattern NUMBERED_STAGE = Pattern.compile( "^\\(\\d+/\\d+\\) (.+?) \\d{4}-\\d{2}-\\d{2}.*$" );
+    // "Nodes, started 2018-03-28 10:40:38.540+0000"
+    private static final Pattern NAMED_STAGE = Pattern.compile( "^(.+?), started \\d{4}-\\d{2}-\\d{2}.*$" );
+    // ".......... .......... .......... .......... ..........  15% " followed by the time since the last line
+    private static final Pattern PERCENT = Pattern.compile( "^[. ]+(\\d{1,3})%.*$" );
+    // "[*>:5.52 MB/s---|PROPERTIES(2)===|NOD|v:6.25 MB/s(2)---] 1M" followed by the change since the last redraw
+    private static final Pattern PROGRESS_BAR = Pattern.compile( "^\\[.*\\].*\\u2206.*$" );
+    private static final Pattern RATE = Pattern.compile( "(\\d+(\\.\\d+)? [kKMGT]?B/s)" );
+    // "Done in 3s 456ms", "Node import COMPLETED in 1m 2s 3ms", "IMPORT DONE in 10s 123ms."
+    private static final Pattern COMPLETED = Pattern.compile( "^(Done|.+ COMPLETED|IMPORT DONE) in .*$" );
+    // The progress bar is redrawn several times a second
+    private static final long PROGRESS_BAR_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis( 10 );
+
+    private final StreamEventHandler<T> innerHandler;
+    private final Consumer<ImportProgress> listener;
+    private final Clock clock;
+    private final long importStarted;
+
+    private String stage;
+    private long stageStarted;
+    private long lastPublished;
+
+    public ImportProgressParser( StreamEventHandler<T> innerHandler, Consumer<ImportProgress> listener )
+    {
+        this( innerHandler, listener, Clock.systemUTC() );
+    }
+
+    ImportProgressParser( StreamEventHandler<T> innerHandler, Consumer<ImportProgress> listener, Clock clock )
+    {
+        this.innerHandler = innerHandler;
+        this.listener = listener;
+        this.clock = clock;
+        this.importStarted = clock.millis();
+    }
+
+    @Override
+    public void onLine( String line ) throws IOException
+    {
+        innerHandler.onLine( line );
+
+        String trimmed = line.trim();
+        Matcher matcher;
+
+        if ( (matcher = NUMBERED_STAGE.matcher( trimmed )).matches() ||
+                (matcher = NAMED_STAGE.matcher( trimmed )).matches() )
+        {
+            stage = matcher.group( 1 );
+            stageStarted = clock.millis();
+            publish( null, null );
+        }
+        else if ( trimmed.startsWith( "IMPORT DONE" ) && COMPLETED.matcher( trimmed ).matches() )
+        {
+            stage = "Import";
+            stageStarted = importStarted;
+            publish( 100, null );
+        }
+        else if ( stage == null )
+        {
+            return;
+        }
+        else if ( COMPLETED.matcher( trimmed ).matches() )
+        {
+            publish( 100, null );
+        }
+        else if ( (matcher = PERCENT.matcher( trimmed )).matches() )
+        {
+            int percent = Integer.parseInt( matcher.group( 1 ) );
+            long elapsedMillis = clock.millis() - stageStarted;
+
+            publish( percent, elapsedMillis > 0
+                    ? format( "%.1f%%/min", percent * TimeUnit.MINUTES.toMillis( 1 ) / (double) elapsedMillis )
+                    : null );
+        }
+        else if ( PROGRESS_BAR.matcher( trimmed ).matches() &&
+                clock.millis() - lastPublished >= PROGRESS_BAR_INTERVAL_MILLIS )
+        {
+            Matcher rate = RATE.matcher( trimmed );
+            publish( null, rate.find() ? rate.group( 1 ) : null );
+        }
+    }
+
+    // A failing listener mustn't stop the output being read, or the import tool would block writing to it
+    private void publish( Integer percent, String rate )
+    {
+        long now = clock.millis();
+        lastPublished = now;
+
+        try
+        {
+            listener.accept( new ImportProgress( stage, percent, rate, Duration.ofMillis( now - stageStarted ) ) );
+        }
+        catch ( RuntimeException e )
+        {
+            Loggers.Default.log( Level.WARNING, format( "Unable to report import progress: %s", e.getMessage() ) );
+        }
+    }
+
+    @Override
+    public void onException( Exception e )
+    {
+        innerHandler.onException( e );
+    }
+
+    @Override
+    public void onCompleted() throws IOException
+    {
+        innerHandler.onCompleted();
+    }
+
+    @Override
+    public T awaitContents( long timeout, TimeUnit unit ) throws Exception
+    {
+        return innerHandler.awaitContents( timeout, unit );
+    }
+}
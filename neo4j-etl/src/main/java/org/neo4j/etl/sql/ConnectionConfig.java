@@ -1,6 +1,7 @@
 package org.neo4j.etl.sql;
 
 import java.net.URI;
+import java.util.Optional;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -22,6 +23,7 @@ public class ConnectionConfig
     private final DatabaseType databaseType;
     private final URI uri;
     private final Credentials credentials;
+    private final Integer fetchSize;
 
     ConnectionConfig( ConnectionConfigBuilder builder )
     {
@@ -30,6 +32,7 @@ public class ConnectionConfig
         this.credentials = new Credentials(
                 Preconditions.requireNonNullString( builder.username, "Username" ),
                 builder.password );
+        this.fetchSize = builder.fetchSize;
     }
 
     String driverClassName()
@@ -52,11 +55,57 @@ public class ConnectionConfig
         return databaseType.statementFactory();
     }
 
+    // Number of rows fetched per round trip, unless overridden for an individual query
+    int fetchSize()
+    {
+        return fetchSize != null ? fetchSize : databaseType.defaultFetchSize();
+    }
+
+    Optional<DatabaseClient.CopyOut> copyOut()
+    {
+        return databaseType.copyOut();
+    }
+
+    Optional<String> schemaPrimaryKeysSql()
+    {
+        return databaseType.schemaPrimaryKeysSql();
+    }
+
+    Optional<String> schemaForeignKeysSql()
+    {
+        return databaseType.schemaForeignKeysSql();
+    }
+
+    boolean supportsSchemaMetaData()
+    {
+        return databaseType.supportsSchemaMetaData();
+    }
+
+    String schemaDdlMarkersSql()
+    {
+        return databaseType.schemaDdlMarkersSql();
+    }
+
+    String schemaSizeEstimatesSql()
+    {
+        return databaseType.schemaSizeEstimatesSql();
+    }
+
     boolean hasSchemas()
     {
         return databaseType.hasSchemas();
     }
 
+    String validationQuery()
+    {
+        return databaseType.validationQuery();
+    }
+
+    String timestampLiteral( String value )
+    {
+        return databaseType.timestampLiteral( value );
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     public boolean equals( Object o )
     {
@@ -103,6 +152,8 @@ public class ConnectionConfig
             Builder password( String password );
         }
 
+        Builder fetchSize( int fetchSize );
+
         ConnectionConfig build();
     }
 }
@@ -21,6 +21,7 @@ class ConnectionConfigBuilder implements
     URI uri;
     String username;
     String password;
+    Integer fetchSize;
 
     ConnectionConfigBuilder( DatabaseType databaseType )
     {
@@ -69,6 +70,13 @@ class ConnectionConfigBuilder implements
         return this;
     }
 
+    @Override
+    public ConnectionConfig.Builder fetchSize( int fetchSize )
+    {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
     @Override
     public ConnectionConfig build()
     {
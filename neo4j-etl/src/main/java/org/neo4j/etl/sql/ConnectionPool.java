@@ -0,0 +1,365 @@
+package org.neo4j.etl.sql;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+import org.neo4j.etl.util.Loggers;
+import org.neo4j.etl.util.Preconditions;
+
+import static java.lang.String.format;
+
+public class ConnectionPool implements AutoCloseable
+{
+    interface ConnectionFactory
+    {
+        Connection connect() throws SQLException;
+    }
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis( 5 );
+
+    // Connections that have sat idle for less than this are handed out without running the validation query
+    private static final long VALIDATION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis( 30 );
+
+    private final ConnectionConfig connectionConfig;
+    private final ConnectionFactory connectionFactory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReleased = lock.newCondition();
+    private final ScheduledExecutorService evictor;
+    private int size;
+    private boolean closed;
+
+    public ConnectionPool( ConnectionConfig connectionConfig ) throws SQLException, ClassNotFoundException
+    {
+        this( connectionConfig, 1, 1 );
+    }
+
+    public ConnectionPool( ConnectionConfig connectionConfig, int minSize, int maxSize )
+            throws SQLException, ClassNotFoundException
+    {
+        this( connectionConfig, minSize, maxSize, DEFAULT_IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+    }
+
+    public ConnectionPool( ConnectionConfig connectionConfig,
+                           int minSize,
+                           int maxSize,
+                           long idleTimeout,
+                           TimeUnit unit ) throws SQLException, ClassNotFoundException
+    {
+        this( connectionConfig, driverManager( connectionConfig ), minSize, maxSize, unit.toMillis( idleTimeout ),
+                VALIDATION_INTERVAL_MILLIS );
+    }
+
+    ConnectionPool( ConnectionConfig connectionConfig,
+                    ConnectionFactory connectionFactory,
+                    int minSize,
+                    int maxSize,
+                    long idleTimeoutMillis,
+                    long validationIntervalMillis ) throws SQLException
+    {
+        this.connectionConfig = Preconditions.requireNonNull( connectionConfig, "ConnectionConfig" );
+        this.connectionFactory = Preconditions.requireNonNull( connectionFactory, "ConnectionFactory" );
+
+        if ( minSize < 0 || maxSize < 1 || minSize > maxSize )
+        {
+            throw new IllegalArgumentException(
+                    format( "Invalid connection pool size (min: %s, max: %s)", minSize, maxSize ) );
+        }
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+
+        try
+        {
+            for ( int i = 0; i < minSize; i++ )
+            {
+                idleConnections.push( new IdleConnection( connectionFactory.connect() ) );
+                size++;
+            }
+        }
+        catch ( SQLException e )
+        {
+            idleConnections.forEach( idleConnection -> closeQuietly( idleConnection.connection ) );
+            throw e;
+        }
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor( r ->
+        {
+            Thread thread = new Thread( r, "connection-pool-evictor" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+
+        long evictionInterval = Math.max( 1, idleTimeoutMillis / 2 );
+        evictor.scheduleWithFixedDelay( this::evictIdleConnections,
+                evictionInterval, evictionInterval, TimeUnit.MILLISECONDS );
+    }
+
+    ConnectionConfig connectionConfig()
+    {
+        return connectionConfig;
+    }
+
+    public int maxSize()
+    {
+        return maxSize;
+    }
+
+    Connection acquire() throws SQLException, InterruptedException
+    {
+        while ( true )
+        {
+            IdleConnection idleConnection = null;
+
+            lock.lock();
+            try
+            {
+                while ( !closed && idleConnections.isEmpty() && size >= maxSize )
+                {
+                    connectionReleased.await();
+                }
+
+                if ( closed )
+                {
+                    throw new SQLException( "Connection pool has been closed" );
+                }
+
+                if ( idleConnections.isEmpty() )
+                {
+                    size++;
+                }
+                else
+                {
+                    idleConnection = idleConnections.pop();
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            if ( idleConnection == null )
+            {
+                try
+                {
+                    return connectionFactory.connect();
+                }
+                catch ( SQLException e )
+                {
+                    discard( null );
+                    throw e;
+                }
+            }
+
+            if ( idleConnection.idleMillis() < validationIntervalMillis || isValid( idleConnection.connection ) )
+            {
+                return idleConnection.connection;
+            }
+
+            Loggers.Sql.log().fine( "Discarding connection that failed validation" );
+            discard( idleConnection.connection );
+        }
+    }
+
+    void release( Connection connection )
+    {
+        boolean reusable;
+
+        try
+        {
+            reusable = !connection.isClosed();
+
+            if ( reusable && !connection.getAutoCommit() )
+            {
+                connection.rollback();
+                connection.setAutoCommit( true );
+            }
+        }
+        catch ( SQLException e )
+        {
+            Loggers.Sql.log( Level.FINE, "Unable to reset connection before returning it to the pool", e );
+            reusable = false;
+        }
+
+        if ( !reusable )
+        {
+            discard( connection );
+            return;
+        }
+
+        lock.lock();
+        try
+        {
+            if ( closed )
+            {
+                size--;
+                closeQuietly( connection );
+            }
+            else
+            {
+                idleConnections.push( new IdleConnection( connection ) );
+                connectionReleased.signal();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        evictor.shutdownNow();
+
+        lock.lock();
+        try
+        {
+            closed = true;
+
+            for ( IdleConnection idleConnection : idleConnections )
+            {
+                size--;
+                closeQuietly( idleConnection.connection );
+            }
+
+            idleConnections.clear();
+            connectionReleased.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private static ConnectionFactory driverManager( ConnectionConfig connectionConfig ) throws ClassNotFoundException
+    {
+        Class.forName( Preconditions.requireNonNull( connectionConfig, "ConnectionConfig" ).driverClassName() );
+
+        return () ->
+        {
+            Loggers.Sql.log().fine( "Connecting to database..." );
+
+            try
+            {
+                Connection connection = DriverManager.getConnection(
+                        connectionConfig.uri().toString(),
+                        connectionConfig.credentials().username(),
+                        connectionConfig.credentials().password() );
+
+                Loggers.Sql.log().fine( "Connected to database" );
+
+                return connection;
+            }
+            catch ( SQLException e )
+            {
+                Loggers.Sql.log( Level.SEVERE, "Could not connect to the host database. Please check your credentials ",
+                        e );
+                throw e;
+            }
+        };
+    }
+
+    private boolean isValid( Connection connection )
+    {
+        try ( Statement statement = connection.createStatement() )
+        {
+            statement.execute( connectionConfig.validationQuery() );
+            return true;
+        }
+        catch ( SQLException e )
+        {
+            return false;
+        }
+    }
+
+    private void discard( Connection connection )
+    {
+        if ( connection != null )
+        {
+            closeQuietly( connection );
+        }
+
+        lock.lock();
+        try
+        {
+            size--;
+            connectionReleased.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdleConnections()
+    {
+        lock.lock();
+        try
+        {
+            Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+
+            while ( iterator.hasNext() && size > minSize )
+            {
+                IdleConnection idleConnection = iterator.next();
+
+                if ( idleConnection.idleMillis() >= idleTimeoutMillis )
+                {
+                    iterator.remove();
+                    size--;
+                    closeQuietly( idleConnection.connection );
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly( Connection connection )
+    {
+        try
+        {
+            connection.close();
+        }
+        catch ( SQLException e )
+        {
+            Loggers.Sql.log( Level.FINE, "Error while closing connection", e );
+        }
+    }
+
+    private static class IdleConnection
+    {
+        private final Connection connection;
+        private final long idleSince;
+
+        IdleConnection( Connection connection )
+        {
+            this.connection = connection;
+            this.idleSince = System.currentTimeMillis();
+        }
+
+        long idleMillis()
+        {
+            return System.currentTimeMillis() - idleSince;
+        }
+    }
+}
@@ -1,21 +1,23 @@
 package org.neo4j.etl.sql;
 
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.TreeMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Spliterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.logging.Level;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -32,109 +34,313 @@ public class DatabaseClient implements AutoCloseable
 {
     interface StatementFactory
     {
-        Statement createStatement( Connection connection ) throws SQLException;
+        Statement createStatement( Connection connection, int fetchSize ) throws SQLException;
     }
 
-    private final Connection connection;
-    private final DatabaseMetaData metaData;
+    // Vendor-native bulk export that has the server write a query's results as CSV
+    interface CopyOut
+    {
+        long copyOut( Connection connection, String sql, OutputStream output ) throws Exception;
+    }
+
+    private interface MetaDataQuery
+    {
+        ResultSet execute( DatabaseMetaData metaData ) throws SQLException;
+    }
+
+    private final ConnectionPool connectionPool;
+    private final boolean ownsConnectionPool;
     private final StatementFactory statementFactory;
+    private final int defaultFetchSize;
+    private final Optional<CopyOut> copyOut;
+    private final Optional<String> schemaPrimaryKeysSql;
+    private final Optional<String> schemaForeignKeysSql;
+    private final boolean supportsSchemaMetaData;
+    private final String schemaDdlMarkersSql;
+    private final String schemaSizeEstimatesSql;
     private final boolean hasSchemas;
 
     public DatabaseClient( ConnectionConfig connectionConfig ) throws SQLException, ClassNotFoundException
     {
-        Loggers.Sql.log().fine( "Connecting to database..." );
+        this( new ConnectionPool( connectionConfig ), true );
+    }
+
+    public DatabaseClient( ConnectionConfig connectionConfig, int maxConnections )
+            throws SQLException, ClassNotFoundException
+    {
+        this( new ConnectionPool( connectionConfig, 1, maxConnections ), true );
+    }
 
-        Class.forName( connectionConfig.driverClassName() );
+    public DatabaseClient( ConnectionPool connectionPool )
+    {
+        this( connectionPool, false );
+    }
 
-        try
+    private DatabaseClient( ConnectionPool connectionPool, boolean ownsConnectionPool )
+    {
+        this.connectionPool = connectionPool;
+        this.ownsConnectionPool = ownsConnectionPool;
+        this.statementFactory = connectionPool.connectionConfig().statementFactory();
+        this.defaultFetchSize = connectionPool.connectionConfig().fetchSize();
+        this.copyOut = connectionPool.connectionConfig().copyOut();
+        this.schemaPrimaryKeysSql = connectionPool.connectionConfig().schemaPrimaryKeysSql();
+        this.schemaForeignKeysSql = connectionPool.connectionConfig().schemaForeignKeysSql();
+        this.supportsSchemaMetaData = connectionPool.connectionConfig().supportsSchemaMetaData();
+        this.schemaDdlMarkersSql = connectionPool.connectionConfig().schemaDdlMarkersSql();
+        this.schemaSizeEstimatesSql = connectionPool.connectionConfig().schemaSizeEstimatesSql();
+        this.hasSchemas = connectionPool.connectionConfig().hasSchemas();
+    }
+
+    public QueryResults primaryKeys( TableName tableName ) throws Exception
+    {
+        return metaDataQuery( metaData -> metaData.getPrimaryKeys( "", tableName.schema(), tableName.simpleName() ) );
+    }
+
+    public QueryResults foreignKeys( TableName tableName ) throws Exception
+    {
+        return metaDataQuery( metaData -> metaData.getImportedKeys( "", tableName.schema(), tableName.simpleName() ) );
+    }
+
+    public QueryResults columns( TableName tableName ) throws Exception
+    {
+        return metaDataQuery(
+                metaData -> metaData.getColumns( "", tableName.schema(), tableName.simpleName(), null ) );
+    }
+
+    // Whether the schema-wide metadata queries below are available, so that a schema can be introspected in a few
+    // round trips rather than three per table
+    public boolean supportsSchemaMetaData()
+    {
+        return supportsSchemaMetaData;
+    }
+
+    public QueryResults schemaPrimaryKeys( String schema ) throws Exception
+    {
+        if ( schemaPrimaryKeysSql.isPresent() )
         {
-            connection = DriverManager.getConnection(
-                    connectionConfig.uri().toString(),
-                    connectionConfig.credentials().username(),
-                    connectionConfig.credentials().password() );
+            return parameterisedQuery( schemaPrimaryKeysSql.get(), schema );
         }
-        catch ( SQLException e )
+
+        return metaDataQuery( metaData -> metaData.getPrimaryKeys( "", schema, null ) );
+    }
+
+    public QueryResults schemaForeignKeys( String schema ) throws Exception
+    {
+        if ( schemaForeignKeysSql.isPresent() )
         {
-            Loggers.Sql.log( Level.SEVERE, "Could not connect to the host database. Please check your credentials ", e);
-            throw e;
+            return parameterisedQuery( schemaForeignKeysSql.get(), schema );
         }
 
-        metaData = connection.getMetaData();
-        statementFactory = connectionConfig.statementFactory();
-        hasSchemas = connectionConfig.hasSchemas();
+        return metaDataQuery( metaData -> metaData.getImportedKeys( "", schema, null ) );
+    }
 
-        Loggers.Sql.log().fine( "Connected to database" );
+    public QueryResults schemaColumns( String schema ) throws Exception
+    {
+        return metaDataQuery( metaData -> metaData.getColumns( "", schema, "%", null ) );
     }
 
-    public QueryResults primaryKeys( TableName tableName ) throws SQLException
+    // Returns a TABLE_NAME and DDL_MARKER row per table, the marker changing whenever the table's definition does
+    public QueryResults schemaDdlMarkers( String schema ) throws Exception
     {
-        return new SqlQueryResults( metaData.getPrimaryKeys( "", tableName.schema(), tableName.simpleName() ) );
+        return parameterisedQuery( schemaDdlMarkersSql, schema );
     }
 
-    public QueryResults foreignKeys( TableName tableName ) throws SQLException
+    // Returns a TABLE_NAME, ROW_ESTIMATE and BYTE_ESTIMATE row per table, from the catalog's statistics
+    public QueryResults schemaSizeEstimates( String schema ) throws Exception
     {
-        return new SqlQueryResults( metaData.getImportedKeys( "", tableName.schema(), tableName.simpleName() ) );
+        return parameterisedQuery( schemaSizeEstimatesSql, schema );
     }
 
-    public QueryResults columns( TableName tableName ) throws SQLException
+    // A literal for a timestamp in JDBC escape format, in this database's dialect
+    public String timestampLiteral( String value )
     {
-        return new SqlQueryResults( metaData.getColumns( "", tableName.schema(), tableName.simpleName(), null ) );
+        return connectionPool.connectionConfig().timestampLiteral( value );
     }
 
     public AwaitHandle<QueryResults> executeQuery( String sql )
+    {
+        return executeQuery( sql, defaultFetchSize );
+    }
+
+    public AwaitHandle<QueryResults> executeQuery( String sql, int fetchSize )
     {
         return new DatabaseClientAwaitHandle<>(
                 FutureUtils.exceptionableFuture( () ->
                 {
                     Loggers.Sql.log().finest( sql );
-                    connection.setAutoCommit( false );
-                    return new SqlQueryResults( statementFactory.createStatement( connection ).executeQuery( sql ) );
+                    Connection connection = connectionPool.acquire();
+
+                    try
+                    {
+                        connection.setAutoCommit( false );
+                        Statement statement = statementFactory.createStatement( connection, fetchSize );
+
+                        return new SqlQueryResults( statement.executeQuery( sql ), () ->
+                        {
+                            try
+                            {
+                                statement.close();
+                            }
+                            finally
+                            {
+                                connectionPool.release( connection );
+                            }
+                        } );
+                    }
+                    catch ( Exception e )
+                    {
+                        connectionPool.release( connection );
+                        throw e;
+                    }
 
                 }, r -> new Thread( r ).start() ) );
     }
 
+    public boolean supportsCopyOut()
+    {
+        return copyOut.isPresent();
+    }
+
+    // Runs a COPY ... TO STDOUT statement, streaming the CSV it produces to the output. Returns the number of rows
+    // copied.
+    public long copyOut( String sql, OutputStream output ) throws Exception
+    {
+        if ( !copyOut.isPresent() )
+        {
+            throw new UnsupportedOperationException( "Database does not support COPY" );
+        }
+
+        Loggers.Sql.log().finest( sql );
+        Connection connection = connectionPool.acquire();
+
+        try
+        {
+            return copyOut.get().copyOut( connection, sql, output );
+        }
+        finally
+        {
+            connectionPool.release( connection );
+        }
+    }
+
     public AwaitHandle<Boolean> execute( String sql )
     {
         return new DatabaseClientAwaitHandle<>(
                 FutureUtils.exceptionableFuture( () ->
                 {
                     Loggers.Sql.log().finest( sql );
-                    connection.setAutoCommit( true );
-                    return connection.prepareStatement( sql ).execute();
+                    Connection connection = connectionPool.acquire();
+
+                    try ( PreparedStatement statement = connection.prepareStatement( sql ) )
+                    {
+                        connection.setAutoCommit( true );
+                        return statement.execute();
+                    }
+                    finally
+                    {
+                        connectionPool.release( connection );
+                    }
 
                 }, r -> new Thread( r ).start() ) );
     }
 
-    public Collection<TableName> tables( Schema schema ) throws SQLException
+    public Collection<TableName> tables( Schema schema ) throws Exception
     {
         Collection<TableName> tableNames = new ArrayList<>();
 
-        String tableSchema;
+        Connection connection = connectionPool.acquire();
 
-        if ( schema != null && schema != Schema.UNDEFINED )
+        try
         {
-            tableSchema =  StringUtils.upperCase( schema.name() );
+            String tableSchema;
+
+            if ( schema != null && schema != Schema.UNDEFINED )
+            {
+                tableSchema = StringUtils.upperCase( schema.name() );
+            }
+            else
+            {
+                tableSchema = hasSchemas ? connection.getSchema() : connection.getCatalog();
+            }
+
+            try ( ResultSet results = connection.getMetaData()
+                    .getTables( null, tableSchema, null, new String[]{"TABLE"} ) )
+            {
+                while ( results.next() )
+                {
+                    tableNames.add( new TableName( tableSchema, results.getString( "TABLE_NAME" ) ) );
+                }
+            }
         }
-        else
+        finally
         {
-            tableSchema = hasSchemas ? connection.getSchema() : connection.getCatalog();
+            connectionPool.release( connection );
         }
 
-        try ( ResultSet results = connection.getMetaData().getTables( null, tableSchema, null, new String[]{ "TABLE" } ) )
+        return tableNames;
+    }
+
+    private QueryResults parameterisedQuery( String sql, String parameter ) throws Exception
+    {
+        Loggers.Sql.log().finest( sql );
+        Connection connection = connectionPool.acquire();
+
+        try
         {
-            while ( results.next() )
+            PreparedStatement statement = connection.prepareStatement( sql );
+
+            try
+            {
+                statement.setString( 1, parameter );
+
+                return new SqlQueryResults( statement.executeQuery(), () ->
+                {
+                    try
+                    {
+                        statement.close();
+                    }
+                    finally
+                    {
+                        connectionPool.release( connection );
+                    }
+                } );
+            }
+            catch ( Exception e )
             {
-                tableNames.add( new TableName( tableSchema, results.getString( "TABLE_NAME" ) ) );
+                statement.close();
+                throw e;
             }
         }
+        catch ( Exception e )
+        {
+            connectionPool.release( connection );
+            throw e;
+        }
+    }
 
-        return tableNames;
+    private QueryResults metaDataQuery( MetaDataQuery query ) throws Exception
+    {
+        Connection connection = connectionPool.acquire();
+
+        try
+        {
+            return new SqlQueryResults( query.execute( connection.getMetaData() ),
+                    () -> connectionPool.release( connection ) );
+        }
+        catch ( Exception e )
+        {
+            connectionPool.release( connection );
+            throw e;
+        }
     }
 
     @Override
     public void close() throws Exception
     {
-        connection.close();
+        if ( ownsConnectionPool )
+        {
+            connectionPool.close();
+        }
     }
 
     private static class DatabaseClientAwaitHandle<T> implements AwaitHandle<T>
@@ -168,10 +374,12 @@ public class DatabaseClient implements AutoCloseable
     private static class SqlQueryResults implements QueryResults
     {
         private final ResultSet results;
+        private final AutoCloseable onClose;
 
-        SqlQueryResults( ResultSet results )
+        SqlQueryResults( ResultSet results, AutoCloseable onClose )
         {
             this.results = results;
+            this.onClose = onClose;
         }
 
         @Override
@@ -215,10 +423,55 @@ public class DatabaseClient implements AutoCloseable
             }
         }
 
+        @Override
+        public int findColumn( String columnLabel ) throws SQLException
+        {
+            return results.findColumn( columnLabel );
+        }
+
+        @Override
+        public String getString( int columnIndex )
+        {
+            try
+            {
+                return results.getString( columnIndex );
+            }
+            catch ( SQLException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+
+        @Override
+        public int getColumnType( int columnIndex ) throws SQLException
+        {
+            return results.getMetaData().getColumnType( columnIndex );
+        }
+
+        @Override
+        public Timestamp getTimestamp( int columnIndex )
+        {
+            try
+            {
+                return results.getTimestamp( columnIndex );
+            }
+            catch ( SQLException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+
         @Override
         public void close() throws Exception
         {
-            results.close();
+            try
+            {
+                results.close();
+            }
+            finally
+            {
+                onClose.close();
+            }
         }
 
         private static class ResultSetSpliterator implements Spliterator<Map<String, String>>
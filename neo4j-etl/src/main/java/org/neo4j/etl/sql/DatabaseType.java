@@ -3,9 +3,12 @@ package org.neo4j.etl.sql;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.QuoteChar;
 import org.neo4j.etl.sql.exportcsv.formatting.SqlQuotes;
 
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Optional;
 
 import static java.lang.String.format;
 
@@ -23,15 +26,71 @@ public enum DatabaseType
                 @Override
                 public DatabaseClient.StatementFactory statementFactory()
                 {
-                    return connection -> {
+                    return ( connection, fetchSize ) -> {
                         Statement statement = connection.createStatement(
                                 ResultSet.TYPE_FORWARD_ONLY,
                                 ResultSet.CONCUR_READ_ONLY );
-                        statement.setFetchSize( Integer.MIN_VALUE );
+                        statement.setFetchSize( fetchSize );
                         return statement;
                     };
                 }
 
+                // Integer.MIN_VALUE makes Connector/J stream rows one at a time rather than reading the whole
+                // result into memory
+                @Override
+                public int defaultFetchSize()
+                {
+                    return Integer.MIN_VALUE;
+                }
+
+                // Connector/J requires a table name for key metadata, so keys for the whole schema are read from
+                // information_schema instead
+                @Override
+                public Optional<String> schemaPrimaryKeysSql()
+                {
+                    return Optional.of( "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME, " +
+                            "COLUMN_NAME, ORDINAL_POSITION AS KEY_SEQ, CONSTRAINT_NAME AS PK_NAME " +
+                            "FROM information_schema.KEY_COLUMN_USAGE " +
+                            "WHERE TABLE_SCHEMA = ? AND CONSTRAINT_NAME = 'PRIMARY' " +
+                            "ORDER BY TABLE_NAME, ORDINAL_POSITION" );
+                }
+
+                @Override
+                public Optional<String> schemaForeignKeysSql()
+                {
+                    return Optional.of( "SELECT REFERENCED_TABLE_SCHEMA AS PKTABLE_CAT, NULL AS PKTABLE_SCHEM, " +
+                            "REFERENCED_TABLE_NAME AS PKTABLE_NAME, REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME, " +
+                            "TABLE_SCHEMA AS FKTABLE_CAT, NULL AS FKTABLE_SCHEM, TABLE_NAME AS FKTABLE_NAME, " +
+                            "COLUMN_NAME AS FKCOLUMN_NAME, ORDINAL_POSITION AS KEY_SEQ, CONSTRAINT_NAME AS FK_NAME " +
+                            "FROM information_schema.KEY_COLUMN_USAGE " +
+                            "WHERE TABLE_SCHEMA = ? AND REFERENCED_TABLE_NAME IS NOT NULL " +
+                            "ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION" );
+                }
+
+                // Tables altered in place keep their CREATE_TIME, so checksums of their columns and keys are
+                // included too
+                @Override
+                public String schemaDdlMarkersSql()
+                {
+                    return "SELECT t.TABLE_NAME, CONCAT_WS('|', t.CREATE_TIME, " +
+                            "(SELECT CONCAT(COUNT(*), ':', COALESCE(SUM(CRC32(CONCAT_WS(' ', c.ORDINAL_POSITION, " +
+                            "c.COLUMN_NAME, c.COLUMN_TYPE))), 0)) FROM information_schema.COLUMNS c " +
+                            "WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME), " +
+                            "(SELECT CONCAT(COUNT(*), ':', COALESCE(SUM(CRC32(CONCAT_WS(' ', k.CONSTRAINT_NAME, " +
+                            "k.ORDINAL_POSITION, k.COLUMN_NAME, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME))), 0)) " +
+                            "FROM information_schema.KEY_COLUMN_USAGE k " +
+                            "WHERE k.TABLE_SCHEMA = t.TABLE_SCHEMA AND k.TABLE_NAME = t.TABLE_NAME)) AS DDL_MARKER " +
+                            "FROM information_schema.TABLES t " +
+                            "WHERE t.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE'";
+                }
+
+                @Override
+                public String schemaSizeEstimatesSql()
+                {
+                    return "SELECT TABLE_NAME, TABLE_ROWS AS ROW_ESTIMATE, DATA_LENGTH AS BYTE_ESTIMATE " +
+                            "FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE'";
+                }
+
                 @Override
                 public SqlQuotes sqlQuotes()
                 {
@@ -42,6 +101,12 @@ public enum DatabaseType
                 public boolean hasSchemas() {
                     return false;
                 }
+
+                @Override
+                public String validationQuery()
+                {
+                    return "SELECT 1";
+                }
             },
 
     PostgreSQL ( "org.postgresql.Driver", 5432 )
@@ -56,24 +121,99 @@ public enum DatabaseType
         @Override
         public DatabaseClient.StatementFactory statementFactory()
         {
-            return connection -> {
+            return ( connection, fetchSize ) -> {
                 Statement statement = connection.createStatement(
                         ResultSet.TYPE_FORWARD_ONLY,
                         ResultSet.CONCUR_READ_ONLY );
+                statement.setFetchSize( fetchSize );
                 return statement;
             };
         }
 
+        // With autocommit off, a fetch size makes the driver read results through a cursor in batches of this
+        // many rows, instead of buffering the whole result in memory
+        @Override
+        public int defaultFetchSize()
+        {
+            return 10_000;
+        }
+
+        // The driver's CopyManager is reached reflectively, so that the driver is only needed at runtime
+        @Override
+        public Optional<DatabaseClient.CopyOut> copyOut()
+        {
+            return Optional.of( ( connection, sql, output ) -> {
+                Class<?> pgConnectionClass =
+                        Class.forName( "org.postgresql.PGConnection", true, connection.getClass().getClassLoader() );
+
+                try
+                {
+                    Object copyManager = pgConnectionClass.getMethod( "getCopyAPI" )
+                            .invoke( connection.unwrap( pgConnectionClass ) );
+
+                    return (Long) copyManager.getClass()
+                            .getMethod( "copyOut", String.class, OutputStream.class )
+                            .invoke( copyManager, sql, output );
+                }
+                catch ( InvocationTargetException e )
+                {
+                    if ( e.getCause() instanceof Exception )
+                    {
+                        throw (Exception) e.getCause();
+                    }
+
+                    throw e;
+                }
+            } );
+        }
+
+        // DDL rewrites the catalog rows describing a table, its columns and its constraints, giving them new
+        // transaction ids
+        @Override
+        public String schemaDdlMarkersSql()
+        {
+            return "SELECT c.relname AS TABLE_NAME, c.xmin::text " +
+                    "|| ':' || (SELECT COUNT(*) || '/' || COALESCE(SUM(a.xmin::text::bigint), 0) " +
+                    "FROM pg_attribute a WHERE a.attrelid = c.oid) " +
+                    "|| ':' || (SELECT COUNT(*) || '/' || COALESCE(SUM(con.xmin::text::bigint), 0) " +
+                    "FROM pg_constraint con WHERE con.conrelid = c.oid) AS DDL_MARKER " +
+                    "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                    "WHERE n.nspname = ? AND c.relkind IN ('r', 'p')";
+        }
+
+        // reltuples is -1 for tables that have never been vacuumed or analysed
+        @Override
+        public String schemaSizeEstimatesSql()
+        {
+            return "SELECT c.relname AS TABLE_NAME, GREATEST(c.reltuples, 0)::bigint AS ROW_ESTIMATE, " +
+                    "pg_relation_size(c.oid) AS BYTE_ESTIMATE " +
+                    "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                    "WHERE n.nspname = ? AND c.relkind IN ('r', 'p')";
+        }
+
         @Override
         public SqlQuotes sqlQuotes()
         {
             return new SqlQuotes( QuoteChar.DOUBLE_QUOTES, QuoteChar.DOUBLE_QUOTES, QuoteChar.DOUBLE_QUOTES, QuoteChar.SINGLE_QUOTES );
         }
 
+        // The driver reads the keys of every table in the schema when no table name is given
+        @Override
+        public boolean supportsSchemaMetaData()
+        {
+            return true;
+        }
+
         @Override
         public boolean hasSchemas() {
             return true;
         }
+
+        @Override
+        public String validationQuery()
+        {
+            return "SELECT 1";
+        }
     },
 
     Oracle ( "oracle.jdbc.OracleDriver", 1521 )
@@ -88,14 +228,66 @@ public enum DatabaseType
         @Override
         public DatabaseClient.StatementFactory statementFactory()
         {
-            return connection -> {
+            return ( connection, fetchSize ) -> {
                 Statement statement = connection.createStatement(
                         ResultSet.TYPE_FORWARD_ONLY,
                         ResultSet.CONCUR_READ_ONLY );
+                statement.setFetchSize( fetchSize );
                 return statement;
             };
         }
 
+        // The driver prefetches only 10 rows per round trip by default
+        @Override
+        public int defaultFetchSize()
+        {
+            return 1_000;
+        }
+
+        // The driver's key metadata calls take a single table, so keys for the whole schema are read from the
+        // data dictionary instead
+        @Override
+        public Optional<String> schemaPrimaryKeysSql()
+        {
+            return Optional.of( "SELECT NULL AS TABLE_CAT, c.OWNER AS TABLE_SCHEM, c.TABLE_NAME, cc.COLUMN_NAME, " +
+                    "cc.POSITION AS KEY_SEQ, c.CONSTRAINT_NAME AS PK_NAME " +
+                    "FROM ALL_CONSTRAINTS c " +
+                    "JOIN ALL_CONS_COLUMNS cc ON cc.OWNER = c.OWNER AND cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME " +
+                    "WHERE c.CONSTRAINT_TYPE = 'P' AND c.OWNER = ? " +
+                    "ORDER BY c.TABLE_NAME, cc.POSITION" );
+        }
+
+        @Override
+        public Optional<String> schemaForeignKeysSql()
+        {
+            return Optional.of( "SELECT NULL AS PKTABLE_CAT, p.OWNER AS PKTABLE_SCHEM, p.TABLE_NAME AS PKTABLE_NAME, " +
+                    "pc.COLUMN_NAME AS PKCOLUMN_NAME, NULL AS FKTABLE_CAT, f.OWNER AS FKTABLE_SCHEM, " +
+                    "f.TABLE_NAME AS FKTABLE_NAME, fc.COLUMN_NAME AS FKCOLUMN_NAME, fc.POSITION AS KEY_SEQ, " +
+                    "f.CONSTRAINT_NAME AS FK_NAME " +
+                    "FROM ALL_CONSTRAINTS f " +
+                    "JOIN ALL_CONS_COLUMNS fc ON fc.OWNER = f.OWNER AND fc.CONSTRAINT_NAME = f.CONSTRAINT_NAME " +
+                    "JOIN ALL_CONSTRAINTS p ON p.OWNER = f.R_OWNER AND p.CONSTRAINT_NAME = f.R_CONSTRAINT_NAME " +
+                    "JOIN ALL_CONS_COLUMNS pc ON pc.OWNER = p.OWNER AND pc.CONSTRAINT_NAME = p.CONSTRAINT_NAME " +
+                    "AND pc.POSITION = fc.POSITION " +
+                    "WHERE f.CONSTRAINT_TYPE = 'R' AND f.OWNER = ? " +
+                    "ORDER BY f.TABLE_NAME, f.CONSTRAINT_NAME, fc.POSITION" );
+        }
+
+        @Override
+        public String schemaDdlMarkersSql()
+        {
+            return "SELECT OBJECT_NAME AS TABLE_NAME, " +
+                    "TO_CHAR(LAST_DDL_TIME, 'YYYY-MM-DD HH24:MI:SS') AS DDL_MARKER " +
+                    "FROM ALL_OBJECTS WHERE OWNER = ? AND OBJECT_TYPE = 'TABLE'";
+        }
+
+        @Override
+        public String schemaSizeEstimatesSql()
+        {
+            return "SELECT TABLE_NAME, NUM_ROWS AS ROW_ESTIMATE, NUM_ROWS * AVG_ROW_LEN AS BYTE_ESTIMATE " +
+                    "FROM ALL_TABLES WHERE OWNER = ?";
+        }
+
         @Override
         public SqlQuotes sqlQuotes()
         {
@@ -106,6 +298,18 @@ public enum DatabaseType
         public boolean hasSchemas() {
             return false;
         }
+
+        @Override
+        public String validationQuery()
+        {
+            return "SELECT 1 FROM DUAL";
+        }
+
+        @Override
+        public String timestampLiteral( String value )
+        {
+            return format( "TO_TIMESTAMP('%s', 'YYYY-MM-DD HH24:MI:SS.FF')", value );
+        }
     };
 
     private final String driverClassName;
@@ -141,7 +345,51 @@ public enum DatabaseType
 
     public abstract DatabaseClient.StatementFactory statementFactory();
 
+    public abstract int defaultFetchSize();
+
+    public Optional<DatabaseClient.CopyOut> copyOut()
+    {
+        return Optional.empty();
+    }
+
+    // Queries returning the same columns as DatabaseMetaData.getPrimaryKeys and getImportedKeys, for every table in
+    // the schema bound to their single parameter. Where absent, the driver's metadata calls are made without a
+    // table name.
+    public Optional<String> schemaPrimaryKeysSql()
+    {
+        return Optional.empty();
+    }
+
+    public Optional<String> schemaForeignKeysSql()
+    {
+        return Optional.empty();
+    }
+
+    // Whether the keys of every table in a schema can be read at once, by the queries above or by the driver. The
+    // JDBC metadata calls require a table name, so only drivers known to accept none can do without the queries.
+    public boolean supportsSchemaMetaData()
+    {
+        return schemaPrimaryKeysSql().isPresent() && schemaForeignKeysSql().isPresent();
+    }
+
+    // Query returning a TABLE_NAME and a DDL_MARKER for every table in the schema bound to its single parameter. A
+    // table's marker changes whenever its definition does.
+    public abstract String schemaDdlMarkersSql();
+
+    // Query returning a TABLE_NAME, ROW_ESTIMATE and BYTE_ESTIMATE for every table in the schema bound to its single
+    // parameter, taken from the catalog's statistics. Estimates are null for tables without statistics.
+    public abstract String schemaSizeEstimatesSql();
+
     public abstract SqlQuotes sqlQuotes();
 
     public abstract boolean hasSchemas();
+
+    public abstract String validationQuery();
+
+    // A literal for a timestamp in JDBC escape format (yyyy-mm-dd hh:mm:ss.fffffffff), read the same way whatever
+    // the session's date format
+    public String timestampLiteral( String value )
+    {
+        return format( "TIMESTAMP '%s'", value );
+    }
 }
@@ -1,5 +1,6 @@
 package org.neo4j.etl.sql;
 
+import java.sql.Timestamp;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -7,5 +8,15 @@ public interface QueryResults extends RowAccessor, AutoCloseable
 {
     boolean next() throws Exception;
 
+    // Resolves a column label to its 1-based position in the results, for use with getString( int )
+    int findColumn( String columnLabel ) throws Exception;
+
+    String getString( int columnIndex );
+
+    // The column's type, one of java.sql.Types
+    int getColumnType( int columnIndex ) throws Exception;
+
+    Timestamp getTimestamp( int columnIndex );
+
     Stream<Map<String, String>> stream();
 }
@@ -0,0 +1,107 @@
+package org.neo4j.etl.sql.exportcsv;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.neo4j.etl.util.FileUtils;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// The high-water mark each mapping's watermark column had reached when it was last exported. Marks advanced during
+// an export are only saved once the whole export has completed, so that a failed run is simply repeated.
+public class DeltaState
+{
+    public static DeltaState load( Path file )
+    {
+        Map<String, Watermark> watermarks = new LinkedHashMap<>();
+
+        if ( Files.exists( file ) )
+        {
+            try
+            {
+                JsonNode root = new ObjectMapper().readTree( file.toFile() );
+
+                root.path( "mappings" ).fields().forEachRemaining( entry -> watermarks.put( entry.getKey(),
+                        new Watermark( entry.getValue().path( "watermark-column" ).textValue(),
+                                entry.getValue().path( "high-water-mark" ).textValue() ) ) );
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                Loggers.Default.log( Level.WARNING,
+                        format( "Ignoring unreadable delta state %s, so all rows will be exported: %s",
+                                file, e.getMessage() ) );
+                watermarks.clear();
+            }
+        }
+
+        return new DeltaState( file, watermarks );
+    }
+
+    private final Path file;
+    private final Map<String, Watermark> watermarks;
+
+    private DeltaState( Path file, Map<String, Watermark> watermarks )
+    {
+        this.file = file;
+        this.watermarks = watermarks;
+    }
+
+    // A mark recorded against a different column no longer applies
+    public synchronized Optional<String> highWaterMark( String mappingName, String watermarkColumn )
+    {
+        Watermark watermark = watermarks.get( mappingName );
+
+        if ( watermark == null || !watermarkColumn.equals( watermark.column ) )
+        {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable( watermark.highWaterMark );
+    }
+
+    public synchronized void advance( String mappingName, String watermarkColumn, String highWaterMark )
+    {
+        watermarks.put( mappingName, new Watermark( watermarkColumn, highWaterMark ) );
+    }
+
+    public synchronized void save() throws IOException
+    {
+        ObjectNode mappings = JsonNodeFactory.instance.objectNode();
+
+        watermarks.forEach( ( mappingName, watermark ) ->
+        {
+            ObjectNode watermarkNode = JsonNodeFactory.instance.objectNode();
+            watermarkNode.put( "watermark-column", watermark.column );
+            watermarkNode.put( "high-water-mark", watermark.highWaterMark );
+            mappings.set( mappingName, watermarkNode );
+        } );
+
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        root.set( "mappings", mappings );
+
+        FileUtils.writeAtomically( file, output -> new ObjectMapper().writeValue( output, root ) );
+    }
+
+    private static class Watermark
+    {
+        private final String column;
+        private final String highWaterMark;
+
+        Watermark( String column, String highWaterMark )
+        {
+            this.column = column;
+            this.highWaterMark = highWaterMark;
+        }
+    }
+}
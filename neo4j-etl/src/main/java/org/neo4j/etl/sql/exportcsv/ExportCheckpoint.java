@@ -0,0 +1,229 @@
+package org.neo4j.etl.sql.exportcsv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.neo4j.etl.neo4j.importcsv.config.CsvFiles;
+import org.neo4j.etl.neo4j.importcsv.config.ManifestEntry;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.sql.exportcsv.io.ExportedFile;
+import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.util.FileUtils;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// Records each mapping's files in the export directory as soon as all of them have been written, so that an
+// interrupted export can be resumed without exporting those mappings again. A mapping is only skipped if it is
+// unchanged since its files were written, the export options that shape its files are the same, and the files are
+// still present with the same size and checksum.
+public class ExportCheckpoint
+{
+    public static final String FILENAME = "manifest.json";
+
+    public static ExportCheckpoint load( ExportToCsvConfig config, TinyIntResolver tinyIntResolver )
+    {
+        Formatting formatting = config.formatting();
+        String options = format( "delimiter=%s,array-delimiter=%s,quote=%s,tinyint=%s,compress=%s," +
+                        "hash-composite-keys=%s,orphan-relationships=%s",
+                formatting.delimiter().value(),
+                formatting.arrayDelimiter().value(),
+                formatting.quote().value(),
+                tinyIntResolver == null ? "" : tinyIntResolver.tinyIntAs(),
+                config.compress(),
+                config.hashCompositeKeys(),
+                config.orphanRelationships() );
+
+        return load( config.destination(), config.resume(), options );
+    }
+
+    // The options are any settings, other than the mappings themselves, that change what is written to the files
+    static ExportCheckpoint load( Path destination, boolean resume, String options )
+    {
+        Path file = destination.resolve( FILENAME );
+        Map<String, JsonNode> entries = new LinkedHashMap<>();
+
+        if ( resume && Files.exists( file ) )
+        {
+            try
+            {
+                JsonNode root = new ObjectMapper().readTree( file.toFile() );
+
+                for ( JsonNode entry : root.path( "mappings" ) )
+                {
+                    entries.put( entry.path( "name" ).textValue(), entry );
+                }
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                Loggers.Default.log( Level.WARNING,
+                        format( "Ignoring unreadable export checkpoint %s: %s", file, e.getMessage() ) );
+                entries.clear();
+            }
+        }
+
+        return new ExportCheckpoint( destination, file, entries, options );
+    }
+
+    private final Path destination;
+    private final Path file;
+    private final Map<String, JsonNode> entries;
+    private final String options;
+
+    private ExportCheckpoint( Path destination, Path file, Map<String, JsonNode> entries, String options )
+    {
+        this.destination = destination;
+        this.file = file;
+        this.entries = entries;
+        this.options = options;
+    }
+
+    public synchronized Optional<ManifestEntry> completed( MetadataMapping resource )
+    {
+        JsonNode entry = entries.get( resource.name() );
+
+        if ( entry == null || !fingerprint( resource ).equals( entry.path( "fingerprint" ).textValue() ) )
+        {
+            return Optional.empty();
+        }
+
+        try
+        {
+            Path header = destination.resolve( entry.path( "header" ).textValue() );
+
+            if ( Files.notExists( header ) )
+            {
+                return Optional.empty();
+            }
+
+            List<Path> bodies = new ArrayList<>();
+            long rows = 0;
+            long bytes = 0;
+
+            for ( JsonNode body : entry.path( "bodies" ) )
+            {
+                Path bodyFile = destination.resolve( body.path( "file" ).textValue() );
+
+                if ( !verify( bodyFile, body.path( "bytes" ).asLong(), body.path( "crc32" ).asLong() ) )
+                {
+                    Loggers.Default.log( Level.INFO,
+                            format( "Exporting %s again, as %s is missing or has changed", resource.name(), bodyFile ) );
+                    return Optional.empty();
+                }
+
+                bodies.add( bodyFile );
+                rows += body.path( "rows" ).asLong();
+                bytes += body.path( "bytes" ).asLong();
+            }
+
+            return Optional.of(
+                    new ManifestEntry( resource.graphObjectType(), new CsvFiles( header, bodies ), rows, bytes ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            Loggers.Default.log( Level.WARNING,
+                    format( "Unable to verify the exported files for %s: %s", resource.name(), e.getMessage() ) );
+            return Optional.empty();
+        }
+    }
+
+    // Saved after every mapping, so that the checkpoint is never more than one mapping behind the files on disk
+    public synchronized ManifestEntry record( MetadataMapping resource, Path header, List<ExportedFile> bodies )
+            throws IOException
+    {
+        ObjectNode entry = JsonNodeFactory.instance.objectNode();
+        entry.put( "name", resource.name() );
+        entry.put( "fingerprint", fingerprint( resource ) );
+        entry.put( "graph-object-type", resource.graphObjectType().name() );
+        entry.put( "header", destination.relativize( header ).toString() );
+
+        ArrayNode bodyNodes = JsonNodeFactory.instance.arrayNode();
+        List<Path> bodyFiles = new ArrayList<>();
+        long rows = 0;
+        long bytes = 0;
+
+        for ( ExportedFile body : bodies )
+        {
+            ObjectNode bodyNode = JsonNodeFactory.instance.objectNode();
+            bodyNode.put( "file", destination.relativize( body.path() ).toString() );
+            bodyNode.put( "rows", body.rows() );
+            bodyNode.put( "bytes", body.bytes() );
+            bodyNode.put( "crc32", body.checksum() );
+            bodyNodes.add( bodyNode );
+
+            bodyFiles.add( body.path() );
+            rows += body.rows();
+            bytes += body.bytes();
+        }
+
+        entry.set( "bodies", bodyNodes );
+
+        entries.put( resource.name(), entry );
+        save();
+
+        return new ManifestEntry( resource.graphObjectType(), new CsvFiles( header, bodyFiles ), rows, bytes );
+    }
+
+    private void save() throws IOException
+    {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        ArrayNode mappings = JsonNodeFactory.instance.arrayNode();
+        entries.values().forEach( mappings::add );
+        root.set( "mappings", mappings );
+
+        FileUtils.writeAtomically( file, output -> new ObjectMapper().writeValue( output, root ) );
+    }
+
+    // Covers everything that determines the contents of a mapping's files, but not its size estimate, which is
+    // refreshed whenever the mappings are regenerated
+    private String fingerprint( MetadataMapping resource )
+    {
+        CRC32 crc = new CRC32();
+        crc.update( options.getBytes( StandardCharsets.UTF_8 ) );
+        crc.update( resource.graphObjectType().name().getBytes( StandardCharsets.UTF_8 ) );
+        crc.update( resource.sql().getBytes( StandardCharsets.UTF_8 ) );
+        crc.update( resource.mappings().toJson().toString().getBytes( StandardCharsets.UTF_8 ) );
+
+        return Long.toHexString( crc.getValue() );
+    }
+
+    private static boolean verify( Path file, long bytes, long checksum ) throws IOException
+    {
+        if ( Files.notExists( file ) || Files.size( file ) != bytes )
+        {
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+
+        try ( InputStream input = Files.newInputStream( file ) )
+        {
+            int read;
+
+            while ( ( read = input.read( buffer ) ) != -1 )
+            {
+                crc.update( buffer, 0, read );
+            }
+        }
+
+        return crc.getValue() == checksum;
+    }
+}
@@ -1,35 +1,167 @@
 package org.neo4j.etl.sql.exportcsv;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
 
+import org.neo4j.etl.io.Pipe;
+import org.neo4j.etl.neo4j.importcsv.config.CsvFiles;
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
 import org.neo4j.etl.neo4j.importcsv.config.Manifest;
+import org.neo4j.etl.neo4j.importcsv.config.ManifestEntry;
 import org.neo4j.etl.neo4j.importcsv.io.HeaderFileWriter;
 import org.neo4j.etl.process.Commands;
+import org.neo4j.etl.sql.ConnectionPool;
 import org.neo4j.etl.sql.DatabaseClient;
 import org.neo4j.etl.sql.exportcsv.io.CsvFileWriter;
+import org.neo4j.etl.sql.exportcsv.io.ExportedFile;
+import org.neo4j.etl.sql.exportcsv.io.OrphanRelationships;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.SizeEstimate;
+import org.neo4j.etl.sql.exportcsv.mapping.TableScan;
 import org.neo4j.etl.sql.exportcsv.services.ResourceToCsvFilesService;
+import org.neo4j.etl.sql.exportcsv.supplier.DefaultExportSqlSupplier;
+import org.neo4j.etl.sql.exportcsv.supplier.KeyRangePartitioner;
+import org.neo4j.etl.sql.exportcsv.supplier.SizeEstimator;
+import org.neo4j.etl.sql.exportcsv.supplier.WatermarkDelta;
+import org.neo4j.etl.util.FutureUtils;
+import org.neo4j.etl.util.Loggers;
 import org.neo4j.etl.util.OperatingSystem;
 import org.neo4j.etl.util.Preconditions;
 
+import static java.lang.String.format;
+
 public class ExportToCsvCommand
 {
     private final ExportToCsvConfig config;
     private final MetadataMappings metadataMappings;
+    private final ConnectionPool connectionPool;
+    private final BiFunction<HeaderFileWriter, CsvFileWriter, ResourceToCsvFilesService> exportServices;
     private TinyIntResolver tinyIntResolver;
 
     public ExportToCsvCommand( ExportToCsvConfig config,
                                MetadataMappings metadataMappings,
                                TinyIntResolver tinyIntResolver )
+    {
+        this( config, metadataMappings, tinyIntResolver, null );
+    }
+
+    public ExportToCsvCommand( ExportToCsvConfig config,
+                               MetadataMappings metadataMappings,
+                               TinyIntResolver tinyIntResolver,
+                               ConnectionPool connectionPool )
+    {
+        this( config, metadataMappings, tinyIntResolver, connectionPool, ResourceToCsvFilesService::new );
+    }
+
+    ExportToCsvCommand( ExportToCsvConfig config,
+                        MetadataMappings metadataMappings,
+                        TinyIntResolver tinyIntResolver,
+                        ConnectionPool connectionPool,
+                        BiFunction<HeaderFileWriter, CsvFileWriter, ResourceToCsvFilesService> exportServices )
     {
         this.config = Preconditions.requireNonNull( config, "ExportToCsvConfig" );
         this.metadataMappings = Preconditions.requireNonNull( metadataMappings, "MetadataMappings" );
         this.tinyIntResolver = tinyIntResolver;
+        this.connectionPool = connectionPool;
+        this.exportServices = exportServices;
     }
 
     public Manifest execute() throws Exception
+    {
+        List<MetadataMapping> resources = prepareExport();
+
+        int workers = config.exportThreads();
+
+        Loggers.Default.log( Level.INFO,
+                format( "Exporting %s mapping(s) using %s export thread(s)", resources.size(), workers ) );
+
+        if ( connectionPool == null )
+        {
+            try ( ConnectionPool exportConnectionPool = new ConnectionPool( config.connectionConfig(), 1, workers ) )
+            {
+                return export( resources, workers, exportConnectionPool );
+            }
+        }
+        else
+        {
+            return export( resources, workers, connectionPool );
+        }
+    }
+
+    // Exports each mapping into a named pipe that the import tool reads from as the rows arrive, so that export and
+    // import overlap and no intermediate CSV data is written to disk
+    public void stream( StreamingImport streamingImport ) throws Exception
+    {
+        List<MetadataMapping> resources = prepareExport();
+
+        Loggers.Default.log( Level.INFO, format( "Streaming %s mapping(s) to the import tool", resources.size() ) );
+
+        if ( config.tablePartitions() > 1 )
+        {
+            Loggers.Default.log( Level.INFO, "Table partitioning is not used when streaming" );
+        }
+
+        if ( config.compress() )
+        {
+            Loggers.Default.log( Level.INFO, "Compression is not used when streaming" );
+        }
+
+        // Each mapping has its own pipe, which the import tool reads one after another, so a scan writing to
+        // several of them at once would stall
+        if ( config.sharedTableScans() )
+        {
+            Loggers.Default.log( Level.INFO, "Shared table scans are not used when streaming" );
+        }
+
+        if ( config.resume() )
+        {
+            Loggers.Default.log( Level.INFO, "Resume is not used when streaming" );
+        }
+
+        if ( config.deltaStateFile().isPresent() )
+        {
+            Loggers.Default.log( Level.INFO, "Delta export is not used when streaming" );
+        }
+
+        if ( connectionPool == null )
+        {
+            try ( ConnectionPool exportConnectionPool =
+                          new ConnectionPool( config.connectionConfig(), 1, config.exportThreads() ) )
+            {
+                stream( resources, exportConnectionPool, streamingImport );
+            }
+        }
+        else
+        {
+            stream( resources, connectionPool, streamingImport );
+        }
+    }
+
+    private List<MetadataMapping> prepareExport() throws Exception
     {
         if ( Files.notExists( config.destination() ) )
         {
@@ -41,20 +173,507 @@ public class ExportToCsvCommand
             Commands.commands( "chmod", "0777", config.destination().toString() ).execute().await();
         }
 
-        Manifest manifest = new Manifest();
+        List<MetadataMapping> resources = new ArrayList<>();
+        metadataMappings.forEach( resources::add );
+
+        return resources;
+    }
+
+    private void stream( List<MetadataMapping> resources,
+                         ConnectionPool pool,
+                         StreamingImport streamingImport ) throws Exception
+    {
+        DatabaseClient databaseClient = new DatabaseClient( pool );
+        HeaderFileWriter headerFileWriter = new HeaderFileWriter( config.destination(), config.formatting() );
+        CsvFileWriter csvFileWriter = new CsvFileWriter( config, databaseClient, tinyIntResolver );
+        ResourceToCsvFilesService exportService = exportServices.apply( headerFileWriter, csvFileWriter );
+
+        // Writers block until the import tool gets round to opening their pipe, so each needs a thread of its own
+        ExecutorService executor = Executors.newCachedThreadPool( r ->
+        {
+            Thread thread = new Thread( r, "streaming-export" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+
+        List<Pipe> pipes = new ArrayList<>();
+
+        try
+        {
+            Manifest manifest = new Manifest();
+            List<Path> exportFiles = new ArrayList<>();
+
+            for ( MetadataMapping resource : resources )
+            {
+                Path headerFile = exportService.writeHeaderFile( resource );
+
+                Pipe pipe = new Pipe( config.destination().resolve( format( "%s.csv", resource.name() ) ).toString() );
+                pipes.add( pipe );
+                Path exportFile = Paths.get( pipe.name() );
+                exportFiles.add( exportFile );
+
+                // Nothing has been exported yet, so the import tool is sized from the tables' estimated sizes
+                SizeEstimate sizeEstimate = sizeEstimate( resource );
+                manifest.add( new ManifestEntry( resource.graphObjectType(), new CsvFiles( headerFile, exportFile ),
+                        sizeEstimate.rows(), sizeEstimate.bytes() ) );
+            }
+
+            // The import tool reads every node file before any relationship file, so relationship writers waiting
+            // for the node writers to finish don't hold it up
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            Executor relationshipExecutor = executor;
+
+            for ( GraphObjectType graphObjectType : GraphObjectType.values() )
+            {
+                if ( graphObjectType == GraphObjectType.Relationship &&
+                        config.orphanRelationships() != OrphanRelationships.IGNORE )
+                {
+                    relationshipExecutor = afterAll( futures, executor );
+                }
+
+                for ( int i = 0; i < resources.size(); i++ )
+                {
+                    MetadataMapping resource = resources.get( i );
+                    Path exportFile = exportFiles.get( i );
+
+                    if ( resource.graphObjectType() == graphObjectType )
+                    {
+                        futures.add( FutureUtils.exceptionableFuture(
+                                () -> exportService.streamExportFile( resource, exportFile ),
+                                graphObjectType == GraphObjectType.Node ? executor : relationshipExecutor ) );
+                    }
+                }
+            }
+
+            futures.add( FutureUtils.exceptionableFuture( () ->
+            {
+                streamingImport.importFrom( manifest );
+                return null;
+            }, executor ) );
+
+            await( FutureUtils.allOrFirstFailure( futures.toArray( new CompletableFuture<?>[futures.size()] ) ) );
+
+            reportOrphanRelationships( csvFileWriter, config.orphanRelationships() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+
+            for ( Pipe pipe : pipes )
+            {
+                pipe.close();
+            }
+        }
+    }
+
+    private Manifest export( List<MetadataMapping> resources, int workers, ConnectionPool pool ) throws Exception
+    {
+        // Workers share a single pool-backed client: each query borrows its own connection for as long as its
+        // results are open
+        DatabaseClient databaseClient = new DatabaseClient( pool );
+
+        int compressionThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService compressionExecutor =
+                config.compress() ? Executors.newFixedThreadPool( compressionThreads ) : null;
+
+        KeyRangePartitioner partitioner =
+                new KeyRangePartitioner( databaseClient, config.formatting().sqlQuotes(), config.tablePartitions() );
+
+        // Mappings generated by an older version, or written by hand, may not have estimates
+        List<MetadataMapping> estimatedResources = resources.stream().allMatch( r -> r.sizeEstimate().isPresent() )
+                ? resources
+                : new SizeEstimator( databaseClient ).estimate( resources );
+
+        Optional<DeltaState> deltaState = config.deltaStateFile().map( DeltaState::load );
+
+        if ( deltaState.isPresent() )
+        {
+            WatermarkDelta watermarkDelta =
+                    new WatermarkDelta( databaseClient, config.formatting().sqlQuotes(), deltaState.get() );
+
+            for ( int i = 0; i < estimatedResources.size(); i++ )
+            {
+                estimatedResources.set( i, watermarkDelta.delta( estimatedResources.get( i ) ) );
+            }
+        }
+
+        ExportCheckpoint checkpoint = ExportCheckpoint.load( config, tinyIntResolver );
+        Map<MetadataMapping, CompletableFuture<ManifestEntry>> entries = new HashMap<>();
+        List<MetadataMapping> pendingResources = new ArrayList<>();
+        boolean nodesSkipped = false;
+
+        for ( MetadataMapping resource : estimatedResources )
+        {
+            Optional<ManifestEntry> completed = checkpoint.completed( resource );
+
+            if ( completed.isPresent() )
+            {
+                Loggers.Default.log( Level.INFO,
+                        format( "Skipping %s, which was exported by an earlier run", resource.name() ) );
+                entries.put( resource, CompletableFuture.completedFuture( completed.get() ) );
+                nodesSkipped |= resource.graphObjectType() == GraphObjectType.Node;
+            }
+            else
+            {
+                pendingResources.add( resource );
+            }
+        }
+
+        OrphanRelationships orphanRelationships = config.orphanRelationships();
+
+        if ( orphanRelationships != OrphanRelationships.IGNORE && deltaState.isPresent() )
+        {
+            Loggers.Default.log( Level.INFO, "Orphan relationships are not checked by a delta export, whose " +
+                    "relationships may refer to nodes exported by an earlier run" );
+            orphanRelationships = OrphanRelationships.IGNORE;
+        }
+        else if ( orphanRelationships != OrphanRelationships.IGNORE && nodesSkipped )
+        {
+            Loggers.Default.log( Level.INFO, "Orphan relationships are not checked when resuming an export, as the " +
+                    "IDs of nodes exported by the earlier run aren't known" );
+            orphanRelationships = OrphanRelationships.IGNORE;
+        }
+
+        boolean checkOrphans = orphanRelationships != OrphanRelationships.IGNORE;
+
+        HeaderFileWriter headerFileWriter =
+                new HeaderFileWriter( config.destination(), config.formatting(), config.compress() );
+        CsvFileWriter csvFileWriter = new CsvFileWriter( config, databaseClient, tinyIntResolver,
+                compressionExecutor, compressionThreads, orphanRelationships );
+        ResourceToCsvFilesService exportService = exportServices.apply( headerFileWriter, csvFileWriter );
+
+        ExecutorService executor = Executors.newFixedThreadPool( workers );
+
+        try
+        {
+            // The largest exports are started first, so that a large table picked up late doesn't leave one
+            // worker busy long after the others have finished. Relationships checked for orphans must wait for
+            // every node to be written, so nodes come first.
+            List<TableScan> scans = tableScans( pendingResources, checkOrphans );
+            scans.sort( Comparator.comparing( ( TableScan scan ) -> checkOrphans && isRelationships( scan ) )
+                    .thenComparing( Comparator.comparing( ( TableScan scan ) -> sizeEstimate( scan ) ).reversed() ) );
+
+            List<List<String>> partitions = new ArrayList<>();
+
+            for ( TableScan scan : scans )
+            {
+                partitions.add( partitioner.partition( scan.combined() ) );
+            }
+
+            ExportProgress progress = new ExportProgress( scans, partitions );
+            List<CompletableFuture<ManifestEntry>> nodeEntries = new ArrayList<>();
+            Executor scanExecutor = executor;
+
+            for ( int i = 0; i < scans.size(); i++ )
+            {
+                TableScan scan = scans.get( i );
+
+                // Queued behind the node exports rather than blocking a worker, which could leave none to write
+                // the nodes
+                if ( checkOrphans && scanExecutor == executor && isRelationships( scan ) )
+                {
+                    scanExecutor = afterAll( nodeEntries, executor );
+                }
+
+                if ( scan.isShared() )
+                {
+                    submitSharedScan( scan, partitions.get( i ), exportService, scanExecutor, progress,
+                            checkpoint, entries );
+                }
+                else
+                {
+                    submitScan( scan.combined(), partitions.get( i ), exportService, scanExecutor, progress,
+                            checkpoint, entries );
+                }
+
+                if ( !isRelationships( scan ) )
+                {
+                    scan.resources().forEach( resource -> nodeEntries.add( entries.get( resource ) ) );
+                }
+            }
+
+            // The first failure is reported as soon as it happens, rather than once every mapping before it has been
+            // exported, and the exports still running or waiting to run are abandoned when the executor is shut down
+            await( FutureUtils.allOrFirstFailure(
+                    entries.values().toArray( new CompletableFuture<?>[entries.size()] ) ) );
+
+            // Entries are added in mapping order, regardless of the order in which the workers complete them,
+            // so that the manifest (and hence the import tool arguments) is the same from one run to the next
+            Manifest manifest = new Manifest();
+
+            for ( MetadataMapping resource : estimatedResources )
+            {
+                manifest.add( await( entries.get( resource ) ) );
+            }
+
+            reportOrphanRelationships( csvFileWriter, orphanRelationships );
+
+            // Only once every mapping has been exported, so that a failed delta export is repeated in full
+            if ( deltaState.isPresent() )
+            {
+                deltaState.get().save();
+            }
+
+            return manifest;
+        }
+        finally
+        {
+            executor.shutdownNow();
+
+            if ( compressionExecutor != null )
+            {
+                compressionExecutor.shutdownNow();
+            }
+        }
+    }
+
+    // A scan writing both nodes and relationships would check the relationships against nodes it hasn't finished
+    // writing, so when checking for orphans they are scanned separately
+    private List<TableScan> tableScans( List<MetadataMapping> resources, boolean separateRelationships )
+    {
+        if ( config.sharedTableScans() && separateRelationships )
+        {
+            Map<Boolean, List<MetadataMapping>> byType = resources.stream().collect(
+                    Collectors.partitioningBy( r -> r.graphObjectType() == GraphObjectType.Relationship ) );
+
+            List<TableScan> scans = TableScan.group( byType.get( false ), new DefaultExportSqlSupplier() );
+            scans.addAll( TableScan.group( byType.get( true ), new DefaultExportSqlSupplier() ) );
+
+            return scans;
+        }
+
+        if ( config.sharedTableScans() )
+        {
+            return TableScan.group( resources, new DefaultExportSqlSupplier() );
+        }
+
+        return resources.stream()
+                .map( TableScan::of )
+                .collect( Collectors.toList() );
+    }
+
+    private void submitScan( MetadataMapping resource,
+                             List<String> partitions,
+                             ResourceToCsvFilesService exportService,
+                             Executor executor,
+                             ExportProgress progress,
+                             ExportCheckpoint checkpoint,
+                             Map<MetadataMapping, CompletableFuture<ManifestEntry>> entries )
+    {
+        CompletableFuture<Path> header =
+                FutureUtils.exceptionableFuture( () -> exportService.writeHeaderFile( resource ), executor );
+        List<CompletableFuture<ExportedFile>> bodies = new ArrayList<>();
+        long rowsPerPartition = sizeEstimate( resource ).rows() / partitions.size();
+
+        if ( partitions.size() == 1 )
+        {
+            bodies.add( FutureUtils.exceptionableFuture( () -> progress.exported(
+                    resource.name(), rowsPerPartition, exportService.writeExportFile( resource ) ), executor ) );
+        }
+        else
+        {
+            for ( int i = 0; i < partitions.size(); i++ )
+            {
+                String sql = partitions.get( i );
+                int partIndex = i + 1;
+                bodies.add( FutureUtils.exceptionableFuture( () -> progress.exported(
+                        format( "%s part %s", resource.name(), partIndex ), rowsPerPartition,
+                        exportService.writeExportFilePart( resource, sql, partIndex ) ), executor ) );
+            }
+        }
+
+        entries.put( resource, manifestEntry( resource, header, bodies, checkpoint ) );
+    }
+
+    // Each partition of the table is read once, with the rows written to a file (or part file) for every mapping
+    private void submitSharedScan( TableScan scan,
+                                   List<String> partitions,
+                                   ResourceToCsvFilesService exportService,
+                                   Executor executor,
+                                   ExportProgress progress,
+                                   ExportCheckpoint checkpoint,
+                                   Map<MetadataMapping, CompletableFuture<ManifestEntry>> entries )
+    {
+        List<MetadataMapping> scanResources = scan.resources();
+        List<CompletableFuture<List<ExportedFile>>> scanBodies = new ArrayList<>();
+        long rowsPerPartition = sizeEstimate( scan ).rows() / partitions.size();
+
+        for ( int i = 0; i < partitions.size(); i++ )
+        {
+            String sql = partitions.get( i );
+            String filenameSuffix = partitions.size() == 1 ? "" : format( "_part%03d", i + 1 );
+            String description = partitions.size() == 1
+                    ? scan.combined().name()
+                    : format( "%s part %s", scan.combined().name(), i + 1 );
+
+            scanBodies.add( FutureUtils.exceptionableFuture( () -> progress.exported(
+                    description, rowsPerPartition, exportService.writeExportFiles( scan, sql, filenameSuffix ) ),
+                    executor ) );
+        }
 
-        try ( DatabaseClient databaseClient = new DatabaseClient( config.connectionConfig() ) )
+        for ( int i = 0; i < scanResources.size(); i++ )
         {
-            HeaderFileWriter headerFileWriter = new HeaderFileWriter( config.destination(), config.formatting() );
-            CsvFileWriter csvFileWriter = new CsvFileWriter( config, databaseClient, tinyIntResolver );
-            ResourceToCsvFilesService exportService = new ResourceToCsvFilesService( headerFileWriter, csvFileWriter );
+            MetadataMapping resource = scanResources.get( i );
+            int resourceIndex = i;
 
-            for ( MetadataMapping resource : metadataMappings )
+            CompletableFuture<Path> header =
+                    FutureUtils.exceptionableFuture( () -> exportService.writeHeaderFile( resource ), executor );
+            List<CompletableFuture<ExportedFile>> bodies = new ArrayList<>();
+
+            for ( CompletableFuture<List<ExportedFile>> scanBody : scanBodies )
             {
-                manifest.add( exportService.exportToCsv( resource ) );
+                bodies.add( scanBody.thenApply( files -> files.get( resourceIndex ) ) );
             }
+
+            entries.put( resource, manifestEntry( resource, header, bodies, checkpoint ) );
         }
+    }
+
+    // A mapping is checkpointed as soon as its header and all of its bodies have been written, whatever the state
+    // of the other mappings
+    private static CompletableFuture<ManifestEntry> manifestEntry( MetadataMapping resource,
+                                                                   CompletableFuture<Path> header,
+                                                                   List<CompletableFuture<ExportedFile>> bodies,
+                                                                   ExportCheckpoint checkpoint )
+    {
+        List<CompletableFuture<?>> files = new ArrayList<>( bodies );
+        files.add( header );
 
-        return manifest;
+        return CompletableFuture.allOf( files.toArray( new CompletableFuture<?>[files.size()] ) ).thenApply( done ->
+        {
+            try
+            {
+                return checkpoint.record( resource, header.join(),
+                        bodies.stream().map( CompletableFuture::join ).collect( Collectors.toList() ) );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        } );
+    }
+
+    // Runs tasks once all of the futures have completed, successfully or not, so that a failure doesn't leave the
+    // tasks (and whatever is waiting on them) waiting forever
+    private static Executor afterAll( List<? extends CompletableFuture<?>> futures, Executor executor )
+    {
+        CompletableFuture<Void> all =
+                CompletableFuture.allOf( futures.toArray( new CompletableFuture<?>[futures.size()] ) );
+
+        return command -> all.whenComplete( ( done, failure ) -> executor.execute( command ) );
+    }
+
+    private static void reportOrphanRelationships( CsvFileWriter csvFileWriter,
+                                                   OrphanRelationships orphanRelationships )
+    {
+        if ( orphanRelationships == OrphanRelationships.IGNORE )
+        {
+            return;
+        }
+
+        SortedMap<String, Long> orphans = csvFileWriter.orphanRelationships();
+        long total = 0;
+
+        for ( Map.Entry<String, Long> entry : orphans.entrySet() )
+        {
+            if ( entry.getValue() > 0 )
+            {
+                Loggers.Default.log( Level.WARNING, format( "%s relationship(s) of %s refer to nodes that weren't " +
+                                "exported, and were %s", entry.getValue(), entry.getKey(),
+                        orphanRelationships == OrphanRelationships.DROP
+                                ? "dropped"
+                                : "left for the import tool to report" ) );
+                total += entry.getValue();
+            }
+        }
+
+        if ( total == 0 )
+        {
+            Loggers.Default.log( Level.INFO, "No orphan relationships found" );
+        }
+    }
+
+    private static boolean isRelationships( TableScan scan )
+    {
+        return scan.resources().stream().allMatch( r -> r.graphObjectType() == GraphObjectType.Relationship );
+    }
+
+    private static SizeEstimate sizeEstimate( TableScan scan )
+    {
+        return sizeEstimate( scan.combined() );
+    }
+
+    private static SizeEstimate sizeEstimate( MetadataMapping resource )
+    {
+        return resource.sizeEstimate().orElse( SizeEstimate.NONE );
+    }
+
+    private static <T> T await( Future<T> future ) throws Exception
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+
+            if ( cause instanceof CompletionException && cause.getCause() != null )
+            {
+                cause = cause.getCause();
+            }
+
+            if ( cause instanceof UncheckedIOException )
+            {
+                cause = cause.getCause();
+            }
+
+            if ( cause instanceof Exception )
+            {
+                throw (Exception) cause;
+            }
+
+            throw e;
+        }
+    }
+
+    public interface StreamingImport
+    {
+        void importFrom( Manifest manifest ) throws Exception;
+    }
+
+    // Reports progress as each export task (a mapping, a partition of a mapping, or a shared table scan) finishes,
+    // in terms of the estimated rows of the tables exported so far
+    private static class ExportProgress
+    {
+        private final int tasks;
+        private final long estimatedRows;
+        private final AtomicInteger tasksCompleted = new AtomicInteger();
+        private final AtomicLong rowsExported = new AtomicLong();
+
+        ExportProgress( List<TableScan> scans, List<List<String>> partitions )
+        {
+            this.tasks = partitions.stream().mapToInt( List::size ).sum();
+            this.estimatedRows = scans.stream().mapToLong( scan -> sizeEstimate( scan ).rows() ).sum();
+        }
+
+        <T> T exported( String description, long rows, T result )
+        {
+            int completed = tasksCompleted.incrementAndGet();
+            long exported = rowsExported.addAndGet( rows );
+
+            if ( estimatedRows > 0 )
+            {
+                Loggers.Default.log( Level.INFO, format( "Exported %s (%s of %s export tasks, ~%s%% of estimated rows)",
+                        description, completed, tasks, Math.min( 100, exported * 100 / estimatedRows ) ) );
+            }
+            else
+            {
+                Loggers.Default.log( Level.INFO,
+                        format( "Exported %s (%s of %s export tasks)", description, completed, tasks ) );
+            }
+
+            return result;
+        }
     }
 }
@@ -1,13 +1,21 @@
 package org.neo4j.etl.sql.exportcsv;
 
 import java.nio.file.Path;
+import java.util.Optional;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.ConnectionConfig;
+import org.neo4j.etl.sql.exportcsv.io.OrphanRelationships;
 import org.neo4j.etl.util.Preconditions;
 
+import static java.lang.String.format;
+
 public class ExportToCsvConfig
 {
+    public static final int DEFAULT_EXPORT_BUFFER_SIZE = 1024 * 1024;
+    public static final int MIN_EXPORT_BUFFER_SIZE = 4096;
+    public static final int DEFAULT_ROW_BUFFER_SIZE = 1024;
+
     public static Builder.SetDestination builder()
     {
         return new ExportToCsvConfigBuilder();
@@ -16,12 +24,59 @@ public class ExportToCsvConfig
     private final Path destination;
     private final ConnectionConfig connectionConfig;
     private final Formatting formatting;
+    private final int exportThreads;
+    private final int tablePartitions;
+    private final int exportBufferSize;
+    private final boolean directExportBuffers;
+    private final boolean streaming;
+    private final boolean compress;
+    private final int rowBufferSize;
+    private final boolean nativeExport;
+    private final boolean sharedTableScans;
+    private final boolean resume;
+    private final Path deltaStateFile;
+    private final boolean hashCompositeKeys;
+    private final OrphanRelationships orphanRelationships;
 
     ExportToCsvConfig( ExportToCsvConfigBuilder builder )
     {
         this.destination = Preconditions.requireNonNull( builder.destination, "Destination" );
         this.connectionConfig = Preconditions.requireNonNull( builder.connectionConfig, "ConnectionConfig" );
         this.formatting = Preconditions.requireNonNull( builder.formatting, "Formatting" );
+        this.exportThreads = builder.exportThreads;
+        this.tablePartitions = builder.tablePartitions;
+        this.exportBufferSize = builder.exportBufferSize;
+        this.directExportBuffers = builder.directExportBuffers;
+        this.streaming = builder.streaming;
+        this.compress = builder.compress;
+        this.rowBufferSize = builder.rowBufferSize;
+        this.nativeExport = builder.nativeExport;
+        this.sharedTableScans = builder.sharedTableScans;
+        this.resume = builder.resume;
+        this.deltaStateFile = builder.deltaStateFile;
+        this.hashCompositeKeys = builder.hashCompositeKeys;
+        this.orphanRelationships = Preconditions.requireNonNull( builder.orphanRelationships, "OrphanRelationships" );
+
+        if ( exportThreads < 1 )
+        {
+            throw new IllegalArgumentException( "Export threads must be greater than zero" );
+        }
+
+        if ( tablePartitions < 1 )
+        {
+            throw new IllegalArgumentException( "Table partitions must be greater than zero" );
+        }
+
+        if ( exportBufferSize < MIN_EXPORT_BUFFER_SIZE )
+        {
+            throw new IllegalArgumentException(
+                    format( "Export buffer size must be at least %s bytes", MIN_EXPORT_BUFFER_SIZE ) );
+        }
+
+        if ( rowBufferSize < 0 )
+        {
+            throw new IllegalArgumentException( "Row buffer size must not be negative" );
+        }
     }
 
     public Path destination()
@@ -39,6 +94,79 @@ public class ExportToCsvConfig
         return formatting;
     }
 
+    public int exportThreads()
+    {
+        return exportThreads;
+    }
+
+    public int tablePartitions()
+    {
+        return tablePartitions;
+    }
+
+    public int exportBufferSize()
+    {
+        return exportBufferSize;
+    }
+
+    public boolean directExportBuffers()
+    {
+        return directExportBuffers;
+    }
+
+    public boolean streaming()
+    {
+        return streaming;
+    }
+
+    public boolean compress()
+    {
+        return compress;
+    }
+
+    public int rowBufferSize()
+    {
+        return rowBufferSize;
+    }
+
+    public boolean nativeExport()
+    {
+        return nativeExport;
+    }
+
+    // Export a table's node and foreign key relationship mappings from a single query
+    public boolean sharedTableScans()
+    {
+        return sharedTableScans;
+    }
+
+    // Skip mappings whose files were completed and checkpointed by an earlier, interrupted export to the same
+    // destination
+    public boolean resume()
+    {
+        return resume;
+    }
+
+    // When present, mappings with a watermark column are exported incrementally, from the high-water marks
+    // recorded in this file by the previous run
+    public Optional<Path> deltaStateFile()
+    {
+        return Optional.ofNullable( deltaStateFile );
+    }
+
+    // Write composite keys used as node, start and end IDs as 64-bit hashes rather than as their concatenated parts
+    public boolean hashCompositeKeys()
+    {
+        return hashCompositeKeys;
+    }
+
+    // Whether relationships whose start or end node wasn't exported are counted, and if so whether they are dropped
+    // rather than left for the import tool to report
+    public OrphanRelationships orphanRelationships()
+    {
+        return orphanRelationships;
+    }
+
     public interface Builder
     {
         interface SetDestination
@@ -56,6 +184,32 @@ public class ExportToCsvConfig
             Builder formatting( Formatting formatting );
         }
 
+        Builder exportThreads( int exportThreads );
+
+        Builder tablePartitions( int tablePartitions );
+
+        Builder exportBufferSize( int exportBufferSize );
+
+        Builder directExportBuffers( boolean directExportBuffers );
+
+        Builder streaming( boolean streaming );
+
+        Builder compress( boolean compress );
+
+        Builder rowBufferSize( int rowBufferSize );
+
+        Builder nativeExport( boolean nativeExport );
+
+        Builder sharedTableScans( boolean sharedTableScans );
+
+        Builder resume( boolean resume );
+
+        Builder deltaStateFile( Path deltaStateFile );
+
+        Builder hashCompositeKeys( boolean hashCompositeKeys );
+
+        Builder orphanRelationships( OrphanRelationships orphanRelationships );
+
         ExportToCsvConfig build();
     }
 }
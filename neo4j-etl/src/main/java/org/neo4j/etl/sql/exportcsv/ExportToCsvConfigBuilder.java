@@ -4,6 +4,7 @@ import java.nio.file.Path;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.ConnectionConfig;
+import org.neo4j.etl.sql.exportcsv.io.OrphanRelationships;
 
 class ExportToCsvConfigBuilder implements ExportToCsvConfig.Builder,
         ExportToCsvConfig.Builder.SetDestination,
@@ -13,6 +14,19 @@ class ExportToCsvConfigBuilder implements ExportToCsvConfig.Builder,
     Path destination;
     ConnectionConfig connectionConfig;
     Formatting formatting;
+    int exportThreads = 1;
+    int tablePartitions = 1;
+    int exportBufferSize = ExportToCsvConfig.DEFAULT_EXPORT_BUFFER_SIZE;
+    boolean directExportBuffers = false;
+    boolean streaming = false;
+    boolean compress = false;
+    int rowBufferSize = ExportToCsvConfig.DEFAULT_ROW_BUFFER_SIZE;
+    boolean nativeExport = true;
+    boolean sharedTableScans = false;
+    boolean resume = false;
+    Path deltaStateFile;
+    boolean hashCompositeKeys = false;
+    OrphanRelationships orphanRelationships = OrphanRelationships.IGNORE;
 
     @Override
     public SetRDBMSConnectionConfig destination(Path directory )
@@ -35,6 +49,97 @@ class ExportToCsvConfigBuilder implements ExportToCsvConfig.Builder,
         return this;
     }
 
+    @Override
+    public ExportToCsvConfig.Builder exportThreads( int exportThreads )
+    {
+        this.exportThreads = exportThreads;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder tablePartitions( int tablePartitions )
+    {
+        this.tablePartitions = tablePartitions;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder exportBufferSize( int exportBufferSize )
+    {
+        this.exportBufferSize = exportBufferSize;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder directExportBuffers( boolean directExportBuffers )
+    {
+        this.directExportBuffers = directExportBuffers;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder streaming( boolean streaming )
+    {
+        this.streaming = streaming;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder compress( boolean compress )
+    {
+        this.compress = compress;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder rowBufferSize( int rowBufferSize )
+    {
+        this.rowBufferSize = rowBufferSize;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder nativeExport( boolean nativeExport )
+    {
+        this.nativeExport = nativeExport;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder sharedTableScans( boolean sharedTableScans )
+    {
+        this.sharedTableScans = sharedTableScans;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder resume( boolean resume )
+    {
+        this.resume = resume;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder deltaStateFile( Path deltaStateFile )
+    {
+        this.deltaStateFile = deltaStateFile;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder hashCompositeKeys( boolean hashCompositeKeys )
+    {
+        this.hashCompositeKeys = hashCompositeKeys;
+        return this;
+    }
+
+    @Override
+    public ExportToCsvConfig.Builder orphanRelationships( OrphanRelationships orphanRelationships )
+    {
+        this.orphanRelationships = orphanRelationships;
+        return this;
+    }
+
     @Override
     public ExportToCsvConfig build()
     {
@@ -0,0 +1,57 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Checksum;
+
+// Updates a checksum with the bytes as they are written through to the underlying channel
+class ChecksumChannel implements WritableByteChannel
+{
+    private final WritableByteChannel channel;
+    private final Checksum checksum;
+    // Direct buffers have to be copied out to be checksummed
+    private byte[] scratch = new byte[0];
+
+    ChecksumChannel( WritableByteChannel channel, Checksum checksum )
+    {
+        this.channel = channel;
+        this.checksum = checksum;
+    }
+
+    @Override
+    public int write( ByteBuffer source ) throws IOException
+    {
+        ByteBuffer written = source.duplicate();
+        int count = channel.write( source );
+
+        if ( written.hasArray() )
+        {
+            checksum.update( written.array(), written.arrayOffset() + written.position(), count );
+        }
+        else
+        {
+            if ( scratch.length < count )
+            {
+                scratch = new byte[count];
+            }
+
+            written.get( scratch, 0, count );
+            checksum.update( scratch, 0, count );
+        }
+
+        return count;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
@@ -0,0 +1,243 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.IdSpace;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+import org.neo4j.etl.sql.metadata.SqlDataType;
+
+// Resolves a mapping's columns against an open result set once, so that reading a row is a matter of
+// fetching values by position
+class ColumnPlan
+{
+    static ColumnPlan compile( Column[] columns, QueryResults results, TinyIntResolver tinyIntResolver )
+            throws Exception
+    {
+        return compile( columns, null, results, tinyIntResolver, null, false );
+    }
+
+    // When an encoder is supplied, composite keys used as IDs are written as their hashed IDs. Node keys are checked
+    // for collisions; relationship keys need only be hashed the same way.
+    static ColumnPlan compile( Column[] columns,
+                               CsvField[] fields,
+                               QueryResults results,
+                               TinyIntResolver tinyIntResolver,
+                               CompositeKeyEncoder keyEncoder,
+                               boolean nodeKeys ) throws Exception
+    {
+        PlannedColumn[] plannedColumns = new PlannedColumn[columns.length];
+        String[] idSpaces = new String[columns.length];
+
+        for ( int i = 0; i < columns.length; i++ )
+        {
+            plannedColumns[i] = planColumn( columns[i], results, tinyIntResolver );
+
+            // Columns without a field (as when only the columns are known) are never IDs
+            boolean isId = fields != null && i < fields.length && fields[i].isId();
+
+            if ( isId )
+            {
+                idSpaces[i] = fields[i].idSpace().map( IdSpace::value ).orElse( "" );
+            }
+
+            if ( keyEncoder != null && isId && isCompositeKey( columns[i] ) )
+            {
+                plannedColumns[i] = plannedColumns[i].encodedBy( keyEncoder, idSpaces[i], nodeKeys );
+            }
+        }
+
+        return new ColumnPlan( plannedColumns, idSpaces );
+    }
+
+    private static boolean isCompositeKey( Column column )
+    {
+        return column instanceof CompositeColumn && ((CompositeColumn) column).columns().size() > 1;
+    }
+
+    private static PlannedColumn planColumn( Column column, QueryResults results, TinyIntResolver tinyIntResolver )
+            throws Exception
+    {
+        boolean key = column.role() == ColumnRole.PrimaryKey || column.role() == ColumnRole.ForeignKey;
+        boolean tinyIntAsBoolean = column.sqlDataType() == SqlDataType.TINYINT &&
+                tinyIntResolver.targetDataType( column.sqlDataType() ) == Neo4jDataType.Boolean;
+
+        // Constant labels and relationship types aren't in the results, and are supplied by the column itself
+        if ( column instanceof SimpleColumn && ((SimpleColumn) column).isClientSideLiteral() )
+        {
+            return new PlannedColumn( column, null, key, column.useQuotes(), tinyIntAsBoolean );
+        }
+
+        if ( column instanceof SimpleColumn )
+        {
+            int[] ordinals = column.allowAddToSelectStatement()
+                    ? new int[]{results.findColumn( column.alias() )}
+                    : new int[0];
+
+            return new PlannedColumn( column, ordinals, key, column.useQuotes(), tinyIntAsBoolean );
+        }
+
+        if ( column instanceof CompositeColumn && column.allowAddToSelectStatement() )
+        {
+            Column[] parts = ((CompositeColumn) column).columns().toArray( new Column[0] );
+            int[] ordinals = new int[parts.length];
+
+            for ( int i = 0; i < parts.length; i++ )
+            {
+                if ( !(parts[i] instanceof SimpleColumn) )
+                {
+                    return new PlannedColumn( column, null, key, column.useQuotes(), tinyIntAsBoolean );
+                }
+
+                ordinals[i] = results.findColumn( parts[i].alias() );
+            }
+
+            return new PlannedColumn( column, ordinals, key, column.useQuotes(), tinyIntAsBoolean );
+        }
+
+        // Anything we can't resolve to positions up front falls back to selecting by label
+        return new PlannedColumn( column, null, key, column.useQuotes(), tinyIntAsBoolean );
+    }
+
+    private final PlannedColumn[] columns;
+    private final String[] idSpaces;
+
+    private ColumnPlan( PlannedColumn[] columns, String[] idSpaces )
+    {
+        this.columns = columns;
+        this.idSpaces = idSpaces;
+    }
+
+    int size()
+    {
+        return columns.length;
+    }
+
+    boolean isKey( int index )
+    {
+        return columns[index].key;
+    }
+
+    // The ID space of a node, start or end ID column ("" for the global space), or null for any other column
+    String idSpace( int index )
+    {
+        return idSpaces[index];
+    }
+
+    boolean useQuotes( int index )
+    {
+        return columns[index].useQuotes;
+    }
+
+    void read( QueryResults results, int rowIndex, String[] values )
+    {
+        for ( int i = 0; i < columns.length; i++ )
+        {
+            values[i] = columns[i].read( results, rowIndex );
+        }
+    }
+
+    private static class PlannedColumn
+    {
+        private final Column column;
+        private final int[] ordinals;
+        private final boolean key;
+        private final boolean useQuotes;
+        private final boolean tinyIntAsBoolean;
+        private final CompositeKeyEncoder keyEncoder;
+        private final String idSpace;
+        private final boolean nodeKey;
+
+        PlannedColumn( Column column, int[] ordinals, boolean key, boolean useQuotes, boolean tinyIntAsBoolean )
+        {
+            this( column, ordinals, key, useQuotes, tinyIntAsBoolean, null, null, false );
+        }
+
+        private PlannedColumn( Column column,
+                               int[] ordinals,
+                               boolean key,
+                               boolean useQuotes,
+                               boolean tinyIntAsBoolean,
+                               CompositeKeyEncoder keyEncoder,
+                               String idSpace,
+                               boolean nodeKey )
+        {
+            this.column = column;
+            this.ordinals = ordinals;
+            this.key = key;
+            this.useQuotes = useQuotes;
+            this.tinyIntAsBoolean = tinyIntAsBoolean;
+            this.keyEncoder = keyEncoder;
+            this.idSpace = idSpace;
+            this.nodeKey = nodeKey;
+        }
+
+        // Hashed IDs are plain integers, and so are never quoted
+        PlannedColumn encodedBy( CompositeKeyEncoder keyEncoder, String idSpace, boolean nodeKey )
+        {
+            return new PlannedColumn( column, ordinals, key, false, tinyIntAsBoolean, keyEncoder, idSpace, nodeKey );
+        }
+
+        String read( QueryResults results, int rowIndex )
+        {
+            String value;
+
+            if ( ordinals == null )
+            {
+                value = column.selectFrom( results, rowIndex );
+            }
+            else if ( ordinals.length == 0 )
+            {
+                value = Integer.toString( rowIndex );
+            }
+            else if ( ordinals.length == 1 )
+            {
+                value = results.getString( ordinals[0] );
+            }
+            else
+            {
+                value = readComposite( results );
+            }
+
+            if ( tinyIntAsBoolean && value != null && !value.isEmpty() )
+            {
+                return Integer.parseInt( value ) == 0 ? "false" : "true";
+            }
+
+            if ( keyEncoder != null )
+            {
+                return keyEncoder.encode( idSpace, value, nodeKey );
+            }
+
+            return value;
+        }
+
+        // Mirrors CompositeColumn.selectFrom: empty if any part of the key is missing
+        private String readComposite( QueryResults results )
+        {
+            StringBuilder builder = new StringBuilder();
+
+            for ( int i = 0; i < ordinals.length; i++ )
+            {
+                String part = results.getString( ordinals[i] );
+
+                if ( part == null || part.isEmpty() )
+                {
+                    return "";
+                }
+
+                if ( i > 0 )
+                {
+                    builder.append( CompositeColumn.SEPARATOR );
+                }
+
+                builder.append( part );
+            }
+
+            return builder.toString();
+        }
+    }
+}
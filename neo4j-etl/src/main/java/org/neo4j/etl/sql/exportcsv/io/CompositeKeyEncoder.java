@@ -0,0 +1,74 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+// Replaces composite key values with a 63-bit hash of the key, written as a decimal integer. The same key always
+// has the same ID, so node and relationship writers need no coordination, and IDs are stable from one run to the
+// next. Node keys are recorded per ID space along with a second, independent hash, so that two different keys with
+// the same ID fail the export rather than silently merging nodes.
+class CompositeKeyEncoder
+{
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long FINGERPRINT_OFFSET_BASIS = 0x84222325cbf29ce4L;
+    private static final long FINGERPRINT_PRIME = 0x9e3779b97f4a7c15L;
+
+    private final Map<String, KeyFingerprintTable> nodeKeys = new ConcurrentHashMap<>();
+
+    // Keys with a missing part are written empty, as they are without encoding
+    String encode( String idSpace, String key, boolean nodeKey )
+    {
+        if ( key == null || key.isEmpty() )
+        {
+            return key;
+        }
+
+        long id = id( key );
+
+        if ( nodeKey && !nodeKeys.computeIfAbsent( idSpace, space -> new KeyFingerprintTable() )
+                .putIfConsistent( id, fingerprint( key ) ) )
+        {
+            throw new IllegalStateException( format( "Composite keys in ID space '%s' have the same hashed ID %s. " +
+                    "Export without --hash-composite-keys.", idSpace, id ) );
+        }
+
+        return Long.toString( id );
+    }
+
+    static long id( String key )
+    {
+        return mix( hash( key, FNV_OFFSET_BASIS, FNV_PRIME ) ) & Long.MAX_VALUE;
+    }
+
+    static long fingerprint( String key )
+    {
+        return mix( hash( key, FINGERPRINT_OFFSET_BASIS, FINGERPRINT_PRIME ) );
+    }
+
+    private static long hash( String key, long offsetBasis, long prime )
+    {
+        long hash = offsetBasis;
+
+        for ( int i = 0; i < key.length(); i++ )
+        {
+            hash = (hash ^ key.charAt( i )) * prime;
+        }
+
+        return hash;
+    }
+
+    // MurmurHash3's finalizer, so that every bit of the ID depends on every character of the key
+    private static long mix( long hash )
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
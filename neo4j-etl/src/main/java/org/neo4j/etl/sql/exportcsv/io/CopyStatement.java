@@ -0,0 +1,146 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+import org.neo4j.etl.sql.metadata.SqlDataType;
+
+import static java.lang.String.format;
+
+// Wraps a mapping's SELECT in a PostgreSQL COPY ... TO STDOUT statement that has the server write the same CSV as
+// ResultsToFileWriter: empty values are written as empty fields, quoted values have quotes and backslashes
+// doubled, and relationship rows missing a key are skipped. Keys made up of several columns are left to the client, as
+// their parts are joined with a separator that PostgreSQL can't hold in text.
+class CopyStatement
+{
+    static Optional<String> create( MetadataMapping resource,
+                                    String sql,
+                                    Formatting formatting,
+                                    TinyIntResolver tinyIntResolver )
+    {
+        String delimiter = formatting.delimiter().value();
+        String quote = formatting.quote().value();
+
+        // COPY writes Unix line endings, and only supports single byte delimiter and quote characters
+        if ( !"\n".equals( System.lineSeparator() ) || !isSingleByte( delimiter ) || !isSingleByte( quote ) )
+        {
+            return Optional.empty();
+        }
+
+        String sqlQuote = formatting.sqlQuotes().forColumn().value();
+        boolean skipRowsWithoutKeys =
+                RowStrategy.select( resource.graphObjectType() ) == RowStrategy.IgnoreRowWithNullKey;
+
+        List<String> selectColumns = new ArrayList<>();
+        List<String> quotedColumns = new ArrayList<>();
+        List<String> keyPredicates = new ArrayList<>();
+
+        for ( Column column : resource.mappings().columns() )
+        {
+            Column selected = unwrap( column );
+
+            if ( !canBeCopied( selected, tinyIntResolver ) )
+            {
+                return Optional.empty();
+            }
+
+            // Constants aren't selected by the mapping's query, so are added to the COPY's own select list
+            String value = isClientSideLiteral( selected )
+                    ? format( "NULLIF((%s)::text, '')", selected.name() )
+                    : format( "NULLIF(export.%s%s%s::text, '')", sqlQuote, selected.alias(), sqlQuote );
+            String columnAlias = "c" + ( selectColumns.size() + 1 );
+
+            if ( column.useQuotes() )
+            {
+                selectColumns.add( format( "replace(%s, E'\\\\', E'\\\\\\\\') AS %s", value, columnAlias ) );
+                quotedColumns.add( columnAlias );
+            }
+            else
+            {
+                selectColumns.add( format( "%s AS %s", value, columnAlias ) );
+            }
+
+            if ( skipRowsWithoutKeys && isKey( column ) )
+            {
+                keyPredicates.add( format( "%s IS NOT NULL", value ) );
+            }
+        }
+
+        StringBuilder copy = new StringBuilder( "COPY (SELECT " )
+                .append( StringUtils.join( selectColumns, ", " ) )
+                .append( " FROM (" ).append( sql ).append( ") AS export" );
+
+        if ( !keyPredicates.isEmpty() )
+        {
+            copy.append( " WHERE " ).append( StringUtils.join( keyPredicates, " AND " ) );
+        }
+
+        copy.append( ") TO STDOUT WITH (FORMAT csv" )
+                .append( ", DELIMITER " ).append( literal( delimiter ) )
+                .append( ", QUOTE " ).append( literal( quote ) );
+
+        if ( !quotedColumns.isEmpty() )
+        {
+            copy.append( ", FORCE_QUOTE (" ).append( StringUtils.join( quotedColumns, ", " ) ).append( ")" );
+        }
+
+        return Optional.of( copy.append( ")" ).toString() );
+    }
+
+    // Generated mappings wrap every primary and foreign key in a composite column, even if it has only one column
+    private static Column unwrap( Column column )
+    {
+        if ( column instanceof CompositeColumn && ((CompositeColumn) column).columns().size() == 1 )
+        {
+            return ((CompositeColumn) column).columns().iterator().next();
+        }
+
+        return column;
+    }
+
+    private static boolean canBeCopied( Column column, TinyIntResolver tinyIntResolver )
+    {
+        if ( isClientSideLiteral( column ) )
+        {
+            return true;
+        }
+
+        if ( !(column instanceof SimpleColumn) || !column.allowAddToSelectStatement() )
+        {
+            return false;
+        }
+
+        return column.sqlDataType() != SqlDataType.TINYINT ||
+                tinyIntResolver.targetDataType( column.sqlDataType() ) != Neo4jDataType.Boolean;
+    }
+
+    private static boolean isClientSideLiteral( Column column )
+    {
+        return column instanceof SimpleColumn && ((SimpleColumn) column).isClientSideLiteral();
+    }
+
+    private static boolean isKey( Column column )
+    {
+        return column.role() == ColumnRole.PrimaryKey || column.role() == ColumnRole.ForeignKey;
+    }
+
+    private static boolean isSingleByte( String value )
+    {
+        return value != null && value.length() == 1 && value.charAt( 0 ) < 0x80 && value.charAt( 0 ) != 0;
+    }
+
+    private static String literal( String value )
+    {
+        return format( "E'\\x%02X'", (int) value.charAt( 0 ) );
+    }
+}
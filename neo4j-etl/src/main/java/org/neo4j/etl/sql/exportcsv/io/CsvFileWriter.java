@@ -1,15 +1,33 @@
 package org.neo4j.etl.sql.exportcsv.io;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
+import org.neo4j.etl.io.ParallelGzipOutputStream;
 import org.neo4j.etl.sql.DatabaseClient;
 import org.neo4j.etl.sql.QueryResults;
 import org.neo4j.etl.sql.exportcsv.ExportToCsvConfig;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.TableScan;
 import org.neo4j.etl.util.Loggers;
+import org.neo4j.etl.util.Supplier;
 
 import static java.lang.String.format;
 
@@ -18,40 +36,242 @@ public class CsvFileWriter
     private final ExportToCsvConfig config;
     private final DatabaseClient databaseClient;
     private final ResultsToFileWriter resultsToFileWriter;
+    private final ExecutorService compressionExecutor;
+    private final int compressionThreads;
+    private final TinyIntResolver tinyIntResolver;
+    private final NodeIdFilter nodeIdFilter;
 
     public CsvFileWriter( ExportToCsvConfig config, DatabaseClient databaseClient, TinyIntResolver tinyIntResolver )
+    {
+        this( config, databaseClient, tinyIntResolver, null, 0 );
+    }
+
+    // When an executor is supplied, export files are gzipped, with blocks of each file compressed concurrently on
+    // the executor's threads
+    public CsvFileWriter( ExportToCsvConfig config,
+                          DatabaseClient databaseClient,
+                          TinyIntResolver tinyIntResolver,
+                          ExecutorService compressionExecutor,
+                          int compressionThreads )
+    {
+        this( config, databaseClient, tinyIntResolver, compressionExecutor, compressionThreads,
+                config.orphanRelationships() );
+    }
+
+    // Unless orphan relationships are ignored, every node mapping must be written before any relationship mapping
+    public CsvFileWriter( ExportToCsvConfig config,
+                          DatabaseClient databaseClient,
+                          TinyIntResolver tinyIntResolver,
+                          ExecutorService compressionExecutor,
+                          int compressionThreads,
+                          OrphanRelationships orphanRelationships )
     {
         this.config = config;
         this.databaseClient = databaseClient;
-        this.resultsToFileWriter = new ResultsToFileWriter( config.formatting(), tinyIntResolver );
+        this.compressionExecutor = compressionExecutor;
+        this.compressionThreads = compressionThreads;
+        this.tinyIntResolver = tinyIntResolver;
+        this.nodeIdFilter = orphanRelationships == OrphanRelationships.IGNORE
+                ? null
+                : new NodeIdFilter( orphanRelationships );
+        this.resultsToFileWriter = new ResultsToFileWriter( config.formatting(), tinyIntResolver,
+                config.exportBufferSize(), config.directExportBuffers(), config.rowBufferSize(),
+                config.hashCompositeKeys() ? new CompositeKeyEncoder() : null, nodeIdFilter );
     }
 
-    public Path writeExportFile( MetadataMapping resource ) throws Exception
+    // The number of relationships found so far whose start or end node wasn't exported, by relationship mapping
+    public SortedMap<String, Long> orphanRelationships()
+    {
+        return nodeIdFilter == null ? new TreeMap<>() : nodeIdFilter.orphans();
+    }
+
+    public ExportedFile writeExportFile( MetadataMapping resource ) throws Exception
+    {
+        return writeExportFile( resource, resource.sql(), resource.name() );
+    }
+
+    // Data is written to a temporary file, which is renamed once complete, so that a file with the export's name
+    // is only ever a complete export
+    public ExportedFile writeExportFile( MetadataMapping resource, String sql, String filenamePrefix ) throws Exception
     {
         Loggers.Default.log( Level.INFO,
-                format( "Writing CSV data for %s %s", resource.graphObjectType().name().toLowerCase(), resource.name
-                        () ) );
+                format( "Writing CSV data for %s %s%s", resource.graphObjectType().name().toLowerCase(),
+                        filenamePrefix, estimatedRows( resource ) ) );
+
+        PendingExportFile exportFile = createExportFile( filenamePrefix );
 
-        Path exportFile = createExportFile( resource.name() );
+        long rows = export( resource, sql, exportFile::open );
+
+        return exportFile.complete( rows );
+    }
+
+    // Writes the CSV data for all of a scan's mappings from a single query, one file per mapping. Each file is named
+    // after its mapping, with the suffix (if any) appended.
+    public List<ExportedFile> writeExportFiles( TableScan scan, String sql, String filenameSuffix ) throws Exception
+    {
+        List<MetadataMapping> resources = scan.resources();
+
+        Loggers.Default.log( Level.INFO,
+                format( "Writing CSV data for %s mappings of %s from a single scan",
+                        resources.size(), scan.combined().mappings().tableNames().iterator().next() ) );
 
-        try ( QueryResults results = executeSql( resource.sql() ) )
+        List<PendingExportFile> exportFiles = new ArrayList<>();
+
+        for ( MetadataMapping resource : resources )
         {
-            resultsToFileWriter.write( results, exportFile, resource );
+            exportFiles.add( createExportFile( resource.name() + filenameSuffix ) );
         }
 
-        return exportFile;
+        long[] rows;
+
+        try ( QueryResults results = executeSql( scan.combined(), sql ) )
+        {
+            List<WritableByteChannel> channels = new ArrayList<>();
+
+            try
+            {
+                for ( PendingExportFile exportFile : exportFiles )
+                {
+                    channels.add( exportFile.open() );
+                }
+            }
+            catch ( IOException e )
+            {
+                for ( WritableByteChannel channel : channels )
+                {
+                    channel.close();
+                }
+
+                throw e;
+            }
+
+            rows = resultsToFileWriter.write( results, channels, resources );
+        }
+
+        List<ExportedFile> exportedFiles = new ArrayList<>();
+
+        for ( int i = 0; i < exportFiles.size(); i++ )
+        {
+            exportedFiles.add( exportFiles.get( i ).complete( rows[i] ) );
+        }
+
+        return exportedFiles;
     }
 
-    private Path createExportFile( String filenamePrefix ) throws IOException
+    // Streams the results into an existing file, typically a named pipe read by the import tool. The file is opened
+    // before the query is run, so that an export waiting for its reader doesn't hold on to a database connection
+    public Path streamExportFile( MetadataMapping resource, Path exportFile ) throws Exception
     {
-        Path exportFile = config.destination().resolve( format( "%s.csv", filenamePrefix ) );
-        Files.createFile( exportFile );
+        Loggers.Default.log( Level.INFO,
+                format( "Streaming CSV data for %s %s", resource.graphObjectType().name().toLowerCase(),
+                        resource.name() ) );
+
+        FileChannel channel = FileChannel.open( exportFile, StandardOpenOption.WRITE );
+
+        try
+        {
+            export( resource, resource.sql(), () -> channel );
+        }
+        finally
+        {
+            channel.close();
+        }
 
         return exportFile;
     }
 
-    private QueryResults executeSql( String sql ) throws Exception
+    // Where the database can write the CSV itself (PostgreSQL's COPY), its output is streamed straight to the file;
+    // otherwise the rows are fetched and written by ResultsToFileWriter. IDs are only seen by ResultsToFileWriter, so
+    // the database doesn't write the CSV itself when orphan relationships are checked.
+    private long export( MetadataMapping resource,
+                         String sql,
+                         Supplier<WritableByteChannel> exportFile ) throws Exception
     {
+        Optional<String> copyStatement = config.nativeExport() && nodeIdFilter == null &&
+                databaseClient.supportsCopyOut()
+                ? CopyStatement.create( resource, sql, config.formatting(), tinyIntResolver )
+                : Optional.empty();
+
+        if ( copyStatement.isPresent() )
+        {
+            try ( OutputStream output = new BufferedOutputStream(
+                    Channels.newOutputStream( exportFile.supply() ), config.exportBufferSize() ) )
+            {
+                long rows = databaseClient.copyOut( copyStatement.get(), output );
+                Loggers.Default.log( Level.FINE, format( "Copied %s rows for %s", rows, resource.name() ) );
+
+                return rows;
+            }
+        }
+
+        try ( QueryResults results = executeSql( resource, sql ) )
+        {
+            return resultsToFileWriter.write( results, exportFile.supply(), resource );
+        }
+    }
+
+    private static String estimatedRows( MetadataMapping resource )
+    {
+        return resource.sizeEstimate().isPresent()
+                ? format( " (~%s rows in table)", resource.sizeEstimate().get().rows() )
+                : "";
+    }
+
+    private PendingExportFile createExportFile( String filenamePrefix ) throws IOException
+    {
+        String extension = compressionExecutor == null ? "csv" : "csv.gz";
+        Path exportFile = config.destination().resolve( format( "%s.%s", filenamePrefix, extension ) );
+        Path tempFile = exportFile.resolveSibling( exportFile.getFileName() + ".tmp" );
+
+        // Left behind by an export that didn't complete
+        Files.deleteIfExists( tempFile );
+        Files.createFile( tempFile );
+
+        return new PendingExportFile( exportFile, tempFile );
+    }
+
+    private QueryResults executeSql( MetadataMapping resource, String sql ) throws Exception
+    {
+        if ( resource.fetchSize().isPresent() )
+        {
+            return databaseClient.executeQuery( sql, resource.fetchSize().get() ).await();
+        }
+
         return databaseClient.executeQuery( sql ).await();
     }
+
+    private class PendingExportFile
+    {
+        private final Path exportFile;
+        private final Path tempFile;
+        private final CRC32 checksum = new CRC32();
+
+        PendingExportFile( Path exportFile, Path tempFile )
+        {
+            this.exportFile = exportFile;
+            this.tempFile = tempFile;
+        }
+
+        // The checksum is of the bytes written to disk, so compressed files are checksummed after compression
+        WritableByteChannel open() throws IOException
+        {
+            if ( compressionExecutor == null )
+            {
+                return new ChecksumChannel(
+                        FileChannel.open( tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ),
+                        checksum );
+            }
+
+            return Channels.newChannel( new ParallelGzipOutputStream(
+                    new CheckedOutputStream( Files.newOutputStream( tempFile ), checksum ),
+                    compressionExecutor, compressionThreads ) );
+        }
+
+        ExportedFile complete( long rows ) throws IOException
+        {
+            Files.move( tempFile, exportFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+
+            return new ExportedFile( exportFile, rows, Files.size( exportFile ), checksum.getValue() );
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// Encodes characters as UTF-8 straight into a byte buffer, which is written to the channel only when full (or on
+// flush), so that the export produces a few large sequential writes rather than many small ones
+class CsvOutputSink extends Writer
+{
+    private static final byte REPLACEMENT = '?';
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private char pendingHighSurrogate;
+    private boolean closed;
+
+    CsvOutputSink( WritableByteChannel channel, ByteBuffer buffer )
+    {
+        if ( buffer.capacity() < 4 )
+        {
+            throw new IllegalArgumentException( "Buffer must be able to hold at least one encoded character" );
+        }
+
+        this.channel = channel;
+        this.buffer = buffer;
+        this.buffer.clear();
+    }
+
+    @Override
+    public void write( int c ) throws IOException
+    {
+        if ( c < 0x80 && pendingHighSurrogate == 0 )
+        {
+            if ( !buffer.hasRemaining() )
+            {
+                flushBuffer();
+            }
+            buffer.put( (byte) c );
+        }
+        else
+        {
+            encode( (char) c );
+        }
+    }
+
+    @Override
+    public void write( String value, int offset, int length ) throws IOException
+    {
+        int end = offset + length;
+        int i = offset;
+
+        while ( i < end )
+        {
+            i = writeAscii( value, i, end );
+
+            if ( i < end )
+            {
+                encode( value.charAt( i++ ) );
+            }
+        }
+    }
+
+    @Override
+    public void write( String value ) throws IOException
+    {
+        write( value, 0, value.length() );
+    }
+
+    @Override
+    public void write( char[] chars, int offset, int length ) throws IOException
+    {
+        int end = offset + length;
+
+        for ( int i = offset; i < end; i++ )
+        {
+            write( chars[i] );
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( closed )
+        {
+            return;
+        }
+
+        closed = true;
+
+        try
+        {
+            if ( pendingHighSurrogate != 0 )
+            {
+                pendingHighSurrogate = 0;
+                encode( (char) REPLACEMENT );
+            }
+
+            flushBuffer();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    // Copies characters one byte each for as long as they are ASCII, returning the index of the first
+    // character that needs encoding
+    private int writeAscii( String value, int start, int end ) throws IOException
+    {
+        if ( pendingHighSurrogate != 0 )
+        {
+            return start;
+        }
+
+        int i = start;
+
+        while ( i < end )
+        {
+            if ( !buffer.hasRemaining() )
+            {
+                flushBuffer();
+            }
+
+            int limit = Math.min( end, i + buffer.remaining() );
+
+            while ( i < limit )
+            {
+                char c = value.charAt( i );
+
+                if ( c >= 0x80 )
+                {
+                    return i;
+                }
+
+                buffer.put( (byte) c );
+                i++;
+            }
+        }
+
+        return i;
+    }
+
+    private void encode( char c ) throws IOException
+    {
+        if ( buffer.remaining() < 4 )
+        {
+            flushBuffer();
+        }
+
+        if ( pendingHighSurrogate != 0 )
+        {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+
+            if ( Character.isLowSurrogate( c ) )
+            {
+                int codePoint = Character.toCodePoint( high, c );
+                buffer.put( (byte) (0xF0 | (codePoint >> 18)) );
+                buffer.put( (byte) (0x80 | ((codePoint >> 12) & 0x3F)) );
+                buffer.put( (byte) (0x80 | ((codePoint >> 6) & 0x3F)) );
+                buffer.put( (byte) (0x80 | (codePoint & 0x3F)) );
+                return;
+            }
+
+            // Unpaired surrogates can't be represented in UTF-8
+            buffer.put( REPLACEMENT );
+            encode( c );
+            return;
+        }
+
+        if ( c < 0x80 )
+        {
+            buffer.put( (byte) c );
+        }
+        else if ( c < 0x800 )
+        {
+            buffer.put( (byte) (0xC0 | (c >> 6)) );
+            buffer.put( (byte) (0x80 | (c & 0x3F)) );
+        }
+        else if ( Character.isHighSurrogate( c ) )
+        {
+            pendingHighSurrogate = c;
+        }
+        else if ( Character.isLowSurrogate( c ) )
+        {
+            buffer.put( REPLACEMENT );
+        }
+        else
+        {
+            buffer.put( (byte) (0xE0 | (c >> 12)) );
+            buffer.put( (byte) (0x80 | ((c >> 6) & 0x3F)) );
+            buffer.put( (byte) (0x80 | (c & 0x3F)) );
+        }
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        buffer.flip();
+
+        while ( buffer.hasRemaining() )
+        {
+            channel.write( buffer );
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.nio.file.Path;
+
+// A completed export file, along with the number of rows written to it and the size and CRC32 of its contents
+// as written to disk (i.e. after any compression)
+public class ExportedFile
+{
+    private final Path path;
+    private final long rows;
+    private final long bytes;
+    private final long checksum;
+
+    public ExportedFile( Path path, long rows, long bytes, long checksum )
+    {
+        this.path = path;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.checksum = checksum;
+    }
+
+    public Path path()
+    {
+        return path;
+    }
+
+    public long rows()
+    {
+        return rows;
+    }
+
+    public long bytes()
+    {
+        return bytes;
+    }
+
+    public long checksum()
+    {
+        return checksum;
+    }
+}
@@ -0,0 +1,138 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import static java.lang.String.format;
+
+// An open addressing hash table of 63-bit keys and 64-bit fingerprints, held in primitive arrays that the garbage
+// collector never has to scan. They are on the heap rather than in direct buffers, which are capped by
+// -XX:MaxDirectMemorySize and only freed once their owners are collected, so the table is bounded by -Xmx alone. The
+// table is split into segments by the top bits of the key, each growing and locking independently, so that
+// concurrent writers rarely contend and no single array exceeds 1GB.
+class KeyFingerprintTable
+{
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_SEGMENT_CAPACITY = 1 << 10;
+    // Two longs per slot, in an array of at most 1GB
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 26;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    KeyFingerprintTable()
+    {
+        for ( int i = 0; i < segments.length; i++ )
+        {
+            segments[i] = new Segment();
+        }
+    }
+
+    // Returns false if the key is already present with a different fingerprint
+    boolean putIfConsistent( long key, long fingerprint )
+    {
+        return segment( key ).putIfConsistent( key, fingerprint );
+    }
+
+    boolean contains( long key, long fingerprint )
+    {
+        return segment( key ).contains( key, fingerprint );
+    }
+
+    private Segment segment( long key )
+    {
+        return segments[(int) (key >>> (63 - SEGMENT_BITS))];
+    }
+
+    private static class Segment
+    {
+        private long[] slots = new long[INITIAL_SEGMENT_CAPACITY * 2];
+        private int capacity = INITIAL_SEGMENT_CAPACITY;
+        private int size;
+
+        synchronized boolean putIfConsistent( long key, long fingerprint )
+        {
+            // Keys are non-negative, so setting the top bit means a stored key is never the empty slot's zero
+            long storedKey = key | Long.MIN_VALUE;
+            int slot = find( slots, capacity, storedKey );
+
+            if ( slots[slot * 2] != 0 )
+            {
+                return slots[slot * 2 + 1] == fingerprint;
+            }
+
+            if ( size + 1 > capacity / 4 * 3 )
+            {
+                grow();
+                slot = find( slots, capacity, storedKey );
+            }
+
+            slots[slot * 2] = storedKey;
+            slots[slot * 2 + 1] = fingerprint;
+            size++;
+
+            return true;
+        }
+
+        synchronized boolean contains( long key, long fingerprint )
+        {
+            int slot = find( slots, capacity, key | Long.MIN_VALUE );
+
+            return slots[slot * 2] != 0 && slots[slot * 2 + 1] == fingerprint;
+        }
+
+        private void grow()
+        {
+            if ( capacity == MAX_SEGMENT_CAPACITY )
+            {
+                throw new IllegalStateException(
+                        format( "Too many keys to hold in memory (more than %s per segment)",
+                                MAX_SEGMENT_CAPACITY / 4 * 3 ) );
+            }
+
+            int newCapacity = capacity * 2;
+            long[] newSlots;
+
+            try
+            {
+                newSlots = new long[newCapacity * 2];
+            }
+            catch ( OutOfMemoryError e )
+            {
+                throw new IllegalStateException(
+                        format( "Not enough heap to hold more than %s keys per segment: raise the maximum heap " +
+                                "size, e.g. with JAVA_OPTS=-Xmx8g", size ), e );
+            }
+
+            for ( int i = 0; i < capacity; i++ )
+            {
+                long storedKey = slots[i * 2];
+
+                if ( storedKey != 0 )
+                {
+                    int slot = find( newSlots, newCapacity, storedKey );
+                    newSlots[slot * 2] = storedKey;
+                    newSlots[slot * 2 + 1] = slots[i * 2 + 1];
+                }
+            }
+
+            slots = newSlots;
+            capacity = newCapacity;
+        }
+
+        // The slot holding the key, or the empty slot at which it would be inserted
+        private static int find( long[] slots, int capacity, long storedKey )
+        {
+            int mask = capacity - 1;
+            int slot = (int) storedKey & mask;
+
+            while ( true )
+            {
+                long existing = slots[slot * 2];
+
+                if ( existing == 0 || existing == storedKey )
+                {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+
+// The IDs of every node written so far, per ID space, against which relationships' start and end IDs are checked,
+// so that relationships whose nodes weren't exported are found before the import tool rejects them. Each ID is held
+// as a hash and an independent fingerprint in a compact table, so that an orphan is only missed if both of its
+// hashes match those of an exported node. The rare node whose hash is already taken by another node is held as is.
+class NodeIdFilter
+{
+    private final OrphanRelationships orphanRelationships;
+    private final ToLongFunction<String> hash;
+    private final Map<String, KeyFingerprintTable> idSpaces = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> collisions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> orphans = new ConcurrentHashMap<>();
+
+    NodeIdFilter( OrphanRelationships orphanRelationships )
+    {
+        this( orphanRelationships, CompositeKeyEncoder::id );
+    }
+
+    NodeIdFilter( OrphanRelationships orphanRelationships, ToLongFunction<String> hash )
+    {
+        this.orphanRelationships = orphanRelationships;
+        this.hash = hash;
+    }
+
+    // Node mappings add their IDs; relationship mappings have theirs checked
+    Check check( MetadataMapping resource, ColumnPlan plan )
+    {
+        return new Check( resource.name(), resource.graphObjectType() == GraphObjectType.Node, plan );
+    }
+
+    // Orphans found so far, by relationship mapping
+    SortedMap<String, Long> orphans()
+    {
+        SortedMap<String, Long> counts = new TreeMap<>();
+        orphans.forEach( ( name, count ) -> counts.put( name, count.sum() ) );
+
+        return counts;
+    }
+
+    private void add( String idSpace, String id )
+    {
+        boolean added = idSpaces.computeIfAbsent( idSpace, space -> new KeyFingerprintTable() )
+                .putIfConsistent( hash.applyAsLong( id ), CompositeKeyEncoder.fingerprint( id ) );
+
+        if ( !added )
+        {
+            collisions.computeIfAbsent( idSpace, space -> ConcurrentHashMap.newKeySet() ).add( id );
+        }
+    }
+
+    private boolean contains( String idSpace, String id )
+    {
+        KeyFingerprintTable ids = idSpaces.get( idSpace );
+
+        if ( ids != null && ids.contains( hash.applyAsLong( id ), CompositeKeyEncoder.fingerprint( id ) ) )
+        {
+            return true;
+        }
+
+        Set<String> collidingIds = collisions.get( idSpace );
+
+        return collidingIds != null && collidingIds.contains( id );
+    }
+
+    // Applied to each row of a single write, with the orphans it finds added to the mapping's count once complete
+    class Check
+    {
+        private final String name;
+        private final boolean nodes;
+        private final ColumnPlan plan;
+        private long orphanCount;
+
+        private Check( String name, boolean nodes, ColumnPlan plan )
+        {
+            this.name = name;
+            this.nodes = nodes;
+            this.plan = plan;
+        }
+
+        // Returns false if the row is an orphan that should be dropped
+        boolean accept( String[] values )
+        {
+            for ( int i = 0; i < values.length; i++ )
+            {
+                String idSpace = plan.idSpace( i );
+
+                if ( idSpace == null || values[i] == null || values[i].isEmpty() )
+                {
+                    continue;
+                }
+
+                if ( nodes )
+                {
+                    add( idSpace, values[i] );
+                }
+                else if ( !contains( idSpace, values[i] ) )
+                {
+                    orphanCount++;
+                    return orphanRelationships != OrphanRelationships.DROP;
+                }
+            }
+
+            return true;
+        }
+
+        void complete()
+        {
+            if ( !nodes )
+            {
+                orphans.computeIfAbsent( name, n -> new LongAdder() ).add( orphanCount );
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+// What to do with relationships whose start or end node wasn't exported
+public enum OrphanRelationships
+{
+    IGNORE, LOG, DROP;
+
+    public static OrphanRelationships parse( String orphanRelationships )
+    {
+        if ( "log".equalsIgnoreCase( orphanRelationships ) )
+        {
+            return OrphanRelationships.LOG;
+        }
+        else if ( "drop".equalsIgnoreCase( orphanRelationships ) )
+        {
+            return OrphanRelationships.DROP;
+        }
+
+        return OrphanRelationships.IGNORE;
+    }
+}
@@ -1,86 +1,352 @@
 package org.neo4j.etl.sql.exportcsv.io;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.commons.lang3.StringUtils;
 
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
 import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.exportcsv.ExportToCsvConfig;
 import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
 import org.neo4j.etl.sql.metadata.Column;
 
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
 class ResultsToFileWriter
 {
+    private static final String NEW_LINE = System.lineSeparator();
+
     private final TinyIntResolver tinyIntResolver;
+    private final String delimiter;
+    private final int bufferSize;
+    private final boolean directBuffers;
+    private final int rowBufferSize;
+    private final CompositeKeyEncoder keyEncoder;
+    private final NodeIdFilter nodeIdFilter;
+    // Buffers are handed back once a file has been written, so concurrent exports reuse at most one each
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
     private Formatting formatting;
 
     ResultsToFileWriter( Formatting formatting, TinyIntResolver tinyIntResolver )
+    {
+        this( formatting, tinyIntResolver, ExportToCsvConfig.DEFAULT_EXPORT_BUFFER_SIZE, false,
+                ExportToCsvConfig.DEFAULT_ROW_BUFFER_SIZE );
+    }
+
+    ResultsToFileWriter( Formatting formatting,
+                         TinyIntResolver tinyIntResolver,
+                         int bufferSize,
+                         boolean directBuffers,
+                         int rowBufferSize )
+    {
+        this( formatting, tinyIntResolver, bufferSize, directBuffers, rowBufferSize, null, null );
+    }
+
+    // When a filter is supplied, node IDs are added to it as they are written, and relationships are checked against
+    // it, so node mappings must be written before relationship mappings
+    ResultsToFileWriter( Formatting formatting,
+                         TinyIntResolver tinyIntResolver,
+                         int bufferSize,
+                         boolean directBuffers,
+                         int rowBufferSize,
+                         CompositeKeyEncoder keyEncoder,
+                         NodeIdFilter nodeIdFilter )
     {
         this.formatting = formatting;
         this.tinyIntResolver = tinyIntResolver;
+        this.delimiter = formatting.delimiter().value();
+        this.bufferSize = bufferSize;
+        this.directBuffers = directBuffers;
+        this.rowBufferSize = rowBufferSize;
+        this.keyEncoder = keyEncoder;
+        this.nodeIdFilter = nodeIdFilter;
+    }
+
+    public long write( QueryResults results, Path file, MetadataMapping resource ) throws Exception
+    {
+        return write( results, FileChannel.open( file, CREATE, TRUNCATE_EXISTING, WRITE ), resource );
     }
 
-    public void write( QueryResults results, Path file, MetadataMapping resource ) throws Exception
+    // Takes ownership of the channel, which is closed once the results have been written. Returns the number of
+    // rows written.
+    public long write( QueryResults results, WritableByteChannel channel, MetadataMapping resource ) throws Exception
     {
         RowStrategy rowStrategy = RowStrategy.select( resource.graphObjectType() );
 
-        ColumnToCsvFieldMappings mappings = resource.mappings();
-        Column[] columns = mappings.columns().toArray( new Column[mappings.columns().size()] );
+        ByteBuffer buffer = acquireBuffer();
+
+        try ( CsvOutputSink writer = new CsvOutputSink( channel, buffer ) )
+        {
+            ColumnPlan plan = compile( resource, results );
+            NodeIdFilter.Check check = check( resource, plan );
+
+            long rowsWritten;
+
+            if ( rowBufferSize > 0 )
+            {
+                rowsWritten = writePipelined( results, plan, rowStrategy, check, writer, resource.name() );
+            }
+            else
+            {
+                String[] values = new String[plan.size()];
+                int rowIndex = 0;
+                rowsWritten = 0;
+
+                while ( results.next() )
+                {
+                    rowIndex += 1;
+
+                    plan.read( results, rowIndex, values );
+
+                    if ( isWriteableRow( values, plan, rowStrategy, check ) )
+                    {
+                        writeRow( values, plan, writer );
+                        rowsWritten++;
+                    }
+                }
+            }
+
+            complete( check );
 
-        int maxIndex = columns.length - 1;
-        int rowIndex = 0;
+            return rowsWritten;
+        }
+        finally
+        {
+            buffers.offer( buffer );
+        }
+    }
+
+    // Writes each row of a shared scan to every mapping's file, applying each mapping's own row strategy. Takes
+    // ownership of the channels, which are closed once the results have been written. Returns the number of rows
+    // written to each.
+    public long[] write( QueryResults results,
+                       List<WritableByteChannel> channels,
+                       List<MetadataMapping> resources ) throws Exception
+    {
+        int outputs = resources.size();
+        RowStrategy[] rowStrategies = new RowStrategy[outputs];
+        ColumnPlan[] plans = new ColumnPlan[outputs];
+        NodeIdFilter.Check[] checks = new NodeIdFilter.Check[outputs];
+        String[][] values = new String[outputs][];
+        long[] rowsWritten = new long[outputs];
+        List<CsvOutputSink> writers = new ArrayList<>();
+        List<ByteBuffer> acquiredBuffers = new ArrayList<>();
 
-        try ( BufferedWriter writer = Files.newBufferedWriter( file, Charset.forName( "UTF8" ) ) )
+        try
         {
+            for ( int i = 0; i < outputs; i++ )
+            {
+                ByteBuffer buffer = acquireBuffer();
+                acquiredBuffers.add( buffer );
+                writers.add( new CsvOutputSink( channels.get( i ), buffer ) );
+                rowStrategies[i] = RowStrategy.select( resources.get( i ).graphObjectType() );
+                plans[i] = compile( resources.get( i ), results );
+                checks[i] = check( resources.get( i ), plans[i] );
+                values[i] = new String[plans[i].size()];
+            }
+
+            int rowIndex = 0;
+
             while ( results.next() )
             {
                 rowIndex += 1;
 
-                if ( rowStrategy.isWriteableRow( results, rowIndex, columns ) )
+                for ( int i = 0; i < outputs; i++ )
                 {
-                    for ( int i = 0; i < maxIndex; i++ )
+                    plans[i].read( results, rowIndex, values[i] );
+
+                    if ( isWriteableRow( values[i], plans[i], rowStrategies[i], checks[i] ) )
                     {
-                        writeFieldValueAndDelimiter(
-                                tinyIntResolver.handleSpecialCaseForTinyInt( columns[i].selectFrom( results, rowIndex ),
-                                        columns[i].sqlDataType() ),
-                                writer,
-                                columns[i].useQuotes() );
+                        writeRow( values[i], plans[i], writers.get( i ) );
+                        rowsWritten[i]++;
                     }
+                }
+            }
+
+            for ( NodeIdFilter.Check check : checks )
+            {
+                complete( check );
+            }
 
-                    writeFieldValueAndNewLine(
-                            tinyIntResolver.handleSpecialCaseForTinyInt( columns[maxIndex].selectFrom( results,
-                                    rowIndex ),
-                                    columns[maxIndex].sqlDataType() ),
-                            writer,
-                            columns[maxIndex].useQuotes() );
+            return rowsWritten;
+        }
+        finally
+        {
+            try
+            {
+                closeAll( channels, writers );
+            }
+            finally
+            {
+                buffers.addAll( acquiredBuffers );
+            }
+        }
+    }
+
+    // Closes every writer (and so its channel), along with any channels a writer wasn't created for
+    private static void closeAll( List<WritableByteChannel> channels, List<CsvOutputSink> writers ) throws IOException
+    {
+        IOException failure = null;
+
+        for ( int i = 0; i < channels.size(); i++ )
+        {
+            try
+            {
+                if ( i < writers.size() )
+                {
+                    writers.get( i ).close();
+                }
+                else
+                {
+                    channels.get( i ).close();
                 }
             }
+            catch ( IOException e )
+            {
+                if ( failure == null )
+                {
+                    failure = e;
+                }
+            }
+        }
+
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    // Rows are fetched from the database on a separate thread, so that waiting on the database and encoding
+    // and writing rows happen concurrently
+    private long writePipelined( QueryResults results,
+                                 ColumnPlan plan,
+                                 RowStrategy rowStrategy,
+                                 NodeIdFilter.Check check,
+                                 Writer writer,
+                                 String name ) throws Exception
+    {
+        RowRingBuffer rowBuffer = new RowRingBuffer( rowBufferSize, plan.size() );
+        RowFetcher rowFetcher = new RowFetcher( results, plan, rowStrategy, check, rowBuffer );
+        long rowsWritten = 0;
+
+        Thread fetchThread = new Thread( rowFetcher, "row-fetcher-" + name );
+        fetchThread.setDaemon( true );
+        fetchThread.start();
+
+        try
+        {
+            String[] row;
+
+            while ( ( row = rowBuffer.next() ) != null )
+            {
+                writeRow( row, plan, writer );
+                rowBuffer.release( row );
+                rowsWritten++;
+            }
+        }
+        finally
+        {
+            // Stop the fetcher if we're bailing out early, and in any case don't return (and so let the results
+            // be closed) until it has stopped using them
+            fetchThread.interrupt();
+            fetchThread.join();
+        }
+
+        if ( rowFetcher.failure != null )
+        {
+            throw rowFetcher.failure;
+        }
+
+        return rowsWritten;
+    }
+
+    private ColumnPlan compile( MetadataMapping resource, QueryResults results ) throws Exception
+    {
+        ColumnToCsvFieldMappings mappings = resource.mappings();
+        Column[] columns = mappings.columns().toArray( new Column[mappings.columns().size()] );
+        CsvField[] fields = mappings.fields().toArray( new CsvField[mappings.fields().size()] );
+
+        return ColumnPlan.compile( columns, fields, results, tinyIntResolver, keyEncoder,
+                resource.graphObjectType() == GraphObjectType.Node );
+    }
+
+    private NodeIdFilter.Check check( MetadataMapping resource, ColumnPlan plan )
+    {
+        return nodeIdFilter == null ? null : nodeIdFilter.check( resource, plan );
+    }
+
+    private static void complete( NodeIdFilter.Check check )
+    {
+        if ( check != null )
+        {
+            check.complete();
         }
     }
 
+    private static boolean isWriteableRow( String[] values,
+                                           ColumnPlan plan,
+                                           RowStrategy rowStrategy,
+                                           NodeIdFilter.Check check )
+    {
+        return rowStrategy.isWriteableRow( values, plan ) && (check == null || check.accept( values ));
+    }
+
+    private void writeRow( String[] values, ColumnPlan plan, Writer writer ) throws IOException
+    {
+        int maxIndex = values.length - 1;
+
+        for ( int i = 0; i < maxIndex; i++ )
+        {
+            writeFieldValueAndDelimiter( values[i], writer, plan.useQuotes( i ) );
+        }
+
+        writeFieldValueAndNewLine( values[maxIndex], writer, plan.useQuotes( maxIndex ) );
+    }
+
+    private ByteBuffer acquireBuffer()
+    {
+        ByteBuffer buffer = buffers.poll();
+
+        if ( buffer != null )
+        {
+            return buffer;
+        }
+
+        return directBuffers ? ByteBuffer.allocateDirect( bufferSize ) : ByteBuffer.allocate( bufferSize );
+    }
+
     private void writeFieldValueAndDelimiter( String value,
-                                              BufferedWriter writer,
+                                              Writer writer,
                                               boolean useQuotes ) throws IOException
     {
         sanitiseAndWriteData( value, writer, useQuotes );
-        writer.write( this.formatting.delimiter().value() );
+        writer.write( delimiter );
     }
 
     private void writeFieldValueAndNewLine( String value,
-                                            BufferedWriter writer,
+                                            Writer writer,
                                             boolean useQuotes ) throws IOException
     {
         sanitiseAndWriteData( value, writer, useQuotes );
-        writer.newLine();
+        writer.write( NEW_LINE );
     }
 
     private void sanitiseAndWriteData( String value,
-                                       BufferedWriter writer,
+                                       Writer writer,
                                        boolean useQuotes ) throws IOException
     {
 
@@ -96,4 +362,65 @@ class ResultsToFileWriter
             }
         }
     }
+
+    private static class RowFetcher implements Runnable
+    {
+        private final QueryResults results;
+        private final ColumnPlan plan;
+        private final RowStrategy rowStrategy;
+        private final NodeIdFilter.Check check;
+        private final RowRingBuffer rowBuffer;
+        private volatile Exception failure;
+
+        RowFetcher( QueryResults results,
+                    ColumnPlan plan,
+                    RowStrategy rowStrategy,
+                    NodeIdFilter.Check check,
+                    RowRingBuffer rowBuffer )
+        {
+            this.results = results;
+            this.plan = plan;
+            this.rowStrategy = rowStrategy;
+            this.check = check;
+            this.rowBuffer = rowBuffer;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                int rowIndex = 0;
+
+                while ( results.next() )
+                {
+                    rowIndex += 1;
+
+                    String[] row = rowBuffer.claim();
+                    plan.read( results, rowIndex, row );
+
+                    if ( isWriteableRow( row, plan, rowStrategy, check ) )
+                    {
+                        rowBuffer.publish( row );
+                    }
+                    else
+                    {
+                        rowBuffer.release( row );
+                    }
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( Exception e )
+            {
+                failure = e;
+            }
+            finally
+            {
+                rowBuffer.finish();
+            }
+        }
+    }
 }
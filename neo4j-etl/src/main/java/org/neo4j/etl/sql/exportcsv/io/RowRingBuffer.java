@@ -0,0 +1,58 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// A fixed set of preallocated row slots handed back and forth between a single producer, which fills them, and a
+// single consumer, which drains them. The producer blocks once every slot is waiting to be consumed.
+class RowRingBuffer
+{
+    private static final String[] END_OF_ROWS = new String[0];
+
+    private final BlockingQueue<String[]> freeSlots;
+    private final BlockingQueue<String[]> filledSlots;
+
+    RowRingBuffer( int capacity, int rowWidth )
+    {
+        if ( capacity < 1 )
+        {
+            throw new IllegalArgumentException( "Row buffer capacity must be greater than zero" );
+        }
+
+        this.freeSlots = new ArrayBlockingQueue<>( capacity );
+        // One more than the number of slots, so that signalling the end of the rows never blocks
+        this.filledSlots = new ArrayBlockingQueue<>( capacity + 1 );
+
+        for ( int i = 0; i < capacity; i++ )
+        {
+            freeSlots.add( new String[rowWidth] );
+        }
+    }
+
+    String[] claim() throws InterruptedException
+    {
+        return freeSlots.take();
+    }
+
+    void publish( String[] row ) throws InterruptedException
+    {
+        filledSlots.put( row );
+    }
+
+    void finish()
+    {
+        filledSlots.add( END_OF_ROWS );
+    }
+
+    // Returns null once the producer has finished and all published rows have been consumed
+    String[] next() throws InterruptedException
+    {
+        String[] row = filledSlots.take();
+        return row == END_OF_ROWS ? null : row;
+    }
+
+    void release( String[] row )
+    {
+        freeSlots.add( row );
+    }
+}
@@ -3,16 +3,13 @@ package org.neo4j.etl.sql.exportcsv.io;
 import org.apache.commons.lang3.StringUtils;
 
 import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
-import org.neo4j.etl.sql.RowAccessor;
-import org.neo4j.etl.sql.metadata.Column;
-import org.neo4j.etl.sql.metadata.ColumnRole;
 
 enum RowStrategy
 {
     WriteRowWithNullKey
             {
                 @Override
-                public boolean isWriteableRow( RowAccessor row, int rowIndex, Column[] columns )
+                boolean isWriteableRow( String[] values, ColumnPlan plan )
                 {
                     return true;
                 }
@@ -20,21 +17,16 @@ enum RowStrategy
     IgnoreRowWithNullKey
             {
                 @Override
-                public boolean isWriteableRow( RowAccessor row, int rowIndex, Column[] columns )
+                boolean isWriteableRow( String[] values, ColumnPlan plan )
                 {
-                    boolean allowWriteLine = true;
-                    for ( Column column : columns )
+                    for ( int i = 0; i < values.length; i++ )
                     {
-                        if ( isKeyColumn( column.role() ) )
+                        if ( plan.isKey( i ) && StringUtils.isEmpty( values[i] ) )
                         {
-                            if ( StringUtils.isEmpty( column.selectFrom( row, rowIndex ) ) )
-                            {
-                                allowWriteLine = false;
-                                break;
-                            }
+                            return false;
                         }
                     }
-                    return allowWriteLine;
+                    return true;
                 }
             };
 
@@ -50,10 +42,5 @@ enum RowStrategy
         }
     }
 
-    private static boolean isKeyColumn( ColumnRole role )
-    {
-        return role == ColumnRole.ForeignKey || role == ColumnRole.PrimaryKey;
-    }
-
-    public abstract boolean isWriteableRow( RowAccessor row, int rowIndex, Column[] columns );
+    abstract boolean isWriteableRow( String[] values, ColumnPlan plan );
 }
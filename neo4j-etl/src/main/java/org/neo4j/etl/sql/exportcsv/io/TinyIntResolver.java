@@ -13,6 +13,11 @@ public class TinyIntResolver
         this.tinyIntAs = tinyIntAs;
     }
 
+    public TinyIntAs tinyIntAs()
+    {
+        return tinyIntAs;
+    }
+
     public String handleSpecialCaseForTinyInt( String value, SqlDataType sqlDataType )
     {
         if ( TinyIntAs.BOOLEAN.equals( tinyIntAs ) && sqlDataType.equals( SqlDataType.TINYINT ) )
@@ -45,6 +45,16 @@ public class ColumnToCsvFieldMappings
         this.formatting = Preconditions.requireNonNull( formatting, "Formatting" );
     }
 
+    Collection<ColumnToCsvFieldMapping> mappings()
+    {
+        return mappings;
+    }
+
+    Formatting formatting()
+    {
+        return formatting;
+    }
+
     public Collection<CsvField> fields()
     {
         return mappings.stream().map( ColumnToCsvFieldMapping::field ).collect( Collectors.toList() );
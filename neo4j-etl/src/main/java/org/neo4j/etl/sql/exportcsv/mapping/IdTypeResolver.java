@@ -0,0 +1,107 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.neo4j.importcsv.fields.IdType;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+import org.neo4j.etl.sql.metadata.SqlDataType;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// The import tool keeps a string ID mapper entry for every node unless IDs are integers, which takes a fraction of
+// the memory. The ID type applies to the whole import, so integer IDs are only used if every ID space is fed solely
+// by single integer key columns.
+public class IdTypeResolver
+{
+    private final TinyIntResolver tinyIntResolver;
+    private final boolean hashCompositeKeys;
+
+    public IdTypeResolver( TinyIntResolver tinyIntResolver )
+    {
+        this( tinyIntResolver, false );
+    }
+
+    // Hashed composite keys are written as integers
+    public IdTypeResolver( TinyIntResolver tinyIntResolver, boolean hashCompositeKeys )
+    {
+        this.tinyIntResolver = tinyIntResolver;
+        this.hashCompositeKeys = hashCompositeKeys;
+    }
+
+    public IdType resolve( Iterable<MetadataMapping> metadataMappings )
+    {
+        Set<String> nonIntegerIdSpaces = new TreeSet<>();
+        boolean hasIds = false;
+
+        for ( MetadataMapping metadataMapping : metadataMappings )
+        {
+            for ( ColumnToCsvFieldMapping mapping : metadataMapping.mappings().mappings() )
+            {
+                if ( !mapping.field().isId() )
+                {
+                    continue;
+                }
+
+                hasIds = true;
+
+                if ( !isIntegerKey( mapping.column() ) )
+                {
+                    nonIntegerIdSpaces.add( mapping.field().idSpace().map( Object::toString ).orElse( "(global)" ) );
+                }
+            }
+        }
+
+        if ( !hasIds )
+        {
+            return IdType.String;
+        }
+
+        if ( !nonIntegerIdSpaces.isEmpty() )
+        {
+            Loggers.Default.log( Level.INFO, format( "Using string IDs, as ID space(s) %s have non-integer keys",
+                    StringUtils.join( nonIntegerIdSpaces, ", " ) ) );
+            return IdType.String;
+        }
+
+        Loggers.Default.log( Level.INFO, "Using integer IDs, as every ID space has single integer keys" );
+
+        return IdType.Integer;
+    }
+
+    // Unsigned BIGINTs may not fit in the import tool's long IDs
+    private boolean isIntegerKey( Column column )
+    {
+        Column key = column;
+
+        if ( column instanceof CompositeColumn && ((CompositeColumn) column).columns().size() == 1 )
+        {
+            key = ((CompositeColumn) column).columns().iterator().next();
+        }
+        else if ( column instanceof CompositeColumn )
+        {
+            return hashCompositeKeys && column.allowAddToSelectStatement();
+        }
+
+        if ( !(key instanceof SimpleColumn) || !key.allowAddToSelectStatement() ||
+                key.sqlDataType() == SqlDataType.BIGINT_UNSIGNED )
+        {
+            return false;
+        }
+
+        Neo4jDataType targetDataType = tinyIntResolver.targetDataType( key.sqlDataType() );
+
+        return targetDataType == Neo4jDataType.Byte ||
+                targetDataType == Neo4jDataType.Short ||
+                targetDataType == Neo4jDataType.Int ||
+                targetDataType == Neo4jDataType.Long;
+    }
+}
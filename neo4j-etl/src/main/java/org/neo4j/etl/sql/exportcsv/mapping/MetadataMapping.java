@@ -1,5 +1,7 @@
 package org.neo4j.etl.sql.exportcsv.mapping;
 
+import java.util.Optional;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -11,27 +13,70 @@ public class MetadataMapping
 {
     public static MetadataMapping fromJson( JsonNode root, Formatting formatting )
     {
+        JsonNode fetchSize = root.path( "fetch-size" );
+        JsonNode sizeEstimate = root.path( "size-estimate" );
+        JsonNode watermarkColumn = root.path( "watermark-column" );
+
         return new MetadataMapping(
                 root.path( "name" ).textValue(),
                 GraphObjectType.valueOf( root.path( "graph-object-type" ).textValue() ),
                 root.path( "sql" ).textValue(),
-                ColumnToCsvFieldMappings.fromJson( root.path( "mappings" ), formatting ) );
+                ColumnToCsvFieldMappings.fromJson( root.path( "mappings" ), formatting ),
+                fetchSize.isInt() ? Optional.of( fetchSize.intValue() ) : Optional.empty(),
+                sizeEstimate.isObject() ? Optional.of( SizeEstimate.fromJson( sizeEstimate ) ) : Optional.empty(),
+                watermarkColumn.isTextual() ? Optional.of( watermarkColumn.textValue() ) : Optional.empty() );
     }
 
     private final String name;
     private final GraphObjectType graphObjectType;
     private final String sql;
     private final ColumnToCsvFieldMappings mappings;
+    private final Optional<Integer> fetchSize;
+    private final Optional<SizeEstimate> sizeEstimate;
+    private final Optional<String> watermarkColumn;
 
     public MetadataMapping( String name,
                             GraphObjectType graphObjectType,
                             String sql,
                             ColumnToCsvFieldMappings mappings )
+    {
+        this( name, graphObjectType, sql, mappings, Optional.empty() );
+    }
+
+    public MetadataMapping( String name,
+                            GraphObjectType graphObjectType,
+                            String sql,
+                            ColumnToCsvFieldMappings mappings,
+                            Optional<Integer> fetchSize )
+    {
+        this( name, graphObjectType, sql, mappings, fetchSize, Optional.empty() );
+    }
+
+    public MetadataMapping( String name,
+                            GraphObjectType graphObjectType,
+                            String sql,
+                            ColumnToCsvFieldMappings mappings,
+                            Optional<Integer> fetchSize,
+                            Optional<SizeEstimate> sizeEstimate )
+    {
+        this( name, graphObjectType, sql, mappings, fetchSize, sizeEstimate, Optional.empty() );
+    }
+
+    public MetadataMapping( String name,
+                            GraphObjectType graphObjectType,
+                            String sql,
+                            ColumnToCsvFieldMappings mappings,
+                            Optional<Integer> fetchSize,
+                            Optional<SizeEstimate> sizeEstimate,
+                            Optional<String> watermarkColumn )
     {
         this.name = name;
         this.graphObjectType = graphObjectType;
         this.sql = sql;
         this.mappings = mappings;
+        this.fetchSize = fetchSize;
+        this.sizeEstimate = sizeEstimate;
+        this.watermarkColumn = watermarkColumn;
     }
 
     public String name()
@@ -54,6 +99,42 @@ public class MetadataMapping
         return mappings;
     }
 
+    // Overrides the connection's fetch size when exporting this mapping
+    public Optional<Integer> fetchSize()
+    {
+        return fetchSize;
+    }
+
+    // Catalog estimate of the size of the tables the mapping reads, if known
+    public Optional<SizeEstimate> sizeEstimate()
+    {
+        return sizeEstimate;
+    }
+
+    public MetadataMapping withSizeEstimate( SizeEstimate sizeEstimate )
+    {
+        return new MetadataMapping(
+                name, graphObjectType, sql, mappings, fetchSize, Optional.of( sizeEstimate ), watermarkColumn );
+    }
+
+    // Fully qualified name of a column that increases whenever a row is inserted or updated (an updated_at
+    // timestamp, or a monotonically increasing primary key), used to export only the rows changed since the last run
+    public Optional<String> watermarkColumn()
+    {
+        return watermarkColumn;
+    }
+
+    public MetadataMapping withWatermarkColumn( String watermarkColumn )
+    {
+        return new MetadataMapping(
+                name, graphObjectType, sql, mappings, fetchSize, sizeEstimate, Optional.of( watermarkColumn ) );
+    }
+
+    public MetadataMapping withSql( String name, String sql )
+    {
+        return new MetadataMapping( name, graphObjectType, sql, mappings, fetchSize, sizeEstimate, watermarkColumn );
+    }
+
     public JsonNode toJson()
     {
         ObjectNode root = JsonNodeFactory.instance.objectNode();
@@ -63,6 +144,21 @@ public class MetadataMapping
         root.put( "sql", sql );
         root.set( "mappings", mappings.toJson() );
 
+        if ( fetchSize.isPresent() )
+        {
+            root.put( "fetch-size", fetchSize.get() );
+        }
+
+        if ( sizeEstimate.isPresent() )
+        {
+            root.set( "size-estimate", sizeEstimate.get().toJson() );
+        }
+
+        if ( watermarkColumn.isPresent() )
+        {
+            root.put( "watermark-column", watermarkColumn.get() );
+        }
+
         return root;
     }
 }
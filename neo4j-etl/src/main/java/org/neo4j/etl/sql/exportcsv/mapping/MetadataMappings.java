@@ -3,11 +3,17 @@ package org.neo4j.etl.sql.exportcsv.mapping;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.TableName;
 
 public class MetadataMappings implements Iterable<MetadataMapping>
 {
@@ -32,6 +38,80 @@ public class MetadataMappings implements Iterable<MetadataMapping>
         return this;
     }
 
+    // Keeps existing mappings (along with any edits made to them) that only touch unchanged tables, taking
+    // regenerated mappings for everything else. Existing mappings that weren't regenerated, such as hand-written
+    // ones, are kept after the others as long as their tables are unchanged.
+    public MetadataMappings retainUnchanged( MetadataMappings existing, Collection<TableName> changedTables )
+    {
+        Map<String, MetadataMapping> existingByName = new LinkedHashMap<>();
+        existing.forEach( mapping -> existingByName.putIfAbsent( mapping.name(), mapping ) );
+
+        MetadataMappings merged = new MetadataMappings();
+
+        for ( MetadataMapping mapping : metadataMappings )
+        {
+            MetadataMapping existingMapping = existingByName.remove( mapping.name() );
+
+            if ( existingMapping != null &&
+                    !touchesAny( existingMapping, changedTables ) && !touchesAny( mapping, changedTables ) )
+            {
+                merged.add( existingMapping );
+            }
+            else
+            {
+                merged.add( mapping );
+            }
+        }
+
+        existingByName.values().stream()
+                .filter( mapping -> !touchesAny( mapping, changedTables ) )
+                .forEach( merged::add );
+
+        return merged;
+    }
+
+    // Each watermark column is given as table.column (or schema.table.column), and is set on every mapping that
+    // reads only that table
+    public MetadataMappings withWatermarkColumns( Collection<String> watermarkColumns )
+    {
+        MetadataMappings result = new MetadataMappings();
+
+        for ( MetadataMapping mapping : metadataMappings )
+        {
+            Set<TableName> tables = mapping.mappings().columns().stream()
+                    .map( Column::table )
+                    .collect( Collectors.toSet() );
+
+            for ( String watermarkColumn : watermarkColumns )
+            {
+                int separator = watermarkColumn.lastIndexOf( '.' );
+
+                if ( separator < 1 || tables.size() != 1 )
+                {
+                    continue;
+                }
+
+                String table = watermarkColumn.substring( 0, separator );
+                TableName tableName = tables.iterator().next();
+
+                if ( table.equalsIgnoreCase( tableName.fullName() ) || table.equalsIgnoreCase( tableName.simpleName() ) )
+                {
+                    mapping = mapping.withWatermarkColumn(
+                            tableName.fullyQualifiedColumnName( watermarkColumn.substring( separator + 1 ) ) );
+                }
+            }
+
+            result.add( mapping );
+        }
+
+        return result;
+    }
+
+    private static boolean touchesAny( MetadataMapping mapping, Collection<TableName> tableNames )
+    {
+        return mapping.mappings().columns().stream().map( Column::table ).anyMatch( tableNames::contains );
+    }
+
     @Override
     public Iterator<MetadataMapping> iterator()
     {
@@ -0,0 +1,74 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+// Catalog statistics for the tables a mapping reads. Statistics can be stale, so estimates are only used to order
+// exports and report progress.
+public class SizeEstimate implements Comparable<SizeEstimate>
+{
+    public static final SizeEstimate NONE = new SizeEstimate( 0, 0 );
+
+    public static SizeEstimate fromJson( JsonNode root )
+    {
+        return new SizeEstimate( root.path( "rows" ).asLong(), root.path( "bytes" ).asLong() );
+    }
+
+    private final long rows;
+    private final long bytes;
+
+    public SizeEstimate( long rows, long bytes )
+    {
+        this.rows = Math.max( 0, rows );
+        this.bytes = Math.max( 0, bytes );
+    }
+
+    public long rows()
+    {
+        return rows;
+    }
+
+    public long bytes()
+    {
+        return bytes;
+    }
+
+    public SizeEstimate plus( SizeEstimate other )
+    {
+        return new SizeEstimate( rows + other.rows, bytes + other.bytes );
+    }
+
+    // Bytes are the better measure of how long an export takes, but aren't available everywhere
+    @Override
+    public int compareTo( SizeEstimate other )
+    {
+        int result = Long.compare( bytes, other.bytes );
+        return result != 0 ? result : Long.compare( rows, other.rows );
+    }
+
+    public JsonNode toJson()
+    {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+
+        root.put( "rows", rows );
+        root.put( "bytes", bytes );
+
+        return root;
+    }
+
+    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals( Object o )
+    {
+        return EqualsBuilder.reflectionEquals( this, o );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return HashCodeBuilder.reflectionHashCode( this );
+    }
+}
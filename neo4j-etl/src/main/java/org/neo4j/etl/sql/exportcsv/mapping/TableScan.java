@@ -0,0 +1,174 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.neo4j.etl.sql.exportcsv.DatabaseExportSqlSupplier;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+
+import static java.lang.String.format;
+import static java.util.Collections.singletonList;
+
+// A single query over a table whose rows are written to the CSV files of one or more mappings, so that a table's
+// node mapping and the relationship mappings for its foreign keys can be exported from one scan of the table
+public class TableScan
+{
+    // Mappings are only combined if their SQL is exactly what the supplier would generate for them (i.e. a plain
+    // select from a single table), and their columns don't use the same alias for different values. Constant labels
+    // and relationship types are written by each mapping's own writer rather than selected, so don't conflict.
+    public static List<TableScan> group( Collection<MetadataMapping> resources, DatabaseExportSqlSupplier sqlSupplier )
+    {
+        List<Group> groups = new ArrayList<>();
+        Map<String, Group> groupsByTable = new HashMap<>();
+
+        for ( MetadataMapping resource : resources )
+        {
+            if ( isCombinable( resource, sqlSupplier ) )
+            {
+                String key = format( "%s|%s", resource.mappings().tableNames().iterator().next(),
+                        resource.fetchSize().orElse( 0 ) );
+
+                Group group = groupsByTable.get( key );
+
+                if ( group == null )
+                {
+                    group = new Group();
+                    groupsByTable.put( key, group );
+                    groups.add( group );
+                }
+
+                if ( group.add( resource ) )
+                {
+                    continue;
+                }
+            }
+
+            Group ownGroup = new Group();
+            ownGroup.add( resource );
+            groups.add( ownGroup );
+        }
+
+        List<TableScan> scans = new ArrayList<>();
+
+        for ( Group group : groups )
+        {
+            scans.add( group.toTableScan( sqlSupplier ) );
+        }
+
+        return scans;
+    }
+
+    public static TableScan of( MetadataMapping resource )
+    {
+        return new TableScan( singletonList( resource ), resource );
+    }
+
+    private static boolean isCombinable( MetadataMapping resource, DatabaseExportSqlSupplier sqlSupplier )
+    {
+        return resource.mappings().tableNames().size() == 1 &&
+                resource.sql().equals( sqlSupplier.sql( resource.mappings() ) );
+    }
+
+    private final List<MetadataMapping> resources;
+    private final MetadataMapping combined;
+
+    TableScan( List<MetadataMapping> resources, MetadataMapping combined )
+    {
+        this.resources = Collections.unmodifiableList( resources );
+        this.combined = combined;
+    }
+
+    public List<MetadataMapping> resources()
+    {
+        return resources;
+    }
+
+    // A mapping with the columns of all the scan's mappings, whose SQL selects every row of the table once
+    public MetadataMapping combined()
+    {
+        return combined;
+    }
+
+    public boolean isShared()
+    {
+        return resources.size() > 1;
+    }
+
+    private static class Group
+    {
+        private final List<MetadataMapping> resources = new ArrayList<>();
+        private final Map<String, String> aliasedColumns = new LinkedHashMap<>();
+
+        boolean add( MetadataMapping resource )
+        {
+            for ( Column column : selectedColumns( resource ) )
+            {
+                String aliasedColumn = aliasedColumns.get( column.alias() );
+
+                if ( aliasedColumn != null && !aliasedColumn.equals( column.aliasedColumn() ) )
+                {
+                    return false;
+                }
+            }
+
+            for ( Column column : selectedColumns( resource ) )
+            {
+                aliasedColumns.putIfAbsent( column.alias(), column.aliasedColumn() );
+            }
+
+            resources.add( resource );
+
+            return true;
+        }
+
+        TableScan toTableScan( DatabaseExportSqlSupplier sqlSupplier )
+        {
+            MetadataMapping first = resources.get( 0 );
+
+            if ( resources.size() == 1 )
+            {
+                return of( first );
+            }
+
+            ColumnToCsvFieldMappings.Builder builder =
+                    ColumnToCsvFieldMappings.builder().withFormatting( first.mappings().formatting() );
+            Map<String, Column> columnsByAlias = new HashMap<>();
+
+            for ( MetadataMapping resource : resources )
+            {
+                for ( ColumnToCsvFieldMapping mapping : resource.mappings().mappings() )
+                {
+                    if ( !isClientSideLiteral( mapping.column() ) &&
+                            columnsByAlias.putIfAbsent( mapping.column().alias(), mapping.column() ) == null )
+                    {
+                        builder.add( mapping );
+                    }
+                }
+            }
+
+            ColumnToCsvFieldMappings mappings = builder.build();
+
+            return new TableScan( resources, new MetadataMapping( first.name(), first.graphObjectType(),
+                    sqlSupplier.sql( mappings ), mappings, first.fetchSize(), first.sizeEstimate() ) );
+        }
+
+        private static List<Column> selectedColumns( MetadataMapping resource )
+        {
+            return resource.mappings().columns().stream()
+                    .filter( column -> !isClientSideLiteral( column ) )
+                    .collect( Collectors.toList() );
+        }
+
+        private static boolean isClientSideLiteral( Column column )
+        {
+            return column instanceof SimpleColumn && ((SimpleColumn) column).isClientSideLiteral();
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package org.neo4j.etl.sql.exportcsv.services;
 
 import java.nio.file.Path;
+import java.util.List;
 
 import org.neo4j.etl.neo4j.importcsv.config.CsvFiles;
 import org.neo4j.etl.neo4j.importcsv.config.ManifestEntry;
 import org.neo4j.etl.neo4j.importcsv.io.HeaderFileWriter;
 import org.neo4j.etl.sql.exportcsv.io.CsvFileWriter;
+import org.neo4j.etl.sql.exportcsv.io.ExportedFile;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.TableScan;
+
+import static java.lang.String.format;
 
 public class ResourceToCsvFilesService
 {
@@ -21,13 +26,38 @@ public class ResourceToCsvFilesService
 
     public ManifestEntry exportToCsv( MetadataMapping resource ) throws Exception
     {
-        Path headerFile = headerFileWriter.writeHeaderFile(
+        Path headerFile = writeHeaderFile( resource );
+        ExportedFile exportFile = writeExportFile( resource );
+
+        return new ManifestEntry( resource.graphObjectType(), new CsvFiles( headerFile, exportFile.path() ),
+                exportFile.rows(), exportFile.bytes() );
+    }
+
+    public Path writeHeaderFile( MetadataMapping resource ) throws Exception
+    {
+        return headerFileWriter.writeHeaderFile(
                 resource.graphObjectType().name(),
                 resource.mappings().fields(),
                 resource.name() );
+    }
 
-        Path exportFile = csvFileWriter.writeExportFile( resource );
+    public ExportedFile writeExportFile( MetadataMapping resource ) throws Exception
+    {
+        return csvFileWriter.writeExportFile( resource );
+    }
 
-        return new ManifestEntry( resource.graphObjectType(), new CsvFiles( headerFile, exportFile ) );
+    public List<ExportedFile> writeExportFiles( TableScan scan, String sql, String filenameSuffix ) throws Exception
+    {
+        return csvFileWriter.writeExportFiles( scan, sql, filenameSuffix );
+    }
+
+    public Path streamExportFile( MetadataMapping resource, Path pipe ) throws Exception
+    {
+        return csvFileWriter.streamExportFile( resource, pipe );
+    }
+
+    public ExportedFile writeExportFilePart( MetadataMapping resource, String sql, int partIndex ) throws Exception
+    {
+        return csvFileWriter.writeExportFile( resource, sql, format( "%s_part%03d", resource.name(), partIndex ) );
     }
 }
@@ -10,8 +10,10 @@ public class DefaultExportSqlSupplier implements DatabaseExportSqlSupplier
     @Override
     public String sql( ColumnToCsvFieldMappings mappings )
     {
-        return "SELECT " +
-                mappings.aliasedColumns().stream().collect( Collectors.joining( ", " ) ) +
+        String columns = mappings.aliasedColumns().stream().collect( Collectors.joining( ", " ) );
+
+        // Constant columns are written client-side, so may leave nothing to select other than the rows themselves
+        return "SELECT " + (columns.isEmpty() ? "1" : columns) +
                 " FROM " + mappings.tableNames().stream().collect( Collectors.joining( ", " ) );
     }
 }
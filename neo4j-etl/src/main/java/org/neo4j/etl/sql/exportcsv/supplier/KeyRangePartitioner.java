@@ -0,0 +1,196 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.sql.DatabaseClient;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.exportcsv.formatting.SqlQuotes;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+public class KeyRangePartitioner
+{
+    // Key ranges narrower than this aren't worth the overhead of an extra query
+    static final long MIN_KEYS_PER_PARTITION = 10_000;
+
+    private final DatabaseClient databaseClient;
+    private final SqlQuotes sqlQuotes;
+    private final int partitions;
+
+    public KeyRangePartitioner( DatabaseClient databaseClient, SqlQuotes sqlQuotes, int partitions )
+    {
+        this.databaseClient = databaseClient;
+        this.sqlQuotes = sqlQuotes;
+        this.partitions = partitions;
+    }
+
+    // Returns one SQL statement per partition; mappings that can't be partitioned are returned as is
+    public List<String> partition( MetadataMapping resource ) throws Exception
+    {
+        if ( partitions < 2 )
+        {
+            return singletonList( resource.sql() );
+        }
+
+        Optional<Column> partitionKey = partitionKey( resource.mappings() );
+
+        if ( !partitionKey.isPresent() )
+        {
+            return singletonList( resource.sql() );
+        }
+
+        Optional<RowFilter> rowFilter = RowFilter.on( resource, partitionKey.get().name(), sqlQuotes );
+
+        if ( !rowFilter.isPresent() )
+        {
+            return singletonList( resource.sql() );
+        }
+
+        String keyColumn = quote( partitionKey.get().name() );
+        String table = resource.mappings().tableNames().iterator().next();
+
+        long minKey;
+        long maxKey;
+
+        try ( QueryResults results = databaseClient.executeQuery(
+                format( "SELECT MIN(%s) AS min_key, MAX(%s) AS max_key FROM %s", keyColumn, keyColumn, table ) )
+                .await() )
+        {
+            if ( !results.next() )
+            {
+                return singletonList( resource.sql() );
+            }
+
+            String min = results.getString( "min_key" );
+            String max = results.getString( "max_key" );
+
+            if ( StringUtils.isEmpty( min ) || StringUtils.isEmpty( max ) )
+            {
+                return singletonList( resource.sql() );
+            }
+
+            minKey = Long.parseLong( min );
+            maxKey = Long.parseLong( max );
+        }
+        catch ( NumberFormatException e )
+        {
+            return singletonList( resource.sql() );
+        }
+
+        List<String> predicates = rangePredicates( rowFilter.get().column(), minKey, maxKey, partitions );
+
+        if ( predicates.size() < 2 )
+        {
+            return singletonList( resource.sql() );
+        }
+
+        Loggers.Default.log( Level.INFO, format( "Partitioning %s into %s key ranges on %s [%s..%s]",
+                resource.name(), predicates.size(), partitionKey.get().name(), minKey, maxKey ) );
+
+        List<String> sql = new ArrayList<>();
+
+        for ( String predicate : predicates )
+        {
+            sql.add( rowFilter.get().where( predicate ) );
+        }
+
+        return sql;
+    }
+
+    // The first and last ranges are left open so that rows with keys outside the sampled range are still exported
+    static List<String> rangePredicates( String keyColumn, long minKey, long maxKey, int partitions )
+    {
+        long span;
+
+        try
+        {
+            span = Math.addExact( Math.subtractExact( maxKey, minKey ), 1 );
+        }
+        catch ( ArithmeticException e )
+        {
+            return emptyList();
+        }
+
+        long count = Math.min( partitions, span / MIN_KEYS_PER_PARTITION );
+
+        if ( count < 2 )
+        {
+            return emptyList();
+        }
+
+        long step = span / count + ( span % count == 0 ? 0 : 1 );
+
+        List<String> predicates = new ArrayList<>();
+
+        for ( long i = 0; i < count; i++ )
+        {
+            long lowerBound = minKey + i * step;
+            long upperBound = minKey + ( i + 1 ) * step;
+
+            if ( i == 0 )
+            {
+                predicates.add( format( "%s < %s", keyColumn, upperBound ) );
+            }
+            else if ( i == count - 1 )
+            {
+                predicates.add( format( "%s >= %s", keyColumn, lowerBound ) );
+            }
+            else
+            {
+                predicates.add( format( "%s >= %s AND %s < %s", keyColumn, lowerBound, keyColumn, upperBound ) );
+            }
+        }
+
+        return predicates;
+    }
+
+    private Optional<Column> partitionKey( ColumnToCsvFieldMappings mappings )
+    {
+        if ( mappings.tableNames().size() != 1 )
+        {
+            return Optional.empty();
+        }
+
+        for ( Column column : mappings.columns() )
+        {
+            if ( column.role() == ColumnRole.PrimaryKey )
+            {
+                Column key = column;
+
+                if ( column instanceof CompositeColumn && ((CompositeColumn) column).columns().size() == 1 )
+                {
+                    key = ((CompositeColumn) column).columns().iterator().next();
+                }
+
+                if ( key instanceof SimpleColumn && key.allowAddToSelectStatement() && key.sqlDataType().isIntegral() )
+                {
+                    return Optional.of( key );
+                }
+
+                return Optional.empty();
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private String quote( String name )
+    {
+        String quote = sqlQuotes.forColumn().value();
+        return quote + StringUtils.join( name.split( "\\." ), quote + "." + quote ) + quote;
+    }
+}
@@ -0,0 +1,79 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.sql.exportcsv.formatting.SqlQuotes;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+
+import static java.lang.String.format;
+
+// Restricts the rows of a mapping's SQL with predicates on one of its table's columns, without splicing anything
+// into SQL it can't see the shape of. If the SQL selects the column, it is wrapped as a derived table and the column
+// referred to by its alias, which works whatever the SQL looks like (with a WHERE clause of its own, subqueries,
+// grouping, or edited by hand). Otherwise the SQL can only be restricted if it is exactly as generated, and so has
+// no WHERE clause of its own.
+class RowFilter
+{
+    static Optional<RowFilter> on( MetadataMapping resource, String columnName, SqlQuotes sqlQuotes )
+    {
+        String quote = sqlQuotes.forColumn().value();
+        String sql = resource.sql().trim();
+
+        if ( sql.endsWith( ";" ) )
+        {
+            sql = sql.substring( 0, sql.length() - 1 );
+        }
+
+        for ( Column column : resource.mappings().columns() )
+        {
+            Collection<Column> columns = column instanceof CompositeColumn
+                    ? ((CompositeColumn) column).columns()
+                    : Collections.singletonList( column );
+
+            for ( Column selected : columns )
+            {
+                if ( selected instanceof SimpleColumn && selected.allowAddToSelectStatement() &&
+                        selected.name().equalsIgnoreCase( columnName ) )
+                {
+                    return Optional.of( new RowFilter( format( "SELECT * FROM (%s) t WHERE ", sql ),
+                            quote + selected.alias() + quote ) );
+                }
+            }
+        }
+
+        if ( sql.equals( new DefaultExportSqlSupplier().sql( resource.mappings() ) ) )
+        {
+            return Optional.of( new RowFilter( sql + " WHERE ",
+                    quote + StringUtils.join( columnName.split( "\\." ), quote + "." + quote ) + quote ) );
+        }
+
+        return Optional.empty();
+    }
+
+    private final String selectWhere;
+    private final String column;
+
+    private RowFilter( String selectWhere, String column )
+    {
+        this.selectWhere = selectWhere;
+        this.column = column;
+    }
+
+    // How predicates refer to the column
+    String column()
+    {
+        return column;
+    }
+
+    String where( String predicate )
+    {
+        return selectWhere + predicate;
+    }
+}
@@ -0,0 +1,131 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.sql.DatabaseClient;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.SizeEstimate;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.TableName;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// Attaches catalog estimates of the size of the tables each mapping reads, so that the largest exports can be
+// started first. Statistics are read a schema at a time with a single query.
+public class SizeEstimator
+{
+    private final DatabaseClient databaseClient;
+
+    public SizeEstimator( DatabaseClient databaseClient )
+    {
+        this.databaseClient = databaseClient;
+    }
+
+    public List<MetadataMapping> estimate( Iterable<MetadataMapping> resources )
+    {
+        List<MetadataMapping> estimated = new ArrayList<>();
+        resources.forEach( estimated::add );
+
+        Set<String> schemas = estimated.stream()
+                .flatMap( resource -> tables( resource ).stream() )
+                .map( TableName::schema )
+                .collect( Collectors.toSet() );
+
+        Map<TableName, SizeEstimate> sizeEstimates = new HashMap<>();
+
+        for ( String schema : schemas )
+        {
+            sizeEstimates.putAll( sizeEstimates( schema ) );
+        }
+
+        for ( int i = 0; i < estimated.size(); i++ )
+        {
+            Optional<SizeEstimate> sizeEstimate = sizeEstimate( estimated.get( i ), sizeEstimates );
+
+            if ( sizeEstimate.isPresent() )
+            {
+                estimated.set( i, estimated.get( i ).withSizeEstimate( sizeEstimate.get() ) );
+            }
+        }
+
+        return estimated;
+    }
+
+    // A mapping that reads several tables is estimated at their combined size
+    private static Optional<SizeEstimate> sizeEstimate( MetadataMapping resource,
+                                                        Map<TableName, SizeEstimate> sizeEstimates )
+    {
+        List<SizeEstimate> tableEstimates = tables( resource ).stream()
+                .map( sizeEstimates::get )
+                .filter( sizeEstimate -> sizeEstimate != null )
+                .collect( Collectors.toList() );
+
+        return tableEstimates.stream().reduce( SizeEstimate::plus );
+    }
+
+    private static List<TableName> tables( MetadataMapping resource )
+    {
+        return resource.mappings().columns().stream()
+                .map( Column::table )
+                .distinct()
+                .collect( Collectors.toList() );
+    }
+
+    private Map<TableName, SizeEstimate> sizeEstimates( String schema )
+    {
+        Map<TableName, SizeEstimate> sizeEstimates = new HashMap<>();
+
+        try ( QueryResults results = databaseClient.schemaSizeEstimates( schema ) )
+        {
+            while ( results.next() )
+            {
+                String rows = results.getString( "ROW_ESTIMATE" );
+                String bytes = results.getString( "BYTE_ESTIMATE" );
+
+                if ( StringUtils.isNotEmpty( rows ) || StringUtils.isNotEmpty( bytes ) )
+                {
+                    sizeEstimates.put( new TableName( schema, results.getString( "TABLE_NAME" ) ),
+                            new SizeEstimate( parse( rows ), parse( bytes ) ) );
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            Loggers.Default.log( Level.WARNING,
+                    format( "Unable to read size estimates for schema %s, so its tables won't be ordered by " +
+                            "size: %s", schema, e.getMessage() ) );
+            return new HashMap<>();
+        }
+
+        return sizeEstimates;
+    }
+
+    // Estimates may come back as decimals (Oracle's NUM_ROWS * AVG_ROW_LEN, for example)
+    private static long parse( String value )
+    {
+        if ( StringUtils.isEmpty( value ) )
+        {
+            return 0;
+        }
+
+        try
+        {
+            return Math.round( Double.parseDouble( value ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            return 0;
+        }
+    }
+}
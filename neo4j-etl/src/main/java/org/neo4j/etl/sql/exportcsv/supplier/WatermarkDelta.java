@@ -0,0 +1,162 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.neo4j.etl.sql.DatabaseClient;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.exportcsv.DeltaState;
+import org.neo4j.etl.sql.exportcsv.formatting.SqlQuotes;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// Restricts a mapping to the rows whose watermark column has advanced past the high-water mark recorded by the
+// previous run, up to the column's current maximum, which becomes the new mark. Bounding the range above means rows
+// changed while the export is running are left for the next run, rather than being exported twice or missed. With
+// an index on the watermark column, each export is a range scan rather than a full table scan.
+public class WatermarkDelta
+{
+    public static final String FILENAME_SUFFIX = "_delta";
+
+    private static final Pattern NUMBER = Pattern.compile( "-?\\d+(\\.\\d+)?" );
+
+    private final DatabaseClient databaseClient;
+    private final SqlQuotes sqlQuotes;
+    private final DeltaState deltaState;
+
+    public WatermarkDelta( DatabaseClient databaseClient, SqlQuotes sqlQuotes, DeltaState deltaState )
+    {
+        this.databaseClient = databaseClient;
+        this.sqlQuotes = sqlQuotes;
+        this.deltaState = deltaState;
+    }
+
+    // Mappings without a watermark column can't be exported incrementally, and so are returned as is
+    public MetadataMapping delta( MetadataMapping resource ) throws Exception
+    {
+        if ( !resource.watermarkColumn().isPresent() )
+        {
+            Loggers.Default.log( Level.INFO,
+                    format( "Exporting all rows for %s, which has no watermark column", resource.name() ) );
+            return resource;
+        }
+
+        String watermarkColumn = resource.watermarkColumn().get();
+        Collection<String> tableNames = resource.mappings().tableNames();
+
+        if ( tableNames.size() != 1 )
+        {
+            Loggers.Default.log( Level.WARNING,
+                    format( "Exporting all rows for %s, as watermarks are only supported for mappings that read " +
+                            "a single table", resource.name() ) );
+            return resource;
+        }
+
+        Optional<RowFilter> rowFilter = RowFilter.on( resource, watermarkColumn, sqlQuotes );
+
+        if ( !rowFilter.isPresent() )
+        {
+            Loggers.Default.log( Level.WARNING,
+                    format( "Exporting all rows for %s, as its SQL has been edited and doesn't select its " +
+                            "watermark column %s", resource.name(), watermarkColumn ) );
+            return resource;
+        }
+
+        String column = rowFilter.get().column();
+        Optional<String> highWaterMark = deltaState.highWaterMark( resource.name(), watermarkColumn );
+        MaxValue maxValue = maxValue( quote( watermarkColumn ), tableNames.iterator().next() );
+        Optional<String> newHighWaterMark = maxValue.value;
+
+        String predicate;
+
+        if ( newHighWaterMark.isPresent() )
+        {
+            predicate = highWaterMark.isPresent()
+                    ? format( "%s > %s AND %s <= %s", column, literal( maxValue.sqlType, highWaterMark.get() ),
+                            column, literal( maxValue.sqlType, newHighWaterMark.get() ) )
+                    : format( "%s <= %s", column, literal( maxValue.sqlType, newHighWaterMark.get() ) );
+
+            deltaState.advance( resource.name(), watermarkColumn, newHighWaterMark.get() );
+        }
+        else
+        {
+            // An empty table: nothing has changed since the last run, or there was no last run
+            predicate = highWaterMark.isPresent()
+                    ? format( "%s > %s", column, literal( maxValue.sqlType, highWaterMark.get() ) )
+                    : format( "%s IS NOT NULL", column );
+        }
+
+        Loggers.Default.log( Level.INFO, format( "Exporting rows of %s where %s is in (%s..%s]", resource.name(),
+                watermarkColumn, highWaterMark.orElse( "" ), newHighWaterMark.orElse( "" ) ) );
+
+        return resource.withSql( resource.name() + FILENAME_SUFFIX, rowFilter.get().where( predicate ) );
+    }
+
+    // Temporal maxima are read as timestamps and kept in JDBC escape format, rather than in whatever format the
+    // driver or session renders them as strings, so that they can be written back as typed literals at full precision
+    private MaxValue maxValue( String column, String table ) throws Exception
+    {
+        try ( QueryResults results = databaseClient.executeQuery(
+                format( "SELECT MAX(%s) AS high_water_mark FROM %s", column, table ) ).await() )
+        {
+            int sqlType = results.getColumnType( 1 );
+
+            if ( !results.next() )
+            {
+                return new MaxValue( sqlType, Optional.empty() );
+            }
+
+            if ( isTemporal( sqlType ) )
+            {
+                Timestamp max = results.getTimestamp( 1 );
+                return new MaxValue( sqlType, max == null ? Optional.empty() : Optional.of( max.toString() ) );
+            }
+
+            String max = results.getString( 1 );
+
+            return new MaxValue( sqlType, StringUtils.isEmpty( max ) ? Optional.empty() : Optional.of( max ) );
+        }
+    }
+
+    private String literal( int sqlType, String value )
+    {
+        return isTemporal( sqlType ) ? databaseClient.timestampLiteral( value ) : literal( value );
+    }
+
+    // Other marks are compared as string literals, which the database converts to the column's type
+    static String literal( String value )
+    {
+        return NUMBER.matcher( value ).matches() ? value : "'" + value.replace( "'", "''" ) + "'";
+    }
+
+    private static boolean isTemporal( int sqlType )
+    {
+        return sqlType == Types.DATE || sqlType == Types.TIMESTAMP || sqlType == Types.TIMESTAMP_WITH_TIMEZONE;
+    }
+
+    private String quote( String name )
+    {
+        String quote = sqlQuotes.forColumn().value();
+        return quote + StringUtils.join( name.split( "\\." ), quote + "." + quote ) + quote;
+    }
+
+    private static class MaxValue
+    {
+        private final int sqlType;
+        private final Optional<String> value;
+
+        MaxValue( int sqlType, Optional<String> value )
+        {
+            this.sqlType = sqlType;
+            this.value = value;
+        }
+    }
+}
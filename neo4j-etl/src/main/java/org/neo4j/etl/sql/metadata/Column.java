@@ -2,6 +2,7 @@ package org.neo4j.etl.sql.metadata;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.RowAccessor;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
 import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
@@ -11,16 +12,21 @@ import static java.lang.String.format;
 public interface Column
 {
     static Column fromJson( JsonNode root )
+    {
+        return fromJson( root, Formatting.DEFAULT );
+    }
+
+    static Column fromJson( JsonNode root, Formatting formatting )
     {
         String type = root.path( "type" ).textValue();
 
         if ( type.equalsIgnoreCase( SimpleColumn.class.getSimpleName() ) )
         {
-            return SimpleColumn.fromJson( root );
+            return SimpleColumn.fromJson( root, formatting );
         }
         else if ( type.equalsIgnoreCase( CompositeColumn.class.getSimpleName() ) )
         {
-            return CompositeColumn.fromJson( root );
+            return CompositeColumn.fromJson( root, formatting );
         }
         else
         {
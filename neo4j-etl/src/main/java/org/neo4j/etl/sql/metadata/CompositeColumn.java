@@ -2,7 +2,6 @@ package org.neo4j.etl.sql.metadata;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -14,6 +13,7 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.RowAccessor;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
 import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
@@ -23,6 +23,11 @@ import static java.lang.String.format;
 public class CompositeColumn implements Column
 {
     public static Column fromJson( JsonNode root )
+    {
+        return fromJson( root, Formatting.DEFAULT );
+    }
+
+    public static Column fromJson( JsonNode root, Formatting formatting )
     {
         TableName table = new TableName( root.path( "table" ).textValue() );
         ColumnRole role = ColumnRole.valueOf( root.path( "role" ).textValue() );
@@ -31,7 +36,7 @@ public class CompositeColumn implements Column
         ArrayNode columnArray = (ArrayNode) root.path( "columns" );
         for ( JsonNode jsonNode : columnArray )
         {
-            columns.add( Column.fromJson( jsonNode ) );
+            columns.add( Column.fromJson( jsonNode, formatting ) );
         }
 
         return new CompositeColumn( table, columns, role );
@@ -103,20 +108,26 @@ public class CompositeColumn implements Column
     @Override
     public String selectFrom( RowAccessor row, int rowIndex )
     {
-        List<String> values = columns.stream()
-                .map( c -> row.getString( c.alias() ) )
-                .collect( Collectors.toList() );
+        StringBuilder value = new StringBuilder();
 
-        if ( values.stream().anyMatch( StringUtils::isEmpty ) )
-        {
-            return StringUtils.EMPTY;
-        }
-        else
+        for ( Column column : columns )
         {
-            return values.stream()
-                    .filter( StringUtils::isNotEmpty )
-                    .collect( Collectors.joining( SEPARATOR ) );
+            String part = row.getString( column.alias() );
+
+            if ( StringUtils.isEmpty( part ) )
+            {
+                return StringUtils.EMPTY;
+            }
+
+            if ( value.length() > 0 )
+            {
+                value.append( SEPARATOR );
+            }
+
+            value.append( part );
         }
+
+        return value.toString();
     }
 
     @Override
@@ -1,9 +1,21 @@
 package org.neo4j.etl.sql.metadata;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+
 public class JoinKey
 {
+    static JoinKey fromJson( JsonNode root, Formatting formatting )
+    {
+        return new JoinKey(
+                Column.fromJson( root.path( "source-column" ), formatting ),
+                Column.fromJson( root.path( "target-column" ), formatting ) );
+    }
+
     private final Column sourceColumn;
     private final Column targetColumn;
 
@@ -28,6 +40,16 @@ public class JoinKey
         return new Join( new JoinKey( primaryKey, primaryKey ), this );
     }
 
+    JsonNode toJson()
+    {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+
+        root.set( "source-column", sourceColumn.toJson() );
+        root.set( "target-column", targetColumn.toJson() );
+
+        return root;
+    }
+
     @Override
     public String toString()
     {
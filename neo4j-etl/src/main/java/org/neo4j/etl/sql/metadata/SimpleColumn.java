@@ -9,6 +9,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.QuoteChar;
 import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
 import org.neo4j.etl.sql.RowAccessor;
 import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
@@ -21,6 +22,11 @@ import static java.lang.String.format;
 public class SimpleColumn implements Column
 {
     public static Column fromJson( JsonNode root )
+    {
+        return fromJson( root, Formatting.DEFAULT ); // TODO check if default formatting is fine
+    }
+
+    public static Column fromJson( JsonNode root, Formatting formatting )
     {
         return new SimpleColumn(
                 new TableName( root.path( "table" ).textValue() ),
@@ -29,7 +35,7 @@ public class SimpleColumn implements Column
                 ColumnRole.valueOf( root.path( "role" ).textValue() ),
                 SqlDataType.valueOf( root.path( "sql-data-type" ).textValue() ),
                 ColumnValueSelectionStrategy.valueOf( root.path( "column-value-selection-strategy" ).textValue() ),
-                Formatting.DEFAULT ); // TODO check if default formatting is fine
+                formatting );
     }
 
     private final TableName table;
@@ -39,6 +45,7 @@ public class SimpleColumn implements Column
     private final SqlDataType dataType;
     private final ColumnValueSelectionStrategy columnValueSelectionStrategy;
     private final Formatting formatting;
+    private final String literalValue;
 
     public SimpleColumn( TableName table,
                          String name,
@@ -66,6 +73,16 @@ public class SimpleColumn implements Column
         this.columnValueSelectionStrategy =
                 Preconditions.requireNonNull( columnValueSelectionStrategy, "ColumnValueSelectionStrategy" );
         this.formatting = Preconditions.requireNonNull( formatting, "Formatting" );
+        this.literalValue = literalValue( name, role, formatting );
+    }
+
+    // A quoted constant is written by the CSV writer rather than selected for every row; anything else in a literal
+    // column (e.g. an expression in a hand-edited mapping) is left for the database to evaluate
+    private static String literalValue( String name, ColumnRole role, Formatting formatting )
+    {
+        QuoteChar constantQuote = formatting.sqlQuotes().forConstant();
+
+        return role == ColumnRole.Literal && constantQuote.isEnquoted( name ) ? constantQuote.dequote( name ) : null;
     }
 
     @Override
@@ -103,15 +120,25 @@ public class SimpleColumn implements Column
     @Override
     public boolean allowAddToSelectStatement()
     {
-        return columnValueSelectionStrategy.allowAddToSelectStatement();
+        return literalValue == null && columnValueSelectionStrategy.allowAddToSelectStatement();
     }
 
     @Override
     public String selectFrom( RowAccessor row, int rowIndex )
     {
+        if ( literalValue != null )
+        {
+            return literalValue;
+        }
+
         return columnValueSelectionStrategy.selectFrom( row, rowIndex, alias );
     }
 
+    public boolean isClientSideLiteral()
+    {
+        return literalValue != null;
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals( Object o )
@@ -87,6 +87,14 @@ public enum SqlDataType
         return neo4jDataType;
     }
 
+    public boolean isIntegral()
+    {
+        return neo4jDataType == Neo4jDataType.Byte ||
+                neo4jDataType == Neo4jDataType.Short ||
+                neo4jDataType == Neo4jDataType.Int ||
+                neo4jDataType == Neo4jDataType.Long;
+    }
+
     public boolean skipImport()
     {
         return BLOB == this || TINYBLOB == this || MEDIUMBLOB == this || LONGBLOB == this || BYTEA == this;
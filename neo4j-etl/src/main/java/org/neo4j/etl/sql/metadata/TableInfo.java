@@ -8,10 +8,40 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+
 import static java.util.Arrays.asList;
 
 public class TableInfo
 {
+    static TableInfo fromJson( JsonNode root, Formatting formatting )
+    {
+        JsonNode primaryKey = root.path( "primary-key" );
+
+        Collection<JoinKey> foreignKeys = new ArrayList<>();
+        for ( JsonNode jsonNode : root.path( "foreign-keys" ) )
+        {
+            foreignKeys.add( JoinKey.fromJson( jsonNode, formatting ) );
+        }
+
+        Collection<Column> columns = new ArrayList<>();
+        for ( JsonNode jsonNode : root.path( "columns" ) )
+        {
+            columns.add( Column.fromJson( jsonNode, formatting ) );
+        }
+
+        return new TableInfo(
+                new TableName( root.path( "table" ).textValue() ),
+                primaryKey.isMissingNode() ? Optional.empty() : Optional.of( Column.fromJson( primaryKey, formatting ) ),
+                foreignKeys,
+                columns );
+    }
+
     private final TableName tableName;
     private final Optional<Column> primaryKey;
     private final Collection<JoinKey> foreignKeys;
@@ -87,6 +117,11 @@ public class TableInfo
                 .collect( Collectors.toList() );
     }
 
+    TableName tableName()
+    {
+        return tableName;
+    }
+
     Optional<Column> primaryKey()
     {
         return primaryKey;
@@ -116,6 +151,24 @@ public class TableInfo
         }
     }
 
+    JsonNode toJson()
+    {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+
+        root.put( "table", tableName.fullName() );
+        primaryKey.ifPresent( column -> root.set( "primary-key", column.toJson() ) );
+
+        ArrayNode foreignKeysArray = JsonNodeFactory.instance.arrayNode();
+        foreignKeys.forEach( joinKey -> foreignKeysArray.add( joinKey.toJson() ) );
+        root.set( "foreign-keys", foreignKeysArray );
+
+        ArrayNode columnsArray = JsonNodeFactory.instance.arrayNode();
+        columns.forEach( column -> columnsArray.add( column.toJson() ) );
+        root.set( "columns", columnsArray );
+
+        return root;
+    }
+
     private List<String> foreignKeyNames()
     {
         return foreignKeys.stream()
@@ -2,10 +2,15 @@ package org.neo4j.etl.sql.metadata;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -14,6 +19,8 @@ import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
 import org.neo4j.etl.sql.DatabaseClient;
 import org.neo4j.etl.sql.QueryResults;
 import org.neo4j.etl.util.ArrayUtils;
+import org.neo4j.etl.util.FutureUtils;
+import org.neo4j.etl.util.Supplier;
 
 import static java.lang.String.format;
 
@@ -37,12 +44,75 @@ public class TableInfoAssembler
     }
 
     public TableInfo createTableInfo( TableName tableName ) throws Exception
+    {
+        return createTableInfo( tableName,
+                rows( databaseClient.columns( tableName ) ),
+                rows( databaseClient.foreignKeys( tableName ) ),
+                rows( databaseClient.primaryKeys( tableName ) ) );
+    }
+
+    // Reads the columns and keys of every table in each of the tables' schemas with one query apiece, and assembles
+    // the tables from those rows in memory
+    public Map<TableName, TableInfo> createTableInfos( Collection<TableName> tableNames ) throws Exception
+    {
+        return createTableInfos( tableNames, Runnable::run );
+    }
+
+    // As above, but with every schema's three queries run at once on the executor, each on its own connection from
+    // the client's pool, and each table assembled as soon as its schema's rows have been read
+    public Map<TableName, TableInfo> createTableInfos( Collection<TableName> tableNames, Executor executor )
+            throws Exception
+    {
+        Map<TableName, CompletableFuture<TableInfo>> futures = new LinkedHashMap<>();
+
+        Map<String, List<TableName>> tablesBySchema = tableNames.stream()
+                .collect( Collectors.groupingBy( TableName::schema, LinkedHashMap::new, Collectors.toList() ) );
+
+        for ( Map.Entry<String, List<TableName>> schemaTables : tablesBySchema.entrySet() )
+        {
+            String schema = schemaTables.getKey();
+
+            CompletableFuture<Map<String, List<Map<String, String>>>> columnRows =
+                    rowsByTable( () -> databaseClient.schemaColumns( schema ), "TABLE_NAME", executor );
+            CompletableFuture<Map<String, List<Map<String, String>>>> foreignKeyRows =
+                    rowsByTable( () -> databaseClient.schemaForeignKeys( schema ), "FKTABLE_NAME", executor );
+            CompletableFuture<Map<String, List<Map<String, String>>>> primaryKeyRows =
+                    rowsByTable( () -> databaseClient.schemaPrimaryKeys( schema ), "TABLE_NAME", executor );
+
+            CompletableFuture<Void> schemaRows = CompletableFuture.allOf( columnRows, foreignKeyRows, primaryKeyRows );
+
+            for ( TableName tableName : schemaTables.getValue() )
+            {
+                String table = tableName.simpleName();
+
+                futures.put( tableName, schemaRows.thenApplyAsync( rows -> createTableInfo( tableName,
+                        columnRows.join().getOrDefault( table, Collections.emptyList() ),
+                        foreignKeyRows.join().getOrDefault( table, Collections.emptyList() ),
+                        primaryKeyRows.join().getOrDefault( table, Collections.emptyList() ) ), executor ) );
+            }
+        }
+
+        Map<TableName, TableInfo> tableInfos = new LinkedHashMap<>();
+
+        for ( Map.Entry<TableName, CompletableFuture<TableInfo>> future : futures.entrySet() )
+        {
+            tableInfos.put( future.getKey(), await( future.getValue() ) );
+        }
+
+        return tableInfos;
+    }
+
+    private TableInfo createTableInfo( TableName tableName,
+                                       List<Map<String, String>> columnRows,
+                                       List<Map<String, String>> foreignKeyRows,
+                                       List<Map<String, String>> primaryKeyRows )
     {
         Collection<Column> keyColumns = new HashSet<>();
 
-        Map<String, Column> allColumns = createColumnsMap( tableName );
-        Collection<JoinKey> foreignKeys = createForeignKeys( tableName, allColumns, keyColumns );
-        Optional<Column> primaryKey = createPrimaryKey( tableName, allColumns, keyColumns, foreignKeys );
+        Map<String, Column> allColumns = createColumnsMap( tableName, columnRows );
+        Collection<JoinKey> foreignKeys = createForeignKeys( tableName, foreignKeyRows, allColumns, keyColumns );
+        Optional<Column> primaryKey =
+                createPrimaryKey( tableName, primaryKeyRows, allColumns, keyColumns, foreignKeys );
 
         return new TableInfo(
                 tableName,
@@ -51,108 +121,139 @@ public class TableInfoAssembler
                 columnsLessKeyColumns( allColumns, keyColumns ) );
     }
 
-    private Map<String, Column> createColumnsMap( TableName tableName ) throws Exception
+    // Results are read fully and closed straight away, so that a query holds its connection no longer than it must
+    private List<Map<String, String>> rows( QueryResults results ) throws Exception
     {
-        try ( QueryResults columnsResults = databaseClient.columns( tableName ) )
+        try ( QueryResults rows = results )
         {
-            return columnsResults.stream()
-                    .map( row -> new String[]{row.get( "COLUMN_NAME" ), row.get( "TYPE_NAME" )} )
-                    .collect( Collectors.toMap( v -> v[0], v -> v[1] ) )
-                    .entrySet().stream()
-                    .map( e -> new SimpleColumn(
-                            tableName,
-                            e.getKey(),
-                            ColumnRole.Data,
-                            SqlDataType.parse( e.getValue() ),
-                            ColumnValueSelectionStrategy.SelectColumnValue,
-                            formatting))
-                    .filter( c -> !c.sqlDataType().skipImport() )
-                    .collect( Collectors.toMap( Column::name, c -> c ) );
+            return rows.stream().collect( Collectors.toList() );
         }
     }
 
+    private CompletableFuture<Map<String, List<Map<String, String>>>> rowsByTable( Supplier<QueryResults> query,
+                                                                                   String tableColumn,
+                                                                                   Executor executor )
+    {
+        return FutureUtils.exceptionableFuture( () -> groupByTable( rows( query.supply() ), tableColumn ), executor );
+    }
+
+    private static <T> T await( CompletableFuture<T> future ) throws Exception
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof Exception )
+            {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private Map<String, List<Map<String, String>>> groupByTable( List<Map<String, String>> rows, String tableColumn )
+    {
+        return rows.stream().collect( Collectors.groupingBy( row -> row.get( tableColumn ) ) );
+    }
+
+    private Map<String, Column> createColumnsMap( TableName tableName, List<Map<String, String>> columnRows )
+    {
+        return columnRows.stream()
+                .map( row -> new String[]{row.get( "COLUMN_NAME" ), row.get( "TYPE_NAME" )} )
+                .collect( Collectors.toMap( v -> v[0], v -> v[1] ) )
+                .entrySet().stream()
+                .map( e -> new SimpleColumn(
+                        tableName,
+                        e.getKey(),
+                        ColumnRole.Data,
+                        SqlDataType.parse( e.getValue() ),
+                        ColumnValueSelectionStrategy.SelectColumnValue,
+                        formatting))
+                .filter( c -> !c.sqlDataType().skipImport() )
+                .collect( Collectors.toMap( Column::name, c -> c ) );
+    }
+
     private Collection<JoinKey> createForeignKeys( TableName table,
+                                                   List<Map<String, String>> foreignKeyRows,
                                                    Map<String, Column> columns,
-                                                   Collection<Column> keyColumns ) throws Exception
+                                                   Collection<Column> keyColumns )
     {
-        try ( QueryResults foreignKeysResults = databaseClient.foreignKeys( table ) )
-        {
-            Map<String, List<Map<String, String>>> foreignKeyGroups = foreignKeysResults.stream()
-                    .collect( Collectors.groupingBy( row -> row.get( "FK_NAME" ) ) );
+        Map<String, List<Map<String, String>>> foreignKeyGroups = foreignKeyRows.stream()
+                .collect( Collectors.groupingBy( row -> row.get( "FK_NAME" ) ) );
 
-            Collection<JoinKey> keys = new ArrayList<>();
+        Collection<JoinKey> keys = new ArrayList<>();
 
-            for ( List<Map<String, String>> foreignKeyGroup : foreignKeyGroups.values() )
-            {
-                List<Column> sourceColumns = new ArrayList<>();
-                List<Column> targetColumns = new ArrayList<>();
+        for ( List<Map<String, String>> foreignKeyGroup : foreignKeyGroups.values() )
+        {
+            List<Column> sourceColumns = new ArrayList<>();
+            List<Column> targetColumns = new ArrayList<>();
 
-                foreignKeyGroup.forEach( fkRow ->
+            foreignKeyGroup.forEach( fkRow ->
+            {
+                if ( !ArrayUtils.containsIgnoreCase( tablesToExclude, fkRow.get( "PKTABLE_NAME" ) ) )
                 {
-                    if ( !ArrayUtils.containsIgnoreCase( tablesToExclude, fkRow.get( "PKTABLE_NAME" ) ) )
-                    {
-                        Column sourceColumn = columns.get( table.fullyQualifiedColumnName( fkRow.get( "FKCOLUMN_NAME" ) ) );
+                    Column sourceColumn = columns.get( table.fullyQualifiedColumnName( fkRow.get( "FKCOLUMN_NAME" ) ) );
+
+                    // We assume the key's target column data type is the same as the source column's data type
+                    SqlDataType sqlDataType = sourceColumn.sqlDataType();
 
-                        // We assume the key's target column data type is the same as the source column's data type
-                        SqlDataType sqlDataType = sourceColumn.sqlDataType();
+                    sourceColumns.add( sourceColumn );
+                    targetColumns.add( createForeignKeyTargetColumn( fkRow, sqlDataType ) );
+                }
+            } );
 
-                        sourceColumns.add( sourceColumn );
-                        targetColumns.add( createForeignKeyTargetColumn( fkRow, sqlDataType ) );
-                    }
-                } );
+            if( targetColumns.size() > 0 )
+            {
+                keyColumns.addAll( sourceColumns );
 
-                if( targetColumns.size() > 0 )
+                // We assume that for a composite foreign key, all parts of the key refer to the same target table
+                if ( targetColumns.stream().map( Column::table ).collect( Collectors.toSet() ).size() > 1 )
                 {
-                    keyColumns.addAll( sourceColumns );
-
-                    // We assume that for a composite foreign key, all parts of the key refer to the same target table
-                    if ( targetColumns.stream().map( Column::table ).collect( Collectors.toSet() ).size() > 1 )
-                    {
-                        throw new IllegalStateException(
-                                format( "Composite foreign key refers to more than one target table: %s",
-                                        foreignKeyGroup ) );
-                    }
-
-                    TableName targetTable = targetColumns.get( 0 ).table();
-                    keys.add( new JoinKey(
-                            new CompositeColumn( table, sourceColumns, ColumnRole.ForeignKey ),
-                            new CompositeColumn( targetTable, targetColumns, ColumnRole.PrimaryKey ) ) );
+                    throw new IllegalStateException(
+                            format( "Composite foreign key refers to more than one target table: %s",
+                                    foreignKeyGroup ) );
                 }
-            }
 
-            return keys;
+                TableName targetTable = targetColumns.get( 0 ).table();
+                keys.add( new JoinKey(
+                        new CompositeColumn( table, sourceColumns, ColumnRole.ForeignKey ),
+                        new CompositeColumn( targetTable, targetColumns, ColumnRole.PrimaryKey ) ) );
+            }
         }
+
+        return keys;
     }
 
     private Optional<Column> createPrimaryKey( TableName table,
+                                               List<Map<String, String>> primaryKeyRows,
                                                Map<String, Column> columns,
                                                Collection<Column> keyColumns,
-                                               Collection<JoinKey> foreignKeys ) throws Exception
+                                               Collection<JoinKey> foreignKeys )
     {
-        try ( QueryResults primaryKeyResults = databaseClient.primaryKeys( table ) )
-        {
-            List<Column> primaryKeyColumns = primaryKeyResults.stream()
-                    .map( pk -> columns.get( table.fullyQualifiedColumnName( pk.get( "COLUMN_NAME" ) ) ) )
-                    .collect( Collectors.toList() );
+        List<Column> primaryKeyColumns = primaryKeyRows.stream()
+                .map( pk -> columns.get( table.fullyQualifiedColumnName( pk.get( "COLUMN_NAME" ) ) ) )
+                .collect( Collectors.toList() );
 
-            keyColumns.addAll( primaryKeyColumns );
+        keyColumns.addAll( primaryKeyColumns );
 
-            if ( primaryKeyColumns.isEmpty() )
+        if ( primaryKeyColumns.isEmpty() )
+        {
+            if ( notJoinTable( foreignKeys ) )
             {
-                if ( notJoinTable( foreignKeys ) )
-                {
-                    return Optional.of( createRowIndexBasedPrimaryKey( table ) );
-                }
-                else
-                {
-                    return Optional.empty();
-                }
+                return Optional.of( createRowIndexBasedPrimaryKey( table ) );
             }
             else
             {
-                return Optional.of( new CompositeColumn( table, primaryKeyColumns, ColumnRole.PrimaryKey ) );
+                return Optional.empty();
             }
         }
+        else
+        {
+            return Optional.of( new CompositeColumn( table, primaryKeyColumns, ColumnRole.PrimaryKey ) );
+        }
     }
 
     private boolean notJoinTable( Collection<JoinKey> foreignKeys )
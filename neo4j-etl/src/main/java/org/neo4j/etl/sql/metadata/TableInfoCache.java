@@ -0,0 +1,170 @@
+package org.neo4j.etl.sql.metadata;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.util.FileUtils;
+import org.neo4j.etl.util.Loggers;
+
+import static java.lang.String.format;
+
+// Table metadata from earlier runs, each table stored with the DDL marker it had when it was introspected. An entry
+// is only handed out while the table's marker is unchanged, and only if the same tables were excluded (which
+// determines the foreign keys that were kept).
+public class TableInfoCache
+{
+    public static TableInfoCache load( Path file, Formatting formatting, List<String> tablesToExclude )
+    {
+        ArrayNode exclusions = exclusionsToJson( tablesToExclude );
+        Map<TableName, CachedTableInfo> entries = new ConcurrentHashMap<>();
+
+        if ( Files.exists( file ) )
+        {
+            try
+            {
+                JsonNode root = new ObjectMapper().readTree( file.toFile() );
+
+                if ( exclusions.equals( root.path( "tables-to-exclude" ) ) )
+                {
+                    for ( JsonNode entry : root.path( "tables" ) )
+                    {
+                        TableInfo tableInfo = TableInfo.fromJson( entry.path( "table-info" ), formatting );
+                        entries.put( tableInfo.tableName(),
+                                new CachedTableInfo( entry.path( "ddl-marker" ).textValue(), tableInfo ) );
+                    }
+                }
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                Loggers.Default.log( Level.WARNING,
+                        format( "Ignoring unreadable metadata cache %s: %s", file, e.getMessage() ) );
+                entries.clear();
+            }
+        }
+
+        return new TableInfoCache( file, exclusions, entries );
+    }
+
+    private final Path file;
+    private final ArrayNode exclusions;
+    private final Map<TableName, CachedTableInfo> entries;
+    private final boolean hasEarlierRun;
+    private final Set<TableName> changedTables = ConcurrentHashMap.newKeySet();
+
+    private TableInfoCache( Path file, ArrayNode exclusions, Map<TableName, CachedTableInfo> entries )
+    {
+        this.file = file;
+        this.exclusions = exclusions;
+        this.entries = entries;
+        this.hasEarlierRun = !entries.isEmpty();
+    }
+
+    // False if nothing usable was cached by an earlier run, in which case every table counts as added
+    public boolean hasEarlierRun()
+    {
+        return hasEarlierRun;
+    }
+
+    public Optional<TableInfo> get( TableName tableName, String ddlMarker )
+    {
+        CachedTableInfo entry = entries.get( tableName );
+
+        if ( ddlMarker == null || entry == null || !ddlMarker.equals( entry.ddlMarker ) )
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of( entry.tableInfo );
+    }
+
+    // Tables without a marker can't be checked for changes, and so aren't cached
+    public void put( TableName tableName, String ddlMarker, TableInfo tableInfo )
+    {
+        CachedTableInfo previous = ddlMarker == null ?
+                entries.remove( tableName ) :
+                entries.put( tableName, new CachedTableInfo( ddlMarker, tableInfo ) );
+
+        if ( ddlMarker == null || previous == null || !ddlMarker.equals( previous.ddlMarker ) )
+        {
+            changedTables.add( tableName );
+        }
+    }
+
+    public void retainAll( Collection<TableName> tableNames )
+    {
+        for ( TableName tableName : new ArrayList<>( entries.keySet() ) )
+        {
+            if ( !tableNames.contains( tableName ) )
+            {
+                entries.remove( tableName );
+                changedTables.add( tableName );
+            }
+        }
+    }
+
+    // Tables added, altered or dropped since the cache was loaded
+    public Set<TableName> changedTables()
+    {
+        return Collections.unmodifiableSet( changedTables );
+    }
+
+    public void save() throws IOException
+    {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        root.set( "tables-to-exclude", exclusions );
+
+        ArrayNode tables = JsonNodeFactory.instance.arrayNode();
+        entries.values().forEach( entry ->
+        {
+            ObjectNode tableNode = JsonNodeFactory.instance.objectNode();
+            tableNode.put( "ddl-marker", entry.ddlMarker );
+            tableNode.set( "table-info", entry.tableInfo.toJson() );
+            tables.add( tableNode );
+        } );
+        root.set( "tables", tables );
+
+        FileUtils.writeAtomically( file, output -> new ObjectMapper().writeValue( output, root ) );
+    }
+
+    private static ArrayNode exclusionsToJson( List<String> tablesToExclude )
+    {
+        List<String> sortedExclusions = new ArrayList<>();
+        tablesToExclude.stream().filter( Objects::nonNull ).map( String::toLowerCase ).sorted()
+                .forEach( sortedExclusions::add );
+
+        ArrayNode array = JsonNodeFactory.instance.arrayNode();
+        sortedExclusions.forEach( array::add );
+
+        return array;
+    }
+
+    private static class CachedTableInfo
+    {
+        private final String ddlMarker;
+        private final TableInfo tableInfo;
+
+        CachedTableInfo( String ddlMarker, TableInfo tableInfo )
+        {
+            this.ddlMarker = ddlMarker;
+            this.tableInfo = tableInfo;
+        }
+    }
+}
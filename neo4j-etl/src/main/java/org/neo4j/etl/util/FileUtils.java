@@ -1,12 +1,18 @@
 package org.neo4j.etl.util;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.stream.Stream;
 
@@ -26,6 +32,63 @@ public class FileUtils
         return files == null ? Stream.<Path>empty() : asList( files ).stream().map( File::toPath );
     }
 
+    // Writes the file by way of a temporary file alongside it, which is flushed to disk before being renamed over the
+    // file, so that an interrupted run or a crash leaves either the old contents or the new, never a truncated file
+    public static void writeAtomically( Path file, IOConsumer<OutputStream> contents ) throws IOException
+    {
+        Path tempFile = file.resolveSibling( file.getFileName() + ".tmp" );
+
+        try
+        {
+            try ( FileChannel channel = FileChannel.open( tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) )
+            {
+                // Writers such as Jackson close the stream they're given, which mustn't close the channel before
+                // it has been forced
+                OutputStream output = new BufferedOutputStream( Channels.newOutputStream( channel ) )
+                {
+                    @Override
+                    public void close() throws IOException
+                    {
+                        flush();
+                    }
+                };
+
+                contents.accept( output );
+                output.flush();
+                channel.force( true );
+            }
+
+            Files.move( tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            Files.deleteIfExists( tempFile );
+            throw e;
+        }
+
+        forceDirectory( file.toAbsolutePath().getParent() );
+    }
+
+    // Makes the rename itself durable. Not every platform can open a directory (Windows can't), in which case the
+    // rename is left to the file system.
+    private static void forceDirectory( Path directory )
+    {
+        try ( FileChannel channel = FileChannel.open( directory, StandardOpenOption.READ ) )
+        {
+            channel.force( true );
+        }
+        catch ( IOException e )
+        {
+            // Best effort
+        }
+    }
+
+    public interface IOConsumer<T>
+    {
+        void accept( T value ) throws IOException;
+    }
+
     public static void deleteRecursively( Path start ) throws IOException
     {
         if ( Files.notExists( start ) )
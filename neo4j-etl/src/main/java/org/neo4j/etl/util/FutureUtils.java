@@ -61,6 +61,25 @@ public class FutureUtils
         return result;
     }
 
+    // Returns a future that completes once all of the futures have completed successfully, or fails as soon as
+    // any one of them fails.
+    public static CompletableFuture<Void> allOrFirstFailure( CompletableFuture<?>... futures )
+    {
+        CompletableFuture<Void> result = CompletableFuture.allOf( futures );
+
+        for ( CompletableFuture<?> future : futures )
+        {
+            future.whenComplete( ( value, e ) -> {
+                if ( e != null )
+                {
+                    result.completeExceptionally( e );
+                }
+            } );
+        }
+
+        return result;
+    }
+
     // Returns a future that either completes successfully or throws an exception.
     public static <T> CompletableFuture<T> exceptionableFuture( Supplier<T> supplier )
     {
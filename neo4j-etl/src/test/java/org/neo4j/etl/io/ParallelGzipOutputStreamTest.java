@@ -0,0 +1,66 @@
+package org.neo4j.etl.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ParallelGzipOutputStreamTest
+{
+    private final ExecutorService executor = Executors.newFixedThreadPool( 3 );
+
+    @After
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteBlocksAsGzipMembersThatDecompressToOriginalBytes() throws Exception
+    {
+        // given
+        byte[] expected = new byte[10_000];
+        new Random( 42 ).nextBytes( expected );
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        // when
+        try ( ParallelGzipOutputStream output = new ParallelGzipOutputStream( compressed, executor, 1024, 2 ) )
+        {
+            output.write( expected, 0, 3000 );
+            output.write( expected[3000] );
+            output.write( expected, 3001, expected.length - 3001 );
+        }
+
+        // then
+        try ( InputStream input = new GZIPInputStream( new ByteArrayInputStream( compressed.toByteArray() ) ) )
+        {
+            assertArrayEquals( expected, IOUtils.toByteArray( input ) );
+        }
+    }
+
+    @Test
+    public void shouldWriteValidGzipFileWhenNothingIsWritten() throws Exception
+    {
+        // given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        // when
+        new ParallelGzipOutputStream( compressed, executor, 3 ).close();
+
+        // then
+        try ( InputStream input = new GZIPInputStream( new ByteArrayInputStream( compressed.toByteArray() ) ) )
+        {
+            assertArrayEquals( new byte[0], IOUtils.toByteArray( input ) );
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.neo4j.etl.neo4j.importcsv.config;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.ImportToolOptions;
+import org.neo4j.etl.neo4j.importcsv.fields.IdType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ImportToolTuningTest
+{
+    private static final long MB = 1024L * 1024;
+    private static final long GB = 1024 * MB;
+
+    @Test
+    public void shouldSizeHeapAndMaxMemoryFromExportedRowsAndHost() throws Exception
+    {
+        // given
+        Manifest manifest = new Manifest()
+                .add( new ManifestEntry( GraphObjectType.Node, csvFiles( "users" ), 100_000_000L, 6 * GB ) )
+                .add( new ManifestEntry( GraphObjectType.Relationship, csvFiles( "follows" ), 500_000_000L, 4 * GB ) );
+
+        // when
+        ImportToolTuning tuning = ImportToolTuning.tune( manifest, IdType.String, 16, 64 * GB );
+
+        // then
+        assertEquals( 16, tuning.processors() );
+        assertEquals( GB + 10 * GB / 64 + 16 * 64 * MB, tuning.heapSize() );
+        assertEquals( 2 * (100_000_000L * 64 + 500_000_000L * 24), tuning.maxMemory() );
+    }
+
+    @Test
+    public void shouldLimitHeapAndMaxMemoryToWhatTheHostHas() throws Exception
+    {
+        // given
+        Manifest manifest = new Manifest()
+                .add( new ManifestEntry( GraphObjectType.Node, csvFiles( "users" ), 1_000_000_000L, GB ) );
+
+        // when
+        ImportToolTuning tuning = ImportToolTuning.tune( manifest, IdType.Integer, 16, 8 * GB );
+
+        // then
+        assertEquals( 7 * GB / 4, tuning.heapSize() );
+        assertEquals( 7 * GB - 7 * GB / 4, tuning.maxMemory() );
+    }
+
+    @Test
+    public void shouldOnlySetProcessorsWhenRowCountsAreNotKnown() throws Exception
+    {
+        // given
+        Manifest manifest = new Manifest().add( new ManifestEntry( GraphObjectType.Node, csvFiles( "users" ) ) );
+
+        // when
+        ImportToolTuning tuning = ImportToolTuning.tune( manifest, IdType.String, 8, 64 * GB );
+        ImportToolOptions options =
+                tuning.applyTo( new ImportToolOptions( Collections.emptyMap() ), option -> true );
+
+        // then
+        assertEquals( 0, tuning.heapSize() );
+        assertEquals( 0, tuning.maxMemory() );
+        assertTrue( tuning.environment().isEmpty() );
+        assertTrue( options.contains( "processors" ) );
+        assertFalse( options.contains( "max-memory" ) );
+    }
+
+    @Test
+    public void shouldOnlySetMaxMemoryWhenImportToolSupportsIt() throws Exception
+    {
+        // given
+        Manifest manifest = new Manifest()
+                .add( new ManifestEntry( GraphObjectType.Node, csvFiles( "users" ), 100_000_000L, 6 * GB ) );
+        ImportToolTuning tuning = ImportToolTuning.tune( manifest, IdType.String, 16, 64 * GB );
+        ImportToolOptions importToolOptions = new ImportToolOptions( Collections.emptyMap() );
+
+        // when
+        ImportToolOptions supported = tuning.applyTo( importToolOptions, option -> true );
+        ImportToolOptions unsupported = tuning.applyTo( importToolOptions, option -> !option.equals( "max-memory" ) );
+
+        // then
+        assertTrue( supported.contains( "max-memory" ) );
+        assertFalse( unsupported.contains( "max-memory" ) );
+        assertTrue( unsupported.contains( "processors" ) );
+    }
+
+    private static CsvFiles csvFiles( String name )
+    {
+        return new CsvFiles( Paths.get( name + "_headers.csv" ), Paths.get( name + ".csv" ) );
+    }
+}
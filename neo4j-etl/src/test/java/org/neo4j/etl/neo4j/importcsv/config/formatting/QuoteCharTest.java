@@ -37,4 +37,70 @@ public class QuoteCharTest
         // then
         assertEquals( quoteChar.value() + "some\\\\\\\\text\\\\" + quoteChar.value(), quotedValue );
     }
+
+    @Test
+    public void shouldWriteValueWithNothingToEscapeUnchanged() throws IOException
+    {
+        // given
+        QuoteChar quoteChar = QuoteChar.TICK_QUOTES;
+
+        // when
+        String quotedValue = quoteChar.enquote( "1 Main Street, Springfield" );
+
+        // then
+        assertEquals( "`1 Main Street, Springfield`", quotedValue );
+    }
+
+    @Test
+    public void shouldEscapeQuoteAndEscapeCharsAppearingTogether() throws IOException
+    {
+        // given
+        QuoteChar quoteChar = QuoteChar.SINGLE_QUOTES;
+
+        // when
+        String quotedValue = quoteChar.enquote( "'it\\'s'" );
+
+        // then
+        assertEquals( "'''it\\\\''s'''", quotedValue );
+    }
+
+    @Test
+    public void shouldOnlyEscapeEscapeCharsWhenThereIsNoQuoteChar() throws IOException
+    {
+        // given
+        QuoteChar quoteChar = QuoteChar.NO_QUOTES;
+
+        // when
+        String quotedValue = quoteChar.enquote( "a\\b'c" );
+
+        // then
+        assertEquals( "a\\\\b'c", quotedValue );
+    }
+
+    @Test
+    public void shouldWriteEmptyValueAsEmptyQuotes() throws IOException
+    {
+        // given
+        QuoteChar quoteChar = QuoteChar.TICK_QUOTES;
+
+        // when
+        String quotedValue = quoteChar.enquote( "" );
+
+        // then
+        assertEquals( "``", quotedValue );
+    }
+
+    @Test
+    public void shouldDequoteEnquotedValue() throws IOException
+    {
+        // given
+        QuoteChar quoteChar = QuoteChar.SINGLE_QUOTES;
+        String value = "'it\\'s'";
+
+        // when
+        String dequotedValue = quoteChar.dequote( quoteChar.enquote( value ) );
+
+        // then
+        assertEquals( value, dequotedValue );
+    }
 }
@@ -0,0 +1,120 @@
+package org.neo4j.etl.neo4j.importcsv.io;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.neo4j.etl.io.InMemoryStreamRecorder;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+
+public class ImportProgressParserTest
+{
+    private final SteppingClock clock = new SteppingClock();
+    private final List<String> progress = new ArrayList<>();
+    private final InMemoryStreamRecorder recorder = new InMemoryStreamRecorder();
+
+    @Test
+    public void shouldPublishNumberedStagesAndPercentages() throws Exception
+    {
+        // given
+        ImportProgressParser<String> parser =
+                new ImportProgressParser<>( recorder, p -> progress.add( p.toString() ), clock );
+
+        // when
+        parser.onLine( "Import starting 2018-03-28 10:40:38.153+0000" );
+        parser.onLine( "(1/4) Node import 2018-03-28 10:40:38.540+0000" );
+        clock.advance( 30 );
+        parser.onLine( ".......... .......... .......... .......... ..........   5% \u22061s 5ms" );
+        clock.advance( 30 );
+        parser.onLine( "Node import COMPLETED in 1m" );
+        parser.onLine( "IMPORT DONE in 1m 2s 3ms." );
+        parser.onCompleted();
+
+        // then
+        assertEquals( asList(
+                "Node import (0s)",
+                "Node import 5% at 10.0%/min (30s)",
+                "Node import 100% (60s)",
+                "Import 100% (60s)" ), progress );
+        assertEquals( 5, recorder.awaitContents( 1, TimeUnit.SECONDS ).split( System.lineSeparator() ).length );
+    }
+
+    @Test
+    public void shouldPublishNamedStagesAndThrottleProgressBarRedraws() throws Exception
+    {
+        // given
+        ImportProgressParser<String> parser =
+                new ImportProgressParser<>( recorder, p -> progress.add( p.toString() ), clock );
+        String progressBar = "[*>:5.52 MB/s---|PROPERTIES(2)===|NOD|v:6.25 MB/s(2)---] 1M \u2206 298K";
+
+        // when
+        parser.onLine( "Nodes, started 2018-03-28 10:40:38.540+0000" );
+        clock.advance( 1 );
+        parser.onLine( progressBar );
+        clock.advance( 10 );
+        parser.onLine( progressBar );
+        parser.onLine( "Done in 11s 2ms" );
+
+        // then
+        assertEquals( asList(
+                "Nodes (0s)",
+                "Nodes at 5.52 MB/s (11s)",
+                "Nodes 100% (11s)" ), progress );
+    }
+
+    @Test
+    public void shouldKeepReadingOutputWhenListenerFails() throws Exception
+    {
+        // given
+        ImportProgressParser<String> parser = new ImportProgressParser<>( recorder, p ->
+        {
+            throw new IllegalStateException( "Unreachable" );
+        }, clock );
+
+        // when
+        parser.onLine( "(1/4) Node import 2018-03-28 10:40:38.540+0000" );
+        parser.onLine( "IMPORT DONE in 1s." );
+        parser.onCompleted();
+
+        // then
+        assertEquals( "(1/4) Node import 2018-03-28 10:40:38.540+0000" + System.lineSeparator() +
+                "IMPORT DONE in 1s.", recorder.awaitContents( 1, TimeUnit.SECONDS ) );
+    }
+
+    private static class SteppingClock extends Clock
+    {
+        private long millis;
+
+        void advance( long seconds )
+        {
+            millis += TimeUnit.SECONDS.toMillis( seconds );
+        }
+
+        @Override
+        public ZoneId getZone()
+        {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone( ZoneId zone )
+        {
+            return this;
+        }
+
+        @Override
+        public Instant instant()
+        {
+            return Instant.ofEpochMilli( millis );
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.neo4j.etl.sql;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import org.neo4j.etl.util.FutureUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionPoolTest
+{
+    private static final long NEVER = TimeUnit.HOURS.toMillis( 1 );
+
+    private final ConnectionConfig connectionConfig = ConnectionConfig.forDatabaseFromUrl( DatabaseType.MySQL )
+            .url( "jdbc:mysql://localhost:3306/test" )
+            .username( "user" )
+            .password( "password" )
+            .build();
+
+    private final List<StubConnection> connections = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldReuseReleasedConnections() throws Exception
+    {
+        // given
+        try ( ConnectionPool pool = pool( 0, 2, NEVER, NEVER ) )
+        {
+            Connection connection = pool.acquire();
+            pool.release( connection );
+
+            // when
+            Connection reused = pool.acquire();
+
+            // then
+            assertSame( connection, reused );
+            assertEquals( 1, connections.size() );
+        }
+    }
+
+    @Test
+    public void shouldBlockWhenAllConnectionsAreInUseUntilOneIsReleased() throws Exception
+    {
+        // given
+        try ( ConnectionPool pool = pool( 0, 1, NEVER, NEVER ) )
+        {
+            Connection connection = pool.acquire();
+            CompletableFuture<Connection> waiter = FutureUtils.exceptionableFuture( pool::acquire );
+
+            assertBlocked( waiter );
+
+            // when
+            pool.release( connection );
+
+            // then
+            assertSame( connection, waiter.get( 10, TimeUnit.SECONDS ) );
+            assertEquals( 1, connections.size() );
+        }
+    }
+
+    @Test
+    public void shouldEvictConnectionsIdleForLongerThanTimeout() throws Exception
+    {
+        // given
+        try ( ConnectionPool pool = pool( 0, 1, 50, NEVER ) )
+        {
+            Connection connection = pool.acquire();
+
+            // when
+            pool.release( connection );
+
+            // then
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( 10 );
+
+            while ( !connection.isClosed() && System.currentTimeMillis() < deadline )
+            {
+                Thread.sleep( 10 );
+            }
+
+            assertTrue( connection.isClosed() );
+            assertNotSame( connection, pool.acquire() );
+        }
+    }
+
+    @Test
+    public void shouldDiscardConnectionsThatFailValidation() throws Exception
+    {
+        // given
+        try ( ConnectionPool pool = pool( 0, 1, NEVER, 0 ) )
+        {
+            Connection connection = pool.acquire();
+            pool.release( connection );
+            connections.get( 0 ).valid = false;
+
+            // when
+            Connection replacement = pool.acquire();
+
+            // then
+            assertNotSame( connection, replacement );
+            assertTrue( connection.isClosed() );
+            assertFalse( replacement.isClosed() );
+        }
+    }
+
+    @Test
+    public void shouldDiscardClosedConnectionsWhenReleasedAndWakeWaiter() throws Exception
+    {
+        // given
+        try ( ConnectionPool pool = pool( 0, 1, NEVER, NEVER ) )
+        {
+            Connection connection = pool.acquire();
+            CompletableFuture<Connection> waiter = FutureUtils.exceptionableFuture( pool::acquire );
+
+            assertBlocked( waiter );
+
+            // when
+            connection.close();
+            pool.release( connection );
+
+            // then
+            assertNotSame( connection, waiter.get( 10, TimeUnit.SECONDS ) );
+            assertEquals( 2, connections.size() );
+        }
+    }
+
+    @Test
+    public void shouldReleaseWaitersWhenClosed() throws Exception
+    {
+        // given
+        ConnectionPool pool = pool( 0, 1, NEVER, NEVER );
+        Connection connection = pool.acquire();
+        CompletableFuture<Connection> waiter = FutureUtils.exceptionableFuture( pool::acquire );
+
+        assertBlocked( waiter );
+
+        // when
+        pool.close();
+
+        // then
+        try
+        {
+            waiter.get( 10, TimeUnit.SECONDS );
+            fail( "Expected SQLException" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertTrue( e.getCause() instanceof SQLException );
+        }
+
+        pool.release( connection );
+        assertTrue( connection.isClosed() );
+    }
+
+    private ConnectionPool pool( int minSize, int maxSize, long idleTimeoutMillis, long validationIntervalMillis )
+            throws SQLException
+    {
+        return new ConnectionPool( connectionConfig, () ->
+        {
+            StubConnection connection = new StubConnection();
+            connections.add( connection );
+            return connection.proxy;
+        }, minSize, maxSize, idleTimeoutMillis, validationIntervalMillis );
+    }
+
+    private static void assertBlocked( CompletableFuture<Connection> waiter ) throws Exception
+    {
+        try
+        {
+            waiter.get( 100, TimeUnit.MILLISECONDS );
+            fail( "Expected acquire to block" );
+        }
+        catch ( TimeoutException e )
+        {
+            // expected
+        }
+    }
+
+    // Only the methods the pool calls are implemented
+    private static class StubConnection
+    {
+        private final Connection proxy;
+        private volatile boolean closed;
+        private volatile boolean valid = true;
+
+        StubConnection()
+        {
+            this.proxy = (Connection) Proxy.newProxyInstance( getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, ( p, method, args ) ->
+                    {
+                        switch ( method.getName() )
+                        {
+                        case "isClosed":
+                            return closed;
+                        case "close":
+                            closed = true;
+                            return null;
+                        case "getAutoCommit":
+                            return true;
+                        case "createStatement":
+                            return statement();
+                        case "hashCode":
+                            return System.identityHashCode( p );
+                        case "equals":
+                            return p == args[0];
+                        default:
+                            throw new UnsupportedOperationException( method.getName() );
+                        }
+                    } );
+        }
+
+        private Statement statement()
+        {
+            return (Statement) Proxy.newProxyInstance( getClass().getClassLoader(),
+                    new Class<?>[]{Statement.class}, ( p, method, args ) ->
+                    {
+                        if ( method.getName().equals( "execute" ) && !valid )
+                        {
+                            throw new SQLException( "Connection reset" );
+                        }
+
+                        return method.getName().equals( "execute" ) ? Boolean.TRUE : null;
+                    } );
+        }
+    }
+}
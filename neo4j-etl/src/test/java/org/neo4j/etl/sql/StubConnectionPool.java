@@ -0,0 +1,16 @@
+package org.neo4j.etl.sql;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// A pool for tests that never reach the database: any attempt to connect fails
+public class StubConnectionPool
+{
+    public static ConnectionPool connectionPool( ConnectionConfig connectionConfig ) throws SQLException
+    {
+        return new ConnectionPool( connectionConfig, () ->
+        {
+            throw new SQLException( "No database to connect to" );
+        }, 0, 1, TimeUnit.HOURS.toMillis( 1 ), TimeUnit.HOURS.toMillis( 1 ) );
+    }
+}
@@ -1,9 +1,13 @@
 package org.neo4j.etl.sql;
 
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import static java.lang.String.format;
+
 public class StubQueryResults implements QueryResults
 {
     public static Builder.SetColumns builder()
@@ -11,11 +15,15 @@ public class StubQueryResults implements QueryResults
         return new StubResultsBuilder();
     }
 
+    private final List<String> columns;
+    private final Map<String, Integer> columnTypes;
     private final List<Map<String, String>> rows;
     private int currentRowIndex = -1;
 
-    StubQueryResults( List<Map<String, String>> rows )
+    StubQueryResults( List<String> columns, Map<String, Integer> columnTypes, List<Map<String, String>> rows )
     {
+        this.columns = columns;
+        this.columnTypes = columnTypes;
         this.rows = rows;
     }
 
@@ -38,6 +46,40 @@ public class StubQueryResults implements QueryResults
         return rows.get( currentRowIndex ).get( columnLabel );
     }
 
+    @Override
+    public int findColumn( String columnLabel ) throws Exception
+    {
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            if ( columns.get( i ).equalsIgnoreCase( columnLabel ) )
+            {
+                return i + 1;
+            }
+        }
+
+        throw new IllegalArgumentException( format( "Unknown column: %s", columnLabel ) );
+    }
+
+    @Override
+    public String getString( int columnIndex )
+    {
+        return rows.get( currentRowIndex ).get( columns.get( columnIndex - 1 ) );
+    }
+
+    // Columns are VARCHARs unless given a type
+    @Override
+    public int getColumnType( int columnIndex ) throws Exception
+    {
+        return columnTypes.getOrDefault( columns.get( columnIndex - 1 ), Types.VARCHAR );
+    }
+
+    @Override
+    public Timestamp getTimestamp( int columnIndex )
+    {
+        String value = getString( columnIndex );
+        return value == null ? null : Timestamp.valueOf( value );
+    }
+
     @Override
     public void close() throws Exception
     {
@@ -51,6 +93,8 @@ public class StubQueryResults implements QueryResults
             Builder columns( String... columns );
         }
 
+        Builder columnType( String column, int sqlType );
+
         Builder addRow( String... rows );
 
         QueryResults build();
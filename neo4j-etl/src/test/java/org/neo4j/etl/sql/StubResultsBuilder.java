@@ -10,6 +10,7 @@ import static java.util.Arrays.asList;
 
 class StubResultsBuilder implements StubQueryResults.Builder.SetColumns, StubQueryResults.Builder
 {
+    private final Map<String, Integer> columnTypes = new HashMap<>();
     private final List<Map<String, String>> rows = new ArrayList<>();
     private List<String> columns;
 
@@ -20,6 +21,13 @@ class StubResultsBuilder implements StubQueryResults.Builder.SetColumns, StubQue
         return this;
     }
 
+    @Override
+    public StubQueryResults.Builder columnType( String column, int sqlType )
+    {
+        columnTypes.put( column, sqlType );
+        return this;
+    }
+
     @Override
     public StubQueryResults.Builder addRow( String... values )
     {
@@ -44,6 +52,6 @@ class StubResultsBuilder implements StubQueryResults.Builder.SetColumns, StubQue
     @Override
     public QueryResults build()
     {
-        return new StubQueryResults( rows );
+        return new StubQueryResults( columns, columnTypes, rows );
     }
 }
@@ -0,0 +1,52 @@
+package org.neo4j.etl.sql.exportcsv;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.etl.util.ResourceRule;
+import org.neo4j.etl.util.TemporaryDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class DeltaStateTest
+{
+    @Rule
+    public final ResourceRule<Path> tempDirectory = new ResourceRule<>( TemporaryDirectory.temporaryDirectory() );
+
+    @Test
+    public void shouldReturnSavedHighWaterMarkForSameWatermarkColumn() throws Exception
+    {
+        // given
+        Path file = tempDirectory.get().resolve( "delta-state.json" );
+
+        DeltaState state = DeltaState.load( file );
+        state.advance( "Person", "test.Person.updated_at", "2017-03-01 10:15:00.0" );
+        state.save();
+
+        // when
+        DeltaState reloaded = DeltaState.load( file );
+
+        // then
+        assertEquals( Optional.of( "2017-03-01 10:15:00.0" ),
+                reloaded.highWaterMark( "Person", "test.Person.updated_at" ) );
+        assertFalse( reloaded.highWaterMark( "Person", "test.Person.id" ).isPresent() );
+        assertFalse( reloaded.highWaterMark( "Address", "test.Address.updated_at" ).isPresent() );
+    }
+
+    @Test
+    public void shouldNotSaveAdvancedHighWaterMarksUntilAsked() throws Exception
+    {
+        // given
+        Path file = tempDirectory.get().resolve( "delta-state.json" );
+
+        // when
+        DeltaState.load( file ).advance( "Person", "test.Person.id", "42" );
+
+        // then
+        assertFalse( DeltaState.load( file ).highWaterMark( "Person", "test.Person.id" ).isPresent() );
+    }
+}
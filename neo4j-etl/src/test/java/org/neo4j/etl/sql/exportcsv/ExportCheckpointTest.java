@@ -0,0 +1,129 @@
+package org.neo4j.etl.sql.exportcsv;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.ManifestEntry;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.exportcsv.io.ExportedFile;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+import org.neo4j.etl.util.ResourceRule;
+import org.neo4j.etl.util.TemporaryDirectory;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExportCheckpointTest
+{
+    @Rule
+    public final ResourceRule<Path> tempDirectory = new ResourceRule<>( TemporaryDirectory.temporaryDirectory() );
+
+    private static final String OPTIONS = "tinyint=BYTE,hash-composite-keys=false";
+
+    private final ColumnUtil columnUtil = new ColumnUtil();
+    private final TableName person = new TableName( "test.Person" );
+
+    @Test
+    public void shouldReturnRecordedEntryForUnchangedMappingWhenResuming() throws Exception
+    {
+        // given
+        Path destination = tempDirectory.get();
+        MetadataMapping resource = mapping( "SELECT id FROM Person" );
+        Path header = write( destination.resolve( "Person_headers.csv" ), ":ID" );
+        ExportedFile body = exportedFile( destination.resolve( "Person.csv" ), "\"1\"\n\"2\"\n", 2 );
+
+        ExportCheckpoint.load( destination, false, OPTIONS ).record( resource, header, singletonList( body ) );
+
+        // when
+        Optional<ManifestEntry> completed = ExportCheckpoint.load( destination, true, OPTIONS ).completed( resource );
+
+        // then
+        assertTrue( completed.isPresent() );
+        assertEquals( GraphObjectType.Node, completed.get().graphObjectType() );
+        assertEquals( asList( header, body.path() ), completed.get().csvFiles().asCollection() );
+
+        assertFalse( ExportCheckpoint.load( destination, false, OPTIONS ).completed( resource ).isPresent() );
+        assertFalse( ExportCheckpoint.load( destination, true, OPTIONS )
+                .completed( mapping( "SELECT id FROM Person WHERE id > 1" ) ).isPresent() );
+    }
+
+    @Test
+    public void shouldNotReturnEntryWhoseFilesHaveChanged() throws Exception
+    {
+        // given
+        Path destination = tempDirectory.get();
+        MetadataMapping resource = mapping( "SELECT id FROM Person" );
+        Path header = write( destination.resolve( "Person_headers.csv" ), ":ID" );
+        ExportedFile body = exportedFile( destination.resolve( "Person.csv" ), "\"1\"\n\"2\"\n", 2 );
+
+        ExportCheckpoint.load( destination, false, OPTIONS ).record( resource, header, singletonList( body ) );
+
+        // when
+        write( body.path(), "\"1\"\n\"3\"\n" );
+
+        // then
+        assertFalse( ExportCheckpoint.load( destination, true, OPTIONS ).completed( resource ).isPresent() );
+    }
+
+    @Test
+    public void shouldNotReturnEntryExportedWithDifferentOptions() throws Exception
+    {
+        // given
+        Path destination = tempDirectory.get();
+        MetadataMapping resource = mapping( "SELECT id FROM Person" );
+        Path header = write( destination.resolve( "Person_headers.csv" ), ":ID" );
+        ExportedFile body = exportedFile( destination.resolve( "Person.csv" ), "\"1\"\n\"2\"\n", 2 );
+
+        ExportCheckpoint.load( destination, false, OPTIONS ).record( resource, header, singletonList( body ) );
+
+        // when
+        Optional<ManifestEntry> completed = ExportCheckpoint.load( destination, true,
+                "tinyint=BYTE,hash-composite-keys=true" ).completed( resource );
+
+        // then
+        assertFalse( completed.isPresent() );
+    }
+
+    private MetadataMapping mapping( String sql )
+    {
+        ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+                .withFormatting( Formatting.DEFAULT )
+                .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( person, "id", ColumnRole.PrimaryKey ),
+                        CsvField.id() ) )
+                .build();
+
+        return new MetadataMapping( "Person", GraphObjectType.Node, sql, mappings );
+    }
+
+    private static ExportedFile exportedFile( Path file, String contents, long rows ) throws Exception
+    {
+        write( file, contents );
+
+        CRC32 crc = new CRC32();
+        crc.update( Files.readAllBytes( file ) );
+
+        return new ExportedFile( file, rows, Files.size( file ), crc.getValue() );
+    }
+
+    private static Path write( Path file, String contents ) throws Exception
+    {
+        return Files.write( file, contents.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
@@ -0,0 +1,257 @@
+package org.neo4j.etl.sql.exportcsv;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.ImportConfig;
+import org.neo4j.etl.neo4j.importcsv.config.Manifest;
+import org.neo4j.etl.neo4j.importcsv.config.NodeConfig;
+import org.neo4j.etl.neo4j.importcsv.config.RelationshipConfig;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.sql.ConnectionConfig;
+import org.neo4j.etl.sql.ConnectionPool;
+import org.neo4j.etl.sql.DatabaseType;
+import org.neo4j.etl.sql.StubConnectionPool;
+import org.neo4j.etl.sql.exportcsv.io.ExportedFile;
+import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.SizeEstimate;
+import org.neo4j.etl.sql.exportcsv.mapping.TinyIntAs;
+import org.neo4j.etl.sql.exportcsv.services.ResourceToCsvFilesService;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+import org.neo4j.etl.util.ResourceRule;
+import org.neo4j.etl.util.TemporaryDirectory;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExportToCsvCommandTest
+{
+    @Rule
+    public final ResourceRule<Path> tempDirectory = new ResourceRule<>( TemporaryDirectory.temporaryDirectory() );
+
+    private final ColumnUtil columnUtil = new ColumnUtil();
+
+    private final ConnectionConfig connectionConfig = ConnectionConfig.forDatabaseFromUrl( DatabaseType.MySQL )
+            .url( "jdbc:mysql://localhost:3306/test" )
+            .username( "user" )
+            .password( "password" )
+            .build();
+
+    @Test
+    public void shouldAddEntriesToManifestInMappingOrderWhateverOrderTheyAreExportedIn() throws Exception
+    {
+        // given
+        List<String> exported = new CopyOnWriteArrayList<>();
+
+        // The largest mappings are exported first, so a single worker exports these in reverse order
+        MetadataMappings mappings = new MetadataMappings()
+                .add( mapping( "Person", 100 ) )
+                .add( mapping( "City", 200 ) )
+                .add( mapping( "Country", 300 ) );
+
+        StubExportService exportService = new StubExportService( ( resource, file ) ->
+        {
+            exported.add( resource.name() );
+            return exportedFile( file );
+        } );
+
+        // when
+        Manifest manifest = export( mappings, 1, exportService );
+
+        // then
+        assertEquals( asList( "Country", "City", "Person" ), exported );
+        assertEquals( asList( nodeConfig( "Person" ), nodeConfig( "City" ), nodeConfig( "Country" ) ),
+                nodeConfigs( manifest ) );
+    }
+
+    @Test
+    public void shouldReportFirstFailureAndAbandonExportsStillRunning() throws Exception
+    {
+        // given
+        CountDownLatch personStarted = new CountDownLatch( 1 );
+        CountDownLatch personInterrupted = new CountDownLatch( 1 );
+        IllegalStateException failure = new IllegalStateException( "Unable to export City" );
+
+        // City is exported first, and fails while Person, which comes before it in the manifest, is still running
+        MetadataMappings mappings = new MetadataMappings()
+                .add( mapping( "Person", 100 ) )
+                .add( mapping( "City", 200 ) );
+
+        StubExportService exportService = new StubExportService( ( resource, file ) ->
+        {
+            if ( resource.name().equals( "City" ) )
+            {
+                assertTrue( personStarted.await( 10, TimeUnit.SECONDS ) );
+                throw failure;
+            }
+
+            personStarted.countDown();
+
+            try
+            {
+                Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+            }
+            catch ( InterruptedException e )
+            {
+                personInterrupted.countDown();
+                throw e;
+            }
+
+            return exportedFile( file );
+        } );
+
+        // when
+        try
+        {
+            export( mappings, 2, exportService );
+            fail( "Expected IllegalStateException" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+
+        assertTrue( personInterrupted.await( 10, TimeUnit.SECONDS ) );
+    }
+
+    private Manifest export( MetadataMappings mappings, int workers, StubExportService exportService )
+            throws Exception
+    {
+        ExportToCsvConfig config = ExportToCsvConfig.builder()
+                .destination( tempDirectory.get() )
+                .connectionConfig( connectionConfig )
+                .formatting( Formatting.DEFAULT )
+                .exportThreads( workers )
+                .build();
+
+        try ( ConnectionPool connectionPool = StubConnectionPool.connectionPool( connectionConfig ) )
+        {
+            return new ExportToCsvCommand( config, mappings, new TinyIntResolver( TinyIntAs.BYTE ), connectionPool,
+                    ( headerFileWriter, csvFileWriter ) -> exportService ).execute();
+        }
+    }
+
+    private MetadataMapping mapping( String name, long rows )
+    {
+        TableName table = new TableName( "test." + name );
+
+        ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+                .withFormatting( Formatting.DEFAULT )
+                .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                        CsvField.id() ) )
+                .build();
+
+        return new MetadataMapping( name, GraphObjectType.Node, "SELECT id FROM " + name, mappings, Optional.empty(),
+                Optional.of( new SizeEstimate( rows, rows * 10 ) ) );
+    }
+
+    private NodeConfig nodeConfig( String name )
+    {
+        return NodeConfig.builder()
+                .addInputFiles( asList( headerFile( name ), exportFile( name ) ) )
+                .build();
+    }
+
+    private Path headerFile( String name )
+    {
+        return tempDirectory.get().resolve( name + "_headers.csv" );
+    }
+
+    private Path exportFile( String name )
+    {
+        return tempDirectory.get().resolve( name + ".csv" );
+    }
+
+    private static ExportedFile exportedFile( Path file ) throws Exception
+    {
+        Files.write( file, "\"1\"\n".getBytes( StandardCharsets.UTF_8 ) );
+        return new ExportedFile( file, 1, Files.size( file ), 0 );
+    }
+
+    private static List<NodeConfig> nodeConfigs( Manifest manifest )
+    {
+        List<NodeConfig> nodeConfigs = new ArrayList<>();
+
+        manifest.addNodesAndRelationshipsToBuilder( new ImportConfig.Builder()
+        {
+            @Override
+            public ImportConfig.Builder addNodeConfig( NodeConfig nodeConfig )
+            {
+                nodeConfigs.add( nodeConfig );
+                return this;
+            }
+
+            @Override
+            public ImportConfig.Builder addRelationshipConfig( RelationshipConfig relationshipConfig )
+            {
+                return this;
+            }
+
+            @Override
+            public ImportConfig.Builder environment( Map<String, String> environment )
+            {
+                return this;
+            }
+
+            @Override
+            public ImportConfig build()
+            {
+                throw new UnsupportedOperationException();
+            }
+        } );
+
+        return nodeConfigs;
+    }
+
+    private interface Export
+    {
+        ExportedFile export( MetadataMapping resource, Path file ) throws Exception;
+    }
+
+    // Writes each mapping's files itself rather than querying the database
+    private class StubExportService extends ResourceToCsvFilesService
+    {
+        private final Export export;
+
+        StubExportService( Export export )
+        {
+            super( null, null );
+            this.export = export;
+        }
+
+        @Override
+        public Path writeHeaderFile( MetadataMapping resource ) throws Exception
+        {
+            return Files.write( headerFile( resource.name() ), ":ID".getBytes( StandardCharsets.UTF_8 ) );
+        }
+
+        @Override
+        public ExportedFile writeExportFile( MetadataMapping resource ) throws Exception
+        {
+            return export.export( resource, exportFile( resource.name() ) );
+        }
+    }
+}
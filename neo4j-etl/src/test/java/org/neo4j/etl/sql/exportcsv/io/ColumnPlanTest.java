@@ -0,0 +1,161 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.IdSpace;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.StubQueryResults;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.mapping.TinyIntAs;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.ColumnValueSelectionStrategy;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+import org.neo4j.etl.sql.metadata.SqlDataType;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnPlanTest
+{
+    private ColumnUtil columnUtil = new ColumnUtil();
+    private TableName table = new TableName( "test.users" );
+
+    @Test
+    public void shouldReadValuesByPositionRegardlessOfColumnOrderInResults() throws Exception
+    {
+        // given
+        QueryResults results = StubQueryResults.builder()
+                .columns( "username", "ID" )
+                .addRow( "user-1", "1" )
+                .build();
+
+        Column[] columns = {
+                columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                columnUtil.column( table, "username", ColumnRole.Data )};
+
+        ColumnPlan plan = ColumnPlan.compile( columns, results, new TinyIntResolver( TinyIntAs.BYTE ) );
+        String[] values = new String[plan.size()];
+
+        // when
+        results.next();
+        plan.read( results, 1, values );
+
+        // then
+        assertArrayEquals( new String[]{"1", "user-1"}, values );
+        assertTrue( plan.isKey( 0 ) );
+        assertFalse( plan.isKey( 1 ) );
+    }
+
+    @Test
+    public void shouldJoinCompositeColumnValuesAndReturnEmptyIfAnyPartIsMissing() throws Exception
+    {
+        // given
+        QueryResults results = StubQueryResults.builder()
+                .columns( "first_name", "last_name" )
+                .addRow( "Jane", "Smith" )
+                .addRow( "John", null )
+                .build();
+
+        Column[] columns = {
+                columnUtil.compositeKeyColumn( table, asList( "first_name", "last_name" ), ColumnRole.PrimaryKey )};
+
+        ColumnPlan plan = ColumnPlan.compile( columns, results, new TinyIntResolver( TinyIntAs.BYTE ) );
+        String[] values = new String[plan.size()];
+
+        // when
+        results.next();
+        plan.read( results, 1, values );
+        String first = values[0];
+
+        results.next();
+        plan.read( results, 2, values );
+        String second = values[0];
+
+        // then
+        assertArrayEquals( new String[]{"Jane\0Smith", ""}, new String[]{first, second} );
+    }
+
+    @Test
+    public void shouldUseRowIndexForSyntheticKeyAndConvertTinyIntToBoolean() throws Exception
+    {
+        // given
+        QueryResults results = StubQueryResults.builder()
+                .columns( "active" )
+                .addRow( "0" )
+                .addRow( (String) null )
+                .build();
+
+        Column[] columns = {
+                new SimpleColumn( table, "_ROW_INDEX_", ColumnRole.PrimaryKey, SqlDataType.INT,
+                        ColumnValueSelectionStrategy.SelectRowIndex, Formatting.DEFAULT ),
+                new SimpleColumn( table, "active", ColumnRole.Data, SqlDataType.TINYINT,
+                        ColumnValueSelectionStrategy.SelectColumnValue, Formatting.DEFAULT )};
+
+        ColumnPlan plan = ColumnPlan.compile( columns, results, new TinyIntResolver( TinyIntAs.BOOLEAN ) );
+        String[] values = new String[plan.size()];
+
+        // when
+        results.next();
+        plan.read( results, 1, values );
+        String[] first = values.clone();
+
+        results.next();
+        plan.read( results, 2, values );
+
+        // then
+        assertArrayEquals( new String[]{"1", "false"}, first );
+        assertArrayEquals( new String[]{"2", null}, values );
+    }
+
+    @Test
+    public void shouldWriteCompositeIdsAsTheSameHashedIdForNodesAndRelationships() throws Exception
+    {
+        // given
+        QueryResults nodeResults = StubQueryResults.builder()
+                .columns( "first_name", "last_name" )
+                .addRow( "Jane", "Smith" )
+                .build();
+        QueryResults relationshipResults = StubQueryResults.builder()
+                .columns( "first_name", "last_name" )
+                .addRow( "Jane", "Smith" )
+                .build();
+
+        Column[] nodeColumns = {
+                columnUtil.compositeKeyColumn( table, asList( "first_name", "last_name" ), ColumnRole.PrimaryKey )};
+        Column[] relationshipColumns = {
+                columnUtil.compositeKeyColumn( table, asList( "first_name", "last_name" ), ColumnRole.ForeignKey )};
+
+        CompositeKeyEncoder keyEncoder = new CompositeKeyEncoder();
+        TinyIntResolver tinyIntResolver = new TinyIntResolver( TinyIntAs.BYTE );
+
+        ColumnPlan nodePlan = ColumnPlan.compile( nodeColumns,
+                new CsvField[]{CsvField.id( new IdSpace( "test.users" ) )},
+                nodeResults, tinyIntResolver, keyEncoder, true );
+        ColumnPlan relationshipPlan = ColumnPlan.compile( relationshipColumns,
+                new CsvField[]{CsvField.startId( new IdSpace( "test.users" ) )},
+                relationshipResults, tinyIntResolver, keyEncoder, false );
+
+        String[] nodeValues = new String[1];
+        String[] relationshipValues = new String[1];
+
+        // when
+        nodeResults.next();
+        nodePlan.read( nodeResults, 1, nodeValues );
+
+        relationshipResults.next();
+        relationshipPlan.read( relationshipResults, 1, relationshipValues );
+
+        // then
+        assertEquals( Long.toString( CompositeKeyEncoder.id( "Jane\0Smith" ) ), nodeValues[0] );
+        assertEquals( nodeValues[0], relationshipValues[0] );
+        assertFalse( nodePlan.useQuotes( 0 ) );
+    }
+}
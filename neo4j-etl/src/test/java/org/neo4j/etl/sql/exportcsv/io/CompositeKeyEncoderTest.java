@@ -0,0 +1,45 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompositeKeyEncoderTest
+{
+    @Test
+    public void shouldEncodeKeysAsStableNonNegativeIds()
+    {
+        // given
+        CompositeKeyEncoder encoder = new CompositeKeyEncoder();
+
+        // when
+        String id = encoder.encode( "test.person", "Jane\0Smith", true );
+
+        // then
+        assertEquals( id, new CompositeKeyEncoder().encode( "test.person", "Jane\0Smith", true ) );
+        assertEquals( id, encoder.encode( "test.person", "Jane\0Smith", true ) );
+        assertNotEquals( id, encoder.encode( "test.person", "Jane\0Smyth", true ) );
+        assertTrue( Long.parseLong( id ) >= 0 );
+        assertEquals( "", encoder.encode( "test.person", "", true ) );
+    }
+
+    @Test
+    public void shouldDetectDifferentKeysWithTheSameId()
+    {
+        // given
+        KeyFingerprintTable table = new KeyFingerprintTable();
+
+        // when
+        for ( long key = 0; key < 100_000; key++ )
+        {
+            assertTrue( table.putIfConsistent( key * 0x9e3779b97f4a7c1L & Long.MAX_VALUE, key ) );
+        }
+
+        // then
+        assertTrue( table.putIfConsistent( 42 * 0x9e3779b97f4a7c1L & Long.MAX_VALUE, 42 ) );
+        assertFalse( table.putIfConsistent( 42 * 0x9e3779b97f4a7c1L & Long.MAX_VALUE, 43 ) );
+    }
+}
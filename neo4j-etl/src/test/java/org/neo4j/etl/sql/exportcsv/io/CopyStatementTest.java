@@ -0,0 +1,133 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.QuoteChar;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.formatting.SqlQuotes;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMappingProvider;
+import org.neo4j.etl.sql.exportcsv.mapping.RelationshipNameFrom;
+import org.neo4j.etl.sql.exportcsv.mapping.RelationshipNameResolver;
+import org.neo4j.etl.sql.exportcsv.mapping.TinyIntAs;
+import org.neo4j.etl.sql.exportcsv.supplier.DefaultExportSqlSupplier;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.Join;
+import org.neo4j.etl.sql.metadata.JoinKey;
+import org.neo4j.etl.sql.metadata.Table;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class CopyStatementTest
+{
+    private static final Formatting POSTGRES_FORMATTING = Formatting.builder()
+            .sqlQuotes( new SqlQuotes( QuoteChar.DOUBLE_QUOTES, QuoteChar.DOUBLE_QUOTES, QuoteChar.DOUBLE_QUOTES,
+                    QuoteChar.SINGLE_QUOTES ) )
+            .build();
+
+    private final ColumnUtil columnUtil = new ColumnUtil();
+    private final TableName person = new TableName( "person" );
+    private final TableName city = new TableName( "city" );
+    private final TinyIntResolver tinyIntResolver = new TinyIntResolver( TinyIntAs.BYTE );
+    private final MetadataMappingProvider mappingProvider = new MetadataMappingProvider( POSTGRES_FORMATTING,
+            new DefaultExportSqlSupplier(), new RelationshipNameResolver( RelationshipNameFrom.TABLE_NAME ),
+            tinyIntResolver );
+
+    @Test
+    public void shouldWrapNodeMappingSqlInCopyStatement() throws Exception
+    {
+        assumeTrue( "\n".equals( System.lineSeparator() ) );
+
+        // given
+        Table table = Table.builder()
+                .name( person )
+                .addColumn( key( person, ColumnRole.PrimaryKey, "id" ) )
+                .addColumn( columnUtil.column( person, "username", ColumnRole.Data ) )
+                .build();
+
+        MetadataMapping resource = table.invoke( mappingProvider );
+
+        // when
+        Optional<String> statement = CopyStatement.create( resource, "SELECT ...", POSTGRES_FORMATTING,
+                tinyIntResolver );
+
+        // then
+        assertEquals( "COPY (SELECT " +
+                        "replace(NULLIF(export.\"id\"::text, ''), E'\\\\', E'\\\\\\\\') AS c1, " +
+                        "replace(NULLIF(export.\"id\"::text, ''), E'\\\\', E'\\\\\\\\') AS c2, " +
+                        "replace(NULLIF(export.\"username\"::text, ''), E'\\\\', E'\\\\\\\\') AS c3, " +
+                        "replace(NULLIF(('Person')::text, ''), E'\\\\', E'\\\\\\\\') AS c4 " +
+                        "FROM (SELECT ...) AS export) " +
+                        "TO STDOUT WITH (FORMAT csv, DELIMITER E'\\x2C', QUOTE E'\\x22', FORCE_QUOTE (c1, c2, c3, c4))",
+                statement.get() );
+    }
+
+    @Test
+    public void shouldWrapRelationshipMappingSqlInCopyStatementSkippingRowsWithoutKeys() throws Exception
+    {
+        assumeTrue( "\n".equals( System.lineSeparator() ) );
+
+        // given
+        Column personId = key( person, ColumnRole.PrimaryKey, "id" );
+        Join join = new Join(
+                new JoinKey( personId, personId ),
+                new JoinKey( key( person, ColumnRole.ForeignKey, "city_id" ),
+                        key( city, ColumnRole.PrimaryKey, "id" ) ) );
+
+        MetadataMapping resource = join.invoke( mappingProvider );
+
+        // when
+        Optional<String> statement = CopyStatement.create( resource, "SELECT ...", POSTGRES_FORMATTING,
+                tinyIntResolver );
+
+        // then
+        assertEquals( "COPY (SELECT " +
+                        "replace(NULLIF(export.\"id\"::text, ''), E'\\\\', E'\\\\\\\\') AS c1, " +
+                        "replace(NULLIF(export.\"city_id\"::text, ''), E'\\\\', E'\\\\\\\\') AS c2, " +
+                        "replace(NULLIF(('CITY')::text, ''), E'\\\\', E'\\\\\\\\') AS c3 " +
+                        "FROM (SELECT ...) AS export " +
+                        "WHERE NULLIF(export.\"id\"::text, '') IS NOT NULL " +
+                        "AND NULLIF(export.\"city_id\"::text, '') IS NOT NULL) " +
+                        "TO STDOUT WITH (FORMAT csv, DELIMITER E'\\x2C', QUOTE E'\\x22', FORCE_QUOTE (c1, c2, c3))",
+                statement.get() );
+    }
+
+    @Test
+    public void shouldNotCopyMappingsWithMultiColumnKeys() throws Exception
+    {
+        // given
+        Table table = Table.builder()
+                .name( person )
+                .addColumn( key( person, ColumnRole.PrimaryKey, "first_name", "last_name" ) )
+                .build();
+
+        MetadataMapping resource = table.invoke( mappingProvider );
+
+        // when
+        Optional<String> statement = CopyStatement.create( resource, "SELECT ...", POSTGRES_FORMATTING,
+                tinyIntResolver );
+
+        // then
+        assertFalse( statement.isPresent() );
+    }
+
+    // As assembled from the database's metadata, keys are always composite, however many columns they have
+    private Column key( TableName table, ColumnRole role, String... columnNames )
+    {
+        return new CompositeColumn( table,
+                Stream.of( columnNames )
+                        .map( name -> columnUtil.column( table, name, ColumnRole.Data ) )
+                        .collect( Collectors.toList() ),
+                role );
+    }
+}
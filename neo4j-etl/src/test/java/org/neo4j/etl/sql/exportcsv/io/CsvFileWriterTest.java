@@ -71,7 +71,7 @@ public class CsvFileWriterTest
 
         // when
         CsvFileWriter writer = new CsvFileWriter( config, databaseClient, new TinyIntResolver( TinyIntAs.BYTE ) );
-        Path exportFile = writer.writeExportFile( resource );
+        Path exportFile = writer.writeExportFile( resource ).path();
 
         // then
         List<String> contents = Files.readAllLines( exportFile );
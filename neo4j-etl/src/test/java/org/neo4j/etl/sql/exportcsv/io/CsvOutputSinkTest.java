@@ -0,0 +1,66 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CsvOutputSinkTest
+{
+    @Test
+    public void shouldWriteAsciiValues() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        try ( CsvOutputSink sink = new CsvOutputSink( Channels.newChannel( output ), ByteBuffer.allocate( 16 ) ) )
+        {
+            sink.write( "\"1\"\t\"user-1\"" );
+            sink.write( '\n' );
+        }
+
+        // then
+        assertEquals( "\"1\"\t\"user-1\"\n", new String( output.toByteArray(), StandardCharsets.UTF_8 ) );
+    }
+
+    @Test
+    public void shouldEncodeMultiByteCharactersAsUtf8AcrossBufferBoundaries() throws Exception
+    {
+        // given
+        String value = "Z\u00FCrich, \u0395\u03BB\u03BB\u03AC\u03B4\u03B1, \u6771\u4EAC, \uD83D\uDE00 and more";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        try ( CsvOutputSink sink = new CsvOutputSink( Channels.newChannel( output ), ByteBuffer.allocateDirect( 5 ) ) )
+        {
+            sink.write( value );
+        }
+
+        // then
+        assertArrayEquals( value.getBytes( StandardCharsets.UTF_8 ), output.toByteArray() );
+    }
+
+    @Test
+    public void shouldEncodeSurrogatePairSplitAcrossWrites() throws Exception
+    {
+        // given
+        String value = "\uD83D\uDE00";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        try ( CsvOutputSink sink = new CsvOutputSink( Channels.newChannel( output ), ByteBuffer.allocate( 8 ) ) )
+        {
+            sink.write( value.charAt( 0 ) );
+            sink.write( value, 1, 1 );
+        }
+
+        // then
+        assertArrayEquals( value.getBytes( StandardCharsets.UTF_8 ), output.toByteArray() );
+    }
+}
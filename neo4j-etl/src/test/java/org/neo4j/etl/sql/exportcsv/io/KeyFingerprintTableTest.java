@@ -0,0 +1,76 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeyFingerprintTableTest
+{
+    @Test
+    public void shouldContainKeysAddedBeforeAndAfterGrowing()
+    {
+        // given
+        KeyFingerprintTable table = new KeyFingerprintTable();
+
+        // when
+        // Small keys all fall in the first segment, which has to grow many times to hold them
+        for ( long key = 0; key < 100_000; key++ )
+        {
+            assertTrue( table.putIfConsistent( key, fingerprint( key ) ) );
+        }
+
+        // then
+        for ( long key = 0; key < 100_000; key++ )
+        {
+            assertTrue( table.contains( key, fingerprint( key ) ) );
+            assertFalse( table.contains( key, fingerprint( key ) + 1 ) );
+        }
+
+        assertFalse( table.contains( 100_000, fingerprint( 100_000 ) ) );
+    }
+
+    @Test
+    public void shouldKeepKeysThatProbeToTheSameSlot()
+    {
+        // given
+        KeyFingerprintTable table = new KeyFingerprintTable();
+
+        // when
+        // Keys with the same low bits start probing at the same slot, whatever the segment's capacity
+        for ( long i = 0; i < 2_000; i++ )
+        {
+            assertTrue( table.putIfConsistent( i << 32, fingerprint( i ) ) );
+        }
+
+        // then
+        for ( long i = 0; i < 2_000; i++ )
+        {
+            assertTrue( table.contains( i << 32, fingerprint( i ) ) );
+        }
+
+        assertFalse( table.contains( 2_000L << 32, fingerprint( 2_000 ) ) );
+    }
+
+    @Test
+    public void shouldRejectKeyAddedAgainWithDifferentFingerprint()
+    {
+        // given
+        KeyFingerprintTable table = new KeyFingerprintTable();
+        long key = Long.MAX_VALUE;
+
+        // when
+        assertTrue( table.putIfConsistent( key, 1 ) );
+
+        // then
+        assertTrue( table.putIfConsistent( key, 1 ) );
+        assertFalse( table.putIfConsistent( key, 2 ) );
+        assertTrue( table.contains( key, 1 ) );
+        assertFalse( table.contains( key, 2 ) );
+    }
+
+    private static long fingerprint( long key )
+    {
+        return key * 0x9e3779b97f4a7c15L;
+    }
+}
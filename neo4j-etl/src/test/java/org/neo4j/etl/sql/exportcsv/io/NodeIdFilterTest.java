@@ -0,0 +1,77 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.IdSpace;
+import org.neo4j.etl.sql.StubQueryResults;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.TinyIntAs;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NodeIdFilterTest
+{
+    private final ColumnUtil columnUtil = new ColumnUtil();
+    private final TableName table = new TableName( "test.users" );
+    private final IdSpace users = new IdSpace( table.fullName() );
+
+    @Test
+    public void shouldFindNodesWhoseHashedIdsCollide() throws Exception
+    {
+        // given
+        NodeIdFilter nodeIdFilter = new NodeIdFilter( OrphanRelationships.DROP, id -> 42L );
+
+        MetadataMapping node = mapping( table.fullName(), GraphObjectType.Node,
+                new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                        CsvField.id( users ) ) );
+        MetadataMapping relationship = mapping( "users_managers", GraphObjectType.Relationship,
+                new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "manager_id", ColumnRole.ForeignKey ),
+                        CsvField.endId( users ) ) );
+
+        NodeIdFilter.Check nodes = nodeIdFilter.check( node, plan( node ) );
+        nodes.accept( new String[]{"1"} );
+        nodes.accept( new String[]{"2"} );
+        nodes.complete();
+
+        // when
+        NodeIdFilter.Check relationships = nodeIdFilter.check( relationship, plan( relationship ) );
+        boolean firstNodeFound = relationships.accept( new String[]{"1"} );
+        boolean secondNodeFound = relationships.accept( new String[]{"2"} );
+        boolean orphanFound = relationships.accept( new String[]{"3"} );
+        relationships.complete();
+
+        // then
+        assertTrue( firstNodeFound );
+        assertTrue( secondNodeFound );
+        assertFalse( orphanFound );
+        assertEquals( Collections.singletonMap( "users_managers", 1L ), nodeIdFilter.orphans() );
+    }
+
+    private MetadataMapping mapping( String name, GraphObjectType graphObjectType, ColumnToCsvFieldMapping mapping )
+    {
+        return new MetadataMapping( name, graphObjectType, "SELECT ...",
+                ColumnToCsvFieldMappings.builder().add( mapping ).withFormatting( Formatting.DEFAULT ).build() );
+    }
+
+    private ColumnPlan plan( MetadataMapping resource ) throws Exception
+    {
+        Column[] columns = resource.mappings().columns().toArray( new Column[0] );
+        CsvField[] fields = resource.mappings().fields().toArray( new CsvField[0] );
+
+        return ColumnPlan.compile( columns, fields, StubQueryResults.builder().columns( columns[0].alias() ).build(),
+                new TinyIntResolver( TinyIntAs.BYTE ), null, false );
+    }
+}
@@ -1,7 +1,9 @@
 package org.neo4j.etl.sql.exportcsv.io;
 
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -11,9 +13,14 @@ import org.junit.Test;
 import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Delimiter;
 import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.IdSpace;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
 import org.neo4j.etl.sql.QueryResults;
 import org.neo4j.etl.sql.StubQueryResults;
 import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.ExportToCsvConfig;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMapping;
 import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
 import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
 import org.neo4j.etl.sql.exportcsv.mapping.TinyIntAs;
@@ -25,6 +32,8 @@ import org.neo4j.etl.sql.metadata.TableName;
 import org.neo4j.etl.util.ResourceRule;
 import org.neo4j.etl.util.TemporaryDirectory;
 
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Arrays.asList;
 
 import static org.junit.Assert.assertEquals;
@@ -247,4 +256,130 @@ public class ResultsToFileWriterTest
         List<String> contents = Files.readAllLines( exportFile );
         assertEquals( asList( "\"1\"\ttrue" ), contents );
     }
+
+    @Test
+    public void shouldWriteAllRowsInOrderWhenResultsOutnumberRowBuffer() throws Exception
+    {
+        // given
+        StubQueryResults.Builder builder = StubQueryResults.builder().columns( "id", "username" );
+        List<String> expectedContents = new ArrayList<>();
+
+        for ( int i = 1; i <= 100; i++ )
+        {
+            builder.addRow( String.valueOf( i ), "user-" + i );
+            expectedContents.add( "\"" + i + "\"\t\"user-" + i + "\"" );
+        }
+
+        when( mappings.columns() ).thenReturn(
+                asList(
+                        columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                        columnUtil.column( table, "username", ColumnRole.Data ) ) );
+
+        MetadataMapping resource = new MetadataMapping( table.fullName(), GraphObjectType.Node, "SELECT ...",
+                mappings );
+
+        ResultsToFileWriter pipelinedWriter = new ResultsToFileWriter( TAB_DELIMITER,
+                new TinyIntResolver( TinyIntAs.BYTE ), ExportToCsvConfig.MIN_EXPORT_BUFFER_SIZE, false, 2 );
+
+        // when
+        pipelinedWriter.write( builder.build(), exportFile, resource );
+
+        // then
+        assertEquals( expectedContents, Files.readAllLines( exportFile ) );
+    }
+
+    @Test
+    public void shouldWriteEachRowToEveryMappingOfSharedScan() throws Exception
+    {
+        // given
+        QueryResults results = StubQueryResults.builder()
+                .columns( "id", "username", "address_id" )
+                .addRow( "1", "user-1", "10" )
+                .addRow( "2", "user-2", null )
+                .build();
+
+        MetadataMapping node = new MetadataMapping( table.fullName(), GraphObjectType.Node, "SELECT ...",
+                ColumnToCsvFieldMappings.builder()
+                        .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                                CsvField.id() ) )
+                        .add( new ColumnToCsvFieldMapping( columnUtil.column( table, "username", ColumnRole.Data ),
+                                CsvField.data( "username", Neo4jDataType.String ) ) )
+                        .withFormatting( TAB_DELIMITER )
+                        .build() );
+
+        MetadataMapping relationship = new MetadataMapping( "users_addresses", GraphObjectType.Relationship,
+                "SELECT ...",
+                ColumnToCsvFieldMappings.builder()
+                        .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                                CsvField.startId() ) )
+                        .add( new ColumnToCsvFieldMapping(
+                                columnUtil.keyColumn( table, "address_id", ColumnRole.ForeignKey ),
+                                CsvField.endId() ) )
+                        .withFormatting( TAB_DELIMITER )
+                        .build() );
+
+        Path relationshipFile = tempDirectory.get().resolve( "relationship-file.csv" );
+
+        // when
+        resultsToFileWriter.write( results,
+                asList( FileChannel.open( exportFile, CREATE, WRITE ),
+                        FileChannel.open( relationshipFile, CREATE, WRITE ) ),
+                asList( node, relationship ) );
+
+        // then
+        assertEquals( asList( "\"1\"\t\"user-1\"", "\"2\"\t\"user-2\"" ), Files.readAllLines( exportFile ) );
+        assertEquals( asList( "\"1\"\t\"10\"" ), Files.readAllLines( relationshipFile ) );
+    }
+
+    @Test
+    public void shouldDropRelationshipsWhoseNodesWereNotExported() throws Exception
+    {
+        // given
+        QueryResults nodeResults = StubQueryResults.builder()
+                .columns( "id" )
+                .addRow( "1" )
+                .addRow( "2" )
+                .build();
+        QueryResults relationshipResults = StubQueryResults.builder()
+                .columns( "id", "manager_id" )
+                .addRow( "2", "1" )
+                .addRow( "1", "3" )
+                .build();
+
+        IdSpace users = new IdSpace( table.fullName() );
+
+        MetadataMapping node = new MetadataMapping( table.fullName(), GraphObjectType.Node, "SELECT ...",
+                ColumnToCsvFieldMappings.builder()
+                        .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                                CsvField.id( users ) ) )
+                        .withFormatting( TAB_DELIMITER )
+                        .build() );
+
+        MetadataMapping relationship = new MetadataMapping( "users_managers", GraphObjectType.Relationship,
+                "SELECT ...",
+                ColumnToCsvFieldMappings.builder()
+                        .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ),
+                                CsvField.startId( users ) ) )
+                        .add( new ColumnToCsvFieldMapping(
+                                columnUtil.keyColumn( table, "manager_id", ColumnRole.ForeignKey ),
+                                CsvField.endId( users ) ) )
+                        .withFormatting( TAB_DELIMITER )
+                        .build() );
+
+        NodeIdFilter nodeIdFilter = new NodeIdFilter( OrphanRelationships.DROP );
+        ResultsToFileWriter writer = new ResultsToFileWriter( TAB_DELIMITER, new TinyIntResolver( TinyIntAs.BYTE ),
+                ExportToCsvConfig.DEFAULT_EXPORT_BUFFER_SIZE, false, ExportToCsvConfig.DEFAULT_ROW_BUFFER_SIZE,
+                null, nodeIdFilter );
+
+        Path relationshipFile = tempDirectory.get().resolve( "relationship-file.csv" );
+
+        // when
+        writer.write( nodeResults, exportFile, node );
+        long rowsWritten = writer.write( relationshipResults, relationshipFile, relationship );
+
+        // then
+        assertEquals( 1, rowsWritten );
+        assertEquals( asList( "\"2\"\t\"1\"" ), Files.readAllLines( relationshipFile ) );
+        assertEquals( Collections.singletonMap( "users_managers", 1L ), nodeIdFilter.orphans() );
+    }
 }
@@ -0,0 +1,91 @@
+package org.neo4j.etl.sql.exportcsv.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RowRingBufferTest
+{
+    @Test
+    public void shouldHandRowsToConsumerInOrderUntilFinished() throws Exception
+    {
+        // given
+        RowRingBuffer rowBuffer = new RowRingBuffer( 2, 1 );
+
+        Thread producer = new Thread( () ->
+        {
+            try
+            {
+                for ( int i = 1; i <= 10; i++ )
+                {
+                    String[] row = rowBuffer.claim();
+                    row[0] = String.valueOf( i );
+                    rowBuffer.publish( row );
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                rowBuffer.finish();
+            }
+        } );
+
+        // when
+        producer.start();
+
+        List<String> values = new ArrayList<>();
+        String[] row;
+
+        while ( ( row = rowBuffer.next() ) != null )
+        {
+            values.add( row[0] );
+            rowBuffer.release( row );
+        }
+
+        producer.join();
+
+        // then
+        assertEquals( asList( "1", "2", "3", "4", "5", "6", "7", "8", "9", "10" ), values );
+    }
+
+    @Test
+    public void shouldReuseReleasedSlots() throws Exception
+    {
+        // given
+        RowRingBuffer rowBuffer = new RowRingBuffer( 1, 3 );
+
+        String[] row = rowBuffer.claim();
+        rowBuffer.publish( row );
+        rowBuffer.release( rowBuffer.next() );
+
+        // when
+        String[] reclaimedRow = rowBuffer.claim();
+
+        // then
+        assertSame( row, reclaimedRow );
+        assertEquals( 3, reclaimedRow.length );
+    }
+
+    @Test
+    public void shouldReturnNullOnceFinished() throws Exception
+    {
+        // given
+        RowRingBuffer rowBuffer = new RowRingBuffer( 1, 1 );
+
+        // when
+        rowBuffer.finish();
+
+        // then
+        assertNull( rowBuffer.next() );
+    }
+}
@@ -1,21 +1,19 @@
 package org.neo4j.etl.sql.exportcsv.io;
 
-import java.util.HashMap;
-
 import org.junit.Test;
 
-import org.neo4j.etl.sql.RowAccessor;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.StubQueryResults;
 import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.mapping.TinyIntAs;
 import org.neo4j.etl.sql.metadata.Column;
 import org.neo4j.etl.sql.metadata.ColumnRole;
 import org.neo4j.etl.sql.metadata.TableName;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
-import static org.junit.Assert.fail;
 
 public class RowStrategyTest
 {
@@ -25,13 +23,6 @@ public class RowStrategyTest
     public void shouldReturnTrueIfAnyOfTheNonKeyColumnsAreNull() throws Exception
     {
         // given
-        HashMap<String, String> rowOne = new HashMap<>();
-        rowOne.put( "id", "1" );
-        rowOne.put( "username", "user-1" );
-        rowOne.put( "first_name", "Boaty" );
-        rowOne.put( "last_name", "Mc.Boatface" );
-        rowOne.put( "age", null );
-
         TableName table = new TableName( "test.users" );
         Column[] columns = new Column[]{
                 columnUtil.column( table, "id", ColumnRole.PrimaryKey ),
@@ -39,78 +30,92 @@ public class RowStrategyTest
                 columnUtil.column( table, "age", ColumnRole.Data ),
                 columnUtil.compositeKeyColumn( table, asList( "first_name", "last_name" ), ColumnRole.PrimaryKey )};
 
+        QueryResults results = StubQueryResults.builder()
+                .columns( "id", "username", "age", "first_name", "last_name" )
+                .addRow( "1", "user-1", null, "Boaty", "Mc.Boatface" )
+                .build();
+
         // when
         RowStrategy strategy = RowStrategy.IgnoreRowWithNullKey;
 
         // then
-        RowAccessor stubRowAccessor = columnLabel -> singletonList( rowOne ).get( 0 ).get( columnLabel );
-        assertTrue( strategy.isWriteableRow( stubRowAccessor, 1, columns ) );
+        assertTrue( isWriteableRow( strategy, columns, results ) );
     }
 
     @Test
     public void shouldReturnFalseIfAnyOfTheKeyColumnsAreNull() throws Exception
     {
         // given
-        HashMap<String, String> rowOne = new HashMap<>();
-        rowOne.put( "id", "1" );
-        rowOne.put( "username", null );
-        rowOne.put( "age", "42" );
         TableName table = new TableName( "test.Users" );
-
         Column[] columns = new Column[]{
                 columnUtil.column( table, "id", ColumnRole.PrimaryKey ),
                 columnUtil.column( table, "username", ColumnRole.ForeignKey ),
                 columnUtil.column( table, "age", ColumnRole.Data )};
 
+        QueryResults results = StubQueryResults.builder()
+                .columns( "id", "username", "age" )
+                .addRow( "1", null, "42" )
+                .build();
+
         // when
         RowStrategy strategy = RowStrategy.IgnoreRowWithNullKey;
 
         // then
-        RowAccessor stubRowAccessor = columnLabel -> singletonList( rowOne ).get( 0 ).get( columnLabel );
-        assertFalse( strategy.isWriteableRow( stubRowAccessor, 1, columns ) );
+        assertFalse( isWriteableRow( strategy, columns, results ) );
     }
 
     @Test
     public void shouldReturnFalseIfAnyOfTheCompositeKeyColumnsAreNull() throws Exception
     {
         // given
-        HashMap<String, String> rowOne = new HashMap<>();
-        rowOne.put( "age", "42" );
-
         TableName table = new TableName( "test.Users" );
-        Column compositeColumn = columnUtil.compositeKeyColumn( table, asList( "first_name", "last_name" ),
-                ColumnRole.PrimaryKey );
-
         Column[] columns = new Column[]{
-                compositeColumn,
+                columnUtil.compositeKeyColumn( table, asList( "first_name", "last_name" ), ColumnRole.PrimaryKey ),
                 columnUtil.column( table, "age", ColumnRole.Data )};
 
+        QueryResults results = StubQueryResults.builder()
+                .columns( "first_name", "last_name", "age" )
+                .addRow( "Boaty", null, "42" )
+                .build();
+
         // when
         RowStrategy strategy = RowStrategy.IgnoreRowWithNullKey;
 
         // then
-        RowAccessor stubRowAccessor = columnLabel -> singletonList( rowOne ).get( 0 ).get( columnLabel );
-        assertFalse( strategy.isWriteableRow( stubRowAccessor, 1, columns ) );
+        assertFalse( isWriteableRow( strategy, columns, results ) );
     }
 
-    @Test(expected = IllegalStateException.class)
-    public void shouldBubbleAccessorException() throws Exception
+    @Test
+    public void shouldReturnTrueForNodesEvenIfKeyColumnsAreNull() throws Exception
     {
         // given
-        TableName table = new TableName( "users" );
+        TableName table = new TableName( "test.Users" );
         Column[] columns = new Column[]{
                 columnUtil.column( table, "id", ColumnRole.PrimaryKey ),
-                columnUtil.column( table, "username", ColumnRole.ForeignKey ),
                 columnUtil.column( table, "age", ColumnRole.Data )};
 
+        QueryResults results = StubQueryResults.builder()
+                .columns( "id", "age" )
+                .addRow( null, "42" )
+                .build();
+
         // when
-        RowStrategy strategy = RowStrategy.IgnoreRowWithNullKey;
+        RowStrategy strategy = RowStrategy.WriteRowWithNullKey;
 
         // then
-        RowAccessor stubRowAccessor = columnLabel -> {
-            throw new IllegalStateException();
-        };
-        strategy.isWriteableRow( stubRowAccessor, 1, columns );
-        fail( "Should have bubbled up the exception" );
+        assertTrue( isWriteableRow( strategy, columns, results ) );
+    }
+
+    // Reads the first row as the export does, through the columns' plan
+    private static boolean isWriteableRow( RowStrategy strategy, Column[] columns, QueryResults results )
+            throws Exception
+    {
+        ColumnPlan plan = ColumnPlan.compile( columns, results, new TinyIntResolver( TinyIntAs.BYTE ) );
+        String[] values = new String[plan.size()];
+
+        assertTrue( results.next() );
+        plan.read( results, 1, values );
+
+        return strategy.isWriteableRow( values, plan );
     }
 }
@@ -0,0 +1,92 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.IdSpace;
+import org.neo4j.etl.neo4j.importcsv.fields.IdType;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.ColumnValueSelectionStrategy;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.SimpleColumn;
+import org.neo4j.etl.sql.metadata.SqlDataType;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+
+public class IdTypeResolverTest
+{
+    private final IdTypeResolver resolver = new IdTypeResolver( new TinyIntResolver( TinyIntAs.BYTE ) );
+    private final TableName person = new TableName( "test.Person" );
+    private final TableName address = new TableName( "test.Address" );
+
+    @Test
+    public void shouldUseIntegerIdsWhenAllKeysAreSingleIntegerColumns()
+    {
+        // given
+        MetadataMapping personNode = node( person, new CompositeColumn( person,
+                Collections.singletonList( column( person, "id", SqlDataType.BIGINT, ColumnRole.Data ) ),
+                ColumnRole.PrimaryKey ) );
+        MetadataMapping addressNode = node( address, column( address, "id", SqlDataType.INT, ColumnRole.PrimaryKey ) );
+        MetadataMapping livesAt = relationship(
+                column( person, "id", SqlDataType.BIGINT, ColumnRole.PrimaryKey ),
+                column( person, "addressId", SqlDataType.INT, ColumnRole.ForeignKey ) );
+
+        // then
+        assertEquals( IdType.Integer, resolver.resolve( asList( personNode, addressNode, livesAt ) ) );
+    }
+
+    @Test
+    public void shouldUseStringIdsWhenAnyIdSpaceHasNonIntegerKeys()
+    {
+        // given
+        MetadataMapping personNode = node( person, column( person, "id", SqlDataType.BIGINT, ColumnRole.PrimaryKey ) );
+        MetadataMapping addressNode = node( address, new CompositeColumn( address,
+                asList( column( address, "street", SqlDataType.VARCHAR, ColumnRole.Data ),
+                        column( address, "number", SqlDataType.INT, ColumnRole.Data ) ),
+                ColumnRole.PrimaryKey ) );
+
+        // then
+        assertEquals( IdType.String, resolver.resolve( asList( personNode, addressNode ) ) );
+        assertEquals( IdType.String, resolver.resolve( Collections.singletonList(
+                node( person, column( person, "id", SqlDataType.BIGINT_UNSIGNED, ColumnRole.PrimaryKey ) ) ) ) );
+    }
+
+    private MetadataMapping node( TableName table, Column key )
+    {
+        ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+                .withFormatting( Formatting.DEFAULT )
+                .add( new ColumnToCsvFieldMapping( key, CsvField.id( new IdSpace( table.fullName() ) ) ) )
+                .add( new ColumnToCsvFieldMapping( column( table, "name", SqlDataType.VARCHAR, ColumnRole.Data ),
+                        CsvField.data( "name", Neo4jDataType.String ) ) )
+                .build();
+
+        return new MetadataMapping( table.fullName(), GraphObjectType.Node, "SELECT ...", mappings );
+    }
+
+    private MetadataMapping relationship( Column start, Column end )
+    {
+        ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+                .withFormatting( Formatting.DEFAULT )
+                .add( new ColumnToCsvFieldMapping( start, CsvField.startId( new IdSpace( person.fullName() ) ) ) )
+                .add( new ColumnToCsvFieldMapping( end, CsvField.endId( new IdSpace( address.fullName() ) ) ) )
+                .build();
+
+        return new MetadataMapping( "Person_Address", GraphObjectType.Relationship, "SELECT ...", mappings );
+    }
+
+    private static Column column( TableName table, String name, SqlDataType sqlDataType, ColumnRole role )
+    {
+        return new SimpleColumn( table, name, name, role, sqlDataType,
+                ColumnValueSelectionStrategy.SelectColumnValue, Formatting.DEFAULT );
+    }
+}
@@ -0,0 +1,82 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MetadataMappingTest
+{
+    private ColumnUtil columnUtil = new ColumnUtil();
+
+    @Test
+    public void shouldRoundTripFetchSizeThroughJson()
+    {
+        // given
+        MetadataMapping metadataMapping = new MetadataMapping(
+                "test.Person", GraphObjectType.Node, "SELECT ...", mappings(), Optional.of( 500 ) );
+
+        // when
+        JsonNode json = metadataMapping.toJson();
+        MetadataMapping fromJson = MetadataMapping.fromJson( json, Formatting.DEFAULT );
+
+        // then
+        assertEquals( 500, json.path( "fetch-size" ).intValue() );
+        assertEquals( Optional.of( 500 ), fromJson.fetchSize() );
+    }
+
+    @Test
+    public void shouldOmitFetchSizeFromJsonIfNotSpecified()
+    {
+        // given
+        MetadataMapping metadataMapping =
+                new MetadataMapping( "test.Person", GraphObjectType.Node, "SELECT ...", mappings() );
+
+        // when
+        JsonNode json = metadataMapping.toJson();
+
+        // then
+        assertFalse( json.has( "fetch-size" ) );
+        assertFalse( MetadataMapping.fromJson( json, Formatting.DEFAULT ).fetchSize().isPresent() );
+    }
+
+    @Test
+    public void shouldRoundTripSizeEstimateThroughJson()
+    {
+        // given
+        MetadataMapping metadataMapping =
+                new MetadataMapping( "test.Person", GraphObjectType.Node, "SELECT ...", mappings() )
+                        .withSizeEstimate( new SizeEstimate( 1_000_000, 64_000_000 ) );
+
+        // when
+        JsonNode json = metadataMapping.toJson();
+        MetadataMapping fromJson = MetadataMapping.fromJson( json, Formatting.DEFAULT );
+
+        // then
+        assertEquals( 1_000_000, json.path( "size-estimate" ).path( "rows" ).longValue() );
+        assertEquals( Optional.of( new SizeEstimate( 1_000_000, 64_000_000 ) ), fromJson.sizeEstimate() );
+        assertFalse( new MetadataMapping( "test.Person", GraphObjectType.Node, "SELECT ...", mappings() )
+                .toJson().has( "size-estimate" ) );
+    }
+
+    private ColumnToCsvFieldMappings mappings()
+    {
+        TableName personTable = new TableName( "test.Person" );
+
+        return ColumnToCsvFieldMappings.builder()
+                .add( new ColumnToCsvFieldMapping(
+                        columnUtil.keyColumn( personTable, "id", ColumnRole.PrimaryKey ), CsvField.id() ) )
+                .withFormatting( Formatting.DEFAULT )
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetadataMappingsTest
+{
+    private ColumnUtil columnUtil = new ColumnUtil();
+    private TableName person = new TableName( "test.Person" );
+    private TableName address = new TableName( "test.Address" );
+
+    @Test
+    public void shouldKeepExistingMappingsForUnchangedTablesAndRegeneratedMappingsForChangedTables()
+    {
+        // given
+        MetadataMappings existing = new MetadataMappings()
+                .add( mapping( person, "SELECT edited person" ) )
+                .add( mapping( address, "SELECT edited address" ) );
+
+        MetadataMappings generated = new MetadataMappings()
+                .add( mapping( person, "SELECT person" ) )
+                .add( mapping( address, "SELECT address" ) );
+
+        // when
+        MetadataMappings merged = generated.retainUnchanged( existing, singletonList( address ) );
+
+        // then
+        assertEquals( asList( "SELECT edited person", "SELECT address" ), sql( merged ) );
+    }
+
+    @Test
+    public void shouldKeepUnregeneratedExistingMappingsUnlessTheirTablesChanged()
+    {
+        // given
+        MetadataMappings existing = new MetadataMappings()
+                .add( mapping( person, "SELECT custom person" ) )
+                .add( mapping( address, "SELECT dropped address" ) );
+
+        MetadataMappings generated = new MetadataMappings();
+
+        // when
+        MetadataMappings merged = generated.retainUnchanged( existing, singletonList( address ) );
+
+        // then
+        assertEquals( singletonList( "SELECT custom person" ), sql( merged ) );
+    }
+
+    private MetadataMapping mapping( TableName table, String sql )
+    {
+        ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+                .add( new ColumnToCsvFieldMapping(
+                        columnUtil.keyColumn( table, "id", ColumnRole.PrimaryKey ), CsvField.id() ) )
+                .withFormatting( Formatting.DEFAULT )
+                .build();
+
+        return new MetadataMapping( table.fullName(), GraphObjectType.Node, sql, mappings );
+    }
+
+    private List<String> sql( MetadataMappings metadataMappings )
+    {
+        List<String> sql = new ArrayList<>();
+        metadataMappings.forEach( mapping -> sql.add( mapping.sql() ) );
+        return sql;
+    }
+}
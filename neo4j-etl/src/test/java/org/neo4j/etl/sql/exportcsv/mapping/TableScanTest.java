@@ -0,0 +1,151 @@
+package org.neo4j.etl.sql.exportcsv.mapping;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.DatabaseExportSqlSupplier;
+import org.neo4j.etl.sql.exportcsv.io.TinyIntResolver;
+import org.neo4j.etl.sql.exportcsv.supplier.DefaultExportSqlSupplier;
+import org.neo4j.etl.sql.metadata.Column;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.CompositeColumn;
+import org.neo4j.etl.sql.metadata.Join;
+import org.neo4j.etl.sql.metadata.JoinKey;
+import org.neo4j.etl.sql.metadata.Table;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TableScanTest
+{
+    private final ColumnUtil columnUtil = new ColumnUtil();
+    private final DatabaseExportSqlSupplier sqlSupplier = new DefaultExportSqlSupplier();
+    private final TableName person = new TableName( "test.Person" );
+    private final TableName address = new TableName( "test.Address" );
+
+    @Test
+    public void shouldCombineMappingsOverSameTableIntoSingleScan()
+    {
+        // given
+        MetadataMapping node = mapping( "Person", GraphObjectType.Node,
+                columnUtil.keyColumn( person, "id", ColumnRole.PrimaryKey ),
+                columnUtil.column( person, "username", ColumnRole.Data ) );
+        MetadataMapping relationship = mapping( "Person_Address", GraphObjectType.Relationship,
+                columnUtil.keyColumn( person, "id", ColumnRole.PrimaryKey ),
+                columnUtil.keyColumn( person, "addressId", ColumnRole.ForeignKey ) );
+        MetadataMapping otherTable = mapping( "Address", GraphObjectType.Node,
+                columnUtil.keyColumn( address, "id", ColumnRole.PrimaryKey ) );
+
+        // when
+        List<TableScan> scans = TableScan.group( asList( node, otherTable, relationship ), sqlSupplier );
+
+        // then
+        assertEquals( 2, scans.size() );
+
+        assertTrue( scans.get( 0 ).isShared() );
+        assertEquals( asList( node, relationship ), scans.get( 0 ).resources() );
+        assertEquals( "SELECT `test`.`Person`.`id` AS `id`, `test`.`Person`.`username` AS `username`, " +
+                        "`test`.`Person`.`addressId` AS `addressId` FROM `test`.`Person`",
+                scans.get( 0 ).combined().sql() );
+
+        assertFalse( scans.get( 1 ).isShared() );
+        assertSame( otherTable, scans.get( 1 ).combined() );
+    }
+
+    @Test
+    public void shouldNotCombineMappingsWithCustomSqlOrConflictingAliases()
+    {
+        // given
+        MetadataMapping node = mapping( "Person", GraphObjectType.Node,
+                columnUtil.keyColumn( person, "id", ColumnRole.PrimaryKey ) );
+        MetadataMapping conflicting = mapping( "Person_Address", GraphObjectType.Relationship,
+                columnUtil.column( person, "addressId", "id", ColumnRole.ForeignKey ) );
+        MetadataMapping custom = new MetadataMapping( "Person_Filtered", GraphObjectType.Node,
+                node.sql() + " WHERE `test`.`Person`.`id` > 10", node.mappings() );
+
+        // when
+        List<TableScan> scans = TableScan.group( asList( node, conflicting, custom ), sqlSupplier );
+
+        // then
+        assertEquals( 3, scans.size() );
+        assertFalse( scans.get( 0 ).isShared() );
+        assertFalse( scans.get( 1 ).isShared() );
+        assertFalse( scans.get( 2 ).isShared() );
+    }
+
+    @Test
+    public void shouldCombineGeneratedMappingsForTableWithSeveralForeignKeys()
+    {
+        // given
+        TableName company = new TableName( "test.Company" );
+        MetadataMappingProvider mappingProvider = new MetadataMappingProvider( Formatting.DEFAULT, sqlSupplier,
+                new RelationshipNameResolver( RelationshipNameFrom.TABLE_NAME ), new TinyIntResolver( TinyIntAs.BYTE ) );
+
+        Column personId = key( person, ColumnRole.PrimaryKey, "id" );
+        MetadataMapping node = Table.builder()
+                .name( person )
+                .addColumn( personId )
+                .addColumn( columnUtil.column( person, "username", ColumnRole.Data ) )
+                .build()
+                .invoke( mappingProvider );
+        MetadataMapping livesAt = new Join(
+                new JoinKey( personId, personId ),
+                new JoinKey( key( person, ColumnRole.ForeignKey, "addressId" ),
+                        key( address, ColumnRole.PrimaryKey, "id" ) ) )
+                .invoke( mappingProvider );
+        MetadataMapping worksFor = new Join(
+                new JoinKey( personId, personId ),
+                new JoinKey( key( person, ColumnRole.ForeignKey, "companyId" ),
+                        key( company, ColumnRole.PrimaryKey, "id" ) ) )
+                .invoke( mappingProvider );
+
+        // when
+        List<TableScan> scans = TableScan.group( asList( node, livesAt, worksFor ), sqlSupplier );
+
+        // then
+        assertEquals( 1, scans.size() );
+        assertEquals( asList( node, livesAt, worksFor ), scans.get( 0 ).resources() );
+        assertEquals( "SELECT `test`.`Person`.`id` AS `id`, `test`.`Person`.`username` AS `username`, " +
+                        "`test`.`Person`.`addressId` AS `addressId`, `test`.`Person`.`companyId` AS `companyId` " +
+                        "FROM `test`.`Person`",
+                scans.get( 0 ).combined().sql() );
+    }
+
+    private MetadataMapping mapping( String name, GraphObjectType graphObjectType, Column... columns )
+    {
+        ColumnToCsvFieldMappings.Builder builder =
+                ColumnToCsvFieldMappings.builder().withFormatting( Formatting.DEFAULT );
+
+        for ( Column column : columns )
+        {
+            builder.add( new ColumnToCsvFieldMapping( column, CsvField.data( column.alias(), Neo4jDataType.String ) ) );
+        }
+
+        ColumnToCsvFieldMappings mappings = builder.build();
+
+        return new MetadataMapping( name, graphObjectType, sqlSupplier.sql( mappings ), mappings );
+    }
+
+    // As assembled from the database's metadata, keys are always composite, however many columns they have
+    private Column key( TableName table, ColumnRole role, String... columnNames )
+    {
+        return new CompositeColumn( table,
+                Stream.of( columnNames )
+                        .map( name -> columnUtil.column( table, name, ColumnRole.Data ) )
+                        .collect( Collectors.toList() ),
+                role );
+    }
+}
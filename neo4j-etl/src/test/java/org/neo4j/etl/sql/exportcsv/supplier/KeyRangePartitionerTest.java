@@ -0,0 +1,55 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeyRangePartitionerTest
+{
+    @Test
+    public void shouldSplitKeyRangeIntoContiguousOpenEndedRanges()
+    {
+        // when
+        List<String> predicates = KeyRangePartitioner.rangePredicates( "id", 1, 30_000, 3 );
+
+        // then
+        assertEquals( asList(
+                "id < 10001",
+                "id >= 10001 AND id < 20001",
+                "id >= 20001" ), predicates );
+    }
+
+    @Test
+    public void shouldLimitNumberOfRangesForNarrowKeyRanges()
+    {
+        // when
+        List<String> predicates = KeyRangePartitioner.rangePredicates( "id", 0, 19_999, 8 );
+
+        // then
+        assertEquals( asList( "id < 10000", "id >= 10000" ), predicates );
+    }
+
+    @Test
+    public void shouldNotPartitionKeyRangeSmallerThanMinimumPartitionSize()
+    {
+        // when
+        List<String> predicates = KeyRangePartitioner.rangePredicates( "id", 1, 15_000, 4 );
+
+        // then
+        assertTrue( predicates.isEmpty() );
+    }
+
+    @Test
+    public void shouldNotPartitionKeyRangeThatOverflows()
+    {
+        // when
+        List<String> predicates = KeyRangePartitioner.rangePredicates( "id", Long.MIN_VALUE, Long.MAX_VALUE, 4 );
+
+        // then
+        assertTrue( predicates.isEmpty() );
+    }
+}
@@ -0,0 +1,87 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RowFilterTest
+{
+    private final ColumnUtil columnUtil = new ColumnUtil();
+    private final TableName person = new TableName( "test.Person" );
+
+    private final ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+            .withFormatting( Formatting.DEFAULT )
+            .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( person, "id", ColumnRole.PrimaryKey ),
+                    CsvField.id() ) )
+            .add( new ColumnToCsvFieldMapping( columnUtil.column( person, "name", ColumnRole.Data ),
+                    CsvField.data( "name", Neo4jDataType.String ) ) )
+            .build();
+
+    @Test
+    public void shouldRestrictSqlSelectingColumnAsDerivedTable()
+    {
+        // given
+        MetadataMapping resource = mapping( "SELECT id, name FROM test.Person WHERE name IN " +
+                "(SELECT name FROM test.Vip WHERE active = 1) ORDER BY id;" );
+
+        // when
+        Optional<RowFilter> rowFilter = RowFilter.on( resource, "test.Person.id", Formatting.DEFAULT.sqlQuotes() );
+
+        // then
+        assertTrue( rowFilter.isPresent() );
+        assertEquals( "SELECT * FROM (SELECT id, name FROM test.Person WHERE name IN " +
+                        "(SELECT name FROM test.Vip WHERE active = 1) ORDER BY id) t WHERE `id` < 10",
+                rowFilter.get().where( rowFilter.get().column() + " < 10" ) );
+    }
+
+    @Test
+    public void shouldRestrictGeneratedSqlOnColumnItDoesNotSelect()
+    {
+        // given
+        String sql = new DefaultExportSqlSupplier().sql( mappings );
+        MetadataMapping resource = mapping( sql );
+
+        // when
+        Optional<RowFilter> rowFilter =
+                RowFilter.on( resource, "test.Person.updated_at", Formatting.DEFAULT.sqlQuotes() );
+
+        // then
+        assertTrue( rowFilter.isPresent() );
+        assertEquals( sql + " WHERE `test`.`Person`.`updated_at` > 5",
+                rowFilter.get().where( rowFilter.get().column() + " > 5" ) );
+    }
+
+    @Test
+    public void shouldNotRestrictEditedSqlOnColumnItDoesNotSelect()
+    {
+        // given
+        MetadataMapping resource = mapping( "SELECT id, name FROM test.Person WHERE name <> ''" );
+
+        // when
+        Optional<RowFilter> rowFilter =
+                RowFilter.on( resource, "test.Person.updated_at", Formatting.DEFAULT.sqlQuotes() );
+
+        // then
+        assertFalse( rowFilter.isPresent() );
+    }
+
+    private MetadataMapping mapping( String sql )
+    {
+        return new MetadataMapping( "Person", GraphObjectType.Node, sql, mappings );
+    }
+}
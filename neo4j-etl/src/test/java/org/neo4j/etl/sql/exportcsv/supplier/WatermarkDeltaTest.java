@@ -0,0 +1,106 @@
+package org.neo4j.etl.sql.exportcsv.supplier;
+
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.etl.io.AwaitHandle;
+import org.neo4j.etl.neo4j.importcsv.config.GraphObjectType;
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.neo4j.importcsv.fields.CsvField;
+import org.neo4j.etl.neo4j.importcsv.fields.Neo4jDataType;
+import org.neo4j.etl.sql.DatabaseClient;
+import org.neo4j.etl.sql.DatabaseType;
+import org.neo4j.etl.sql.QueryResults;
+import org.neo4j.etl.sql.StubQueryResults;
+import org.neo4j.etl.sql.exportcsv.ColumnUtil;
+import org.neo4j.etl.sql.exportcsv.DeltaState;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMapping;
+import org.neo4j.etl.sql.exportcsv.mapping.ColumnToCsvFieldMappings;
+import org.neo4j.etl.sql.exportcsv.mapping.MetadataMapping;
+import org.neo4j.etl.sql.metadata.ColumnRole;
+import org.neo4j.etl.sql.metadata.TableName;
+import org.neo4j.etl.util.ResourceRule;
+import org.neo4j.etl.util.TemporaryDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WatermarkDeltaTest
+{
+    @Rule
+    public final ResourceRule<Path> tempDirectory = new ResourceRule<>( TemporaryDirectory.temporaryDirectory() );
+
+    private final ColumnUtil columnUtil = new ColumnUtil();
+    private final TableName person = new TableName( "test.Person" );
+
+    @Test
+    public void shouldUseNumericHighWaterMarksAsIs()
+    {
+        // then
+        assertEquals( "1024", WatermarkDelta.literal( "1024" ) );
+        assertEquals( "-3.5", WatermarkDelta.literal( "-3.5" ) );
+    }
+
+    @Test
+    public void shouldQuoteOtherHighWaterMarks()
+    {
+        // then
+        assertEquals( "'2017-03-01 10:15:00.0'", WatermarkDelta.literal( "2017-03-01 10:15:00.0" ) );
+        assertEquals( "'O''Neil'", WatermarkDelta.literal( "O'Neil" ) );
+    }
+
+    @Test
+    public void shouldCompareTimestampHighWaterMarksAsTypedLiterals() throws Exception
+    {
+        // given
+        QueryResults results = StubQueryResults.builder()
+                .columns( "high_water_mark" )
+                .columnType( "high_water_mark", Types.TIMESTAMP )
+                .addRow( "2017-03-02 08:00:00.123456" )
+                .build();
+
+        DatabaseClient databaseClient = mock( DatabaseClient.class );
+        when( databaseClient.executeQuery( any() ) ).thenReturn( AwaitHandle.forReturnValue( results ) );
+        when( databaseClient.timestampLiteral( anyString() ) ).thenAnswer(
+                invocation -> DatabaseType.Oracle.timestampLiteral( (String) invocation.getArguments()[0] ) );
+
+        DeltaState deltaState = DeltaState.load( tempDirectory.get().resolve( "delta-state.json" ) );
+        deltaState.advance( "Person", "test.Person.updated_at", "2017-03-01 10:15:00.0" );
+
+        MetadataMapping resource = mapping();
+
+        // when
+        MetadataMapping delta = new WatermarkDelta( databaseClient, Formatting.DEFAULT.sqlQuotes(), deltaState )
+                .delta( resource );
+
+        // then
+        assertEquals( resource.sql() + " WHERE `test`.`Person`.`updated_at` > " +
+                        "TO_TIMESTAMP('2017-03-01 10:15:00.0', 'YYYY-MM-DD HH24:MI:SS.FF') AND " +
+                        "`test`.`Person`.`updated_at` <= " +
+                        "TO_TIMESTAMP('2017-03-02 08:00:00.123456', 'YYYY-MM-DD HH24:MI:SS.FF')",
+                delta.sql() );
+        assertEquals( Optional.of( "2017-03-02 08:00:00.123456" ),
+                deltaState.highWaterMark( "Person", "test.Person.updated_at" ) );
+    }
+
+    private MetadataMapping mapping()
+    {
+        ColumnToCsvFieldMappings mappings = ColumnToCsvFieldMappings.builder()
+                .withFormatting( Formatting.DEFAULT )
+                .add( new ColumnToCsvFieldMapping( columnUtil.keyColumn( person, "id", ColumnRole.PrimaryKey ),
+                        CsvField.id() ) )
+                .add( new ColumnToCsvFieldMapping( columnUtil.column( person, "name", ColumnRole.Data ),
+                        CsvField.data( "name", Neo4jDataType.String ) ) )
+                .build();
+
+        return new MetadataMapping( "Person", GraphObjectType.Node, new DefaultExportSqlSupplier().sql( mappings ),
+                mappings ).withWatermarkColumn( "test.Person.updated_at" );
+    }
+}
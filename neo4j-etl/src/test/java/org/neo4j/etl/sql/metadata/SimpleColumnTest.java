@@ -135,6 +135,49 @@ public class SimpleColumnTest
         assertThat( labelColumn.aliasedColumn(), is( "\"Person\" AS `Person`" ) );
     }
 
+    @Test
+    public void shouldSupplyQuotedLiteralValueWithoutSelectingIt()
+    {
+        // given
+        TableName personTable = new TableName( "test.Person" );
+        Column labelColumn = new SimpleColumn(
+                personTable,
+                QuoteChar.DOUBLE_QUOTES.enquote( "Per\"son" ),
+                "_NODE_LABEL_",
+                ColumnRole.Literal,
+                SqlDataType.LABEL_DATA_TYPE,
+                ColumnValueSelectionStrategy.SelectColumnValue,
+                Formatting.DEFAULT );
+
+        RowAccessor row = mock( RowAccessor.class );
+
+        // when
+        String result = labelColumn.selectFrom( row, 10 );
+
+        // then
+        assertFalse( labelColumn.allowAddToSelectStatement() );
+        verifyZeroInteractions( row );
+        assertEquals( "Per\"son", result );
+    }
+
+    @Test
+    public void shouldSelectLiteralThatIsNotAQuotedConstant()
+    {
+        // given
+        TableName personTable = new TableName( "test.Person" );
+        Column labelColumn = new SimpleColumn(
+                personTable,
+                "UPPER(name)",
+                "_NODE_LABEL_",
+                ColumnRole.Literal,
+                SqlDataType.LABEL_DATA_TYPE,
+                ColumnValueSelectionStrategy.SelectColumnValue,
+                Formatting.DEFAULT );
+
+        // then
+        assertTrue( labelColumn.allowAddToSelectStatement() );
+    }
+
     @Test
     public void shouldSerializeToAndDeserializeFromJson()
     {
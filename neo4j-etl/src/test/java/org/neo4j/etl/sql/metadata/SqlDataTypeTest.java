@@ -71,6 +71,18 @@ public class SqlDataTypeTest
         assertFalse( SqlDataType.INT.skipImport() );
     }
 
+    @Test
+    public void integerDataTypesShouldBeIntegral() throws Exception
+    {
+        assertTrue( SqlDataType.INT.isIntegral() );
+        assertTrue( SqlDataType.BIGINT_UNSIGNED.isIntegral() );
+        assertTrue( SqlDataType.SERIAL8.isIntegral() );
+
+        assertFalse( SqlDataType.DECIMAL.isIntegral() );
+        assertFalse( SqlDataType.VARCHAR.isIntegral() );
+        assertFalse( SqlDataType.BLOB.isIntegral() );
+    }
+
     @Test
     public void toNeo4jDataTypeMappingOfDateTypes() throws Exception
     {
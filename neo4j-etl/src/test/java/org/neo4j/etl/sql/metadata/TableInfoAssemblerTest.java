@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -228,6 +231,106 @@ public class TableInfoAssemblerTest
         assertTrue( tableInfo.representsJoinTable() );
     }
 
+    @Test
+    public void shouldAssembleTablesFromSchemaWideMetadata() throws Exception
+    {
+        // given
+        DatabaseClient databaseClient = mock( DatabaseClient.class );
+
+        when( databaseClient.schemaColumns( "javabase" ) ).thenReturn( StubQueryResults.builder()
+                .columns( "TABLE_NAME", "COLUMN_NAME", "TYPE_NAME" )
+                .addRow( "Person", "id", "INT" )
+                .addRow( "Person", "address_id", "INT" )
+                .addRow( "Person", "username", "TEXT" )
+                .addRow( "Address", "id", "INT" )
+                .build() );
+        when( databaseClient.schemaPrimaryKeys( "javabase" ) ).thenReturn( StubQueryResults.builder()
+                .columns( "TABLE_NAME", "COLUMN_NAME" )
+                .addRow( "Person", "id" )
+                .addRow( "Address", "id" )
+                .build() );
+        when( databaseClient.schemaForeignKeys( "javabase" ) ).thenReturn( StubQueryResults.builder()
+                .columns( "FKTABLE_NAME", "FK_NAME", "FKCOLUMN_NAME", "PKTABLE_SCHEM", "PKTABLE_NAME",
+                        "PKCOLUMN_NAME" )
+                .addRow( "Person", "fk_address", "address_id", "javabase", "Address", "id" )
+                .build() );
+
+        TableInfoAssembler assembler = new TableInfoAssembler( databaseClient, tablesToExclude );
+
+        TableName person = new TableName( "javabase.Person" );
+        TableName address = new TableName( "javabase.Address" );
+
+        // when
+        Map<TableName, TableInfo> tableInfos = assembler.createTableInfos( asList( person, address ) );
+
+        // then
+        TableInfo personInfo = tableInfos.get( person );
+        assertEquals( "javabase.Person.id", personInfo.primaryKey().get().name() );
+        assertEquals( 1, personInfo.foreignKeys().size() );
+        assertEquals( "javabase.Person.address_id",
+                personInfo.foreignKeys().iterator().next().sourceColumn().name() );
+        assertEquals( asList( "javabase.Person.id", "javabase.Person.username" ), names( personInfo.columns() ) );
+
+        TableInfo addressInfo = tableInfos.get( address );
+        assertEquals( "javabase.Address.id", addressInfo.primaryKey().get().name() );
+        assertTrue( addressInfo.foreignKeys().isEmpty() );
+        assertEquals( asList( "javabase.Address.id" ), names( addressInfo.columns() ) );
+    }
+
+    @Test
+    public void shouldAssembleTablesOfSeveralSchemasConcurrentlyInTheOrderGiven() throws Exception
+    {
+        // given
+        DatabaseClient databaseClient = mock( DatabaseClient.class );
+
+        for ( String schema : asList( "sales", "hr" ) )
+        {
+            when( databaseClient.schemaColumns( schema ) ).thenReturn( StubQueryResults.builder()
+                    .columns( "TABLE_NAME", "COLUMN_NAME", "TYPE_NAME" )
+                    .addRow( "Person", "id", "INT" )
+                    .addRow( "Person", "username", "TEXT" )
+                    .build() );
+            when( databaseClient.schemaPrimaryKeys( schema ) ).thenReturn( StubQueryResults.builder()
+                    .columns( "TABLE_NAME", "COLUMN_NAME" )
+                    .addRow( "Person", "id" )
+                    .build() );
+            when( databaseClient.schemaForeignKeys( schema ) ).thenReturn( StubQueryResults.builder()
+                    .columns( "FKTABLE_NAME", "FK_NAME", "FKCOLUMN_NAME", "PKTABLE_SCHEM", "PKTABLE_NAME",
+                            "PKCOLUMN_NAME" )
+                    .build() );
+        }
+
+        TableInfoAssembler assembler = new TableInfoAssembler( databaseClient, tablesToExclude );
+
+        TableName salesPerson = new TableName( "sales.Person" );
+        TableName hrPerson = new TableName( "hr.Person" );
+
+        ExecutorService executor = Executors.newFixedThreadPool( 3 );
+
+        // when
+        Map<TableName, TableInfo> tableInfos;
+
+        try
+        {
+            tableInfos = assembler.createTableInfos( asList( salesPerson, hrPerson ), executor );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertEquals( asList( salesPerson, hrPerson ), new ArrayList<>( tableInfos.keySet() ) );
+        assertEquals( "sales.Person.id", tableInfos.get( salesPerson ).primaryKey().get().name() );
+        assertEquals( "hr.Person.id", tableInfos.get( hrPerson ).primaryKey().get().name() );
+        assertEquals( asList( "hr.Person.id", "hr.Person.username" ), names( tableInfos.get( hrPerson ).columns() ) );
+    }
+
+    private static List<String> names( Collection<Column> columns )
+    {
+        return columns.stream().map( Column::name ).collect( Collectors.toList() );
+    }
+
     private String join( String... columns )
     {
         return StringUtils.join( columns, CompositeColumn.SEPARATOR );
@@ -0,0 +1,80 @@
+package org.neo4j.etl.sql.metadata;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.etl.neo4j.importcsv.config.formatting.Formatting;
+import org.neo4j.etl.util.ResourceRule;
+import org.neo4j.etl.util.TemporaryDirectory;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TableInfoCacheTest
+{
+    @Rule
+    public final ResourceRule<Path> tempDirectory = new ResourceRule<>( TemporaryDirectory.temporaryDirectory() );
+
+    private final TableName person = new TableName( "test.Person" );
+
+    @Test
+    public void shouldReuseSavedTableInfoWhileDdlMarkerIsUnchanged() throws Exception
+    {
+        // given
+        Path file = tempDirectory.get().resolve( "metadata-cache.json" );
+        TableInfo tableInfo = personTableInfo();
+
+        TableInfoCache cache = TableInfoCache.load( file, Formatting.DEFAULT, Collections.emptyList() );
+        cache.put( person, "marker-1", tableInfo );
+        cache.save();
+
+        // when
+        TableInfoCache reloaded = TableInfoCache.load( file, Formatting.DEFAULT, Collections.emptyList() );
+
+        // then
+        assertFalse( cache.hasEarlierRun() );
+        assertTrue( reloaded.hasEarlierRun() );
+
+        Optional<TableInfo> cached = reloaded.get( person, "marker-1" );
+        assertTrue( cached.isPresent() );
+        assertEquals( tableInfo.primaryKey(), cached.get().primaryKey() );
+        assertEquals( tableInfo.columns(), cached.get().columns() );
+
+        assertFalse( reloaded.get( person, "marker-2" ).isPresent() );
+    }
+
+    @Test
+    public void shouldIgnoreSavedTableInfoWhenExcludedTablesHaveChanged() throws Exception
+    {
+        // given
+        Path file = tempDirectory.get().resolve( "metadata-cache.json" );
+
+        TableInfoCache cache = TableInfoCache.load( file, Formatting.DEFAULT, asList( "Address" ) );
+        cache.put( person, "marker-1", personTableInfo() );
+        cache.save();
+
+        // when
+        TableInfoCache reloaded = TableInfoCache.load( file, Formatting.DEFAULT, Collections.emptyList() );
+
+        // then
+        assertFalse( reloaded.hasEarlierRun() );
+        assertFalse( reloaded.get( person, "marker-1" ).isPresent() );
+    }
+
+    private TableInfo personTableInfo()
+    {
+        Column id = new SimpleColumn( person, "id", ColumnRole.PrimaryKey, SqlDataType.INT,
+                ColumnValueSelectionStrategy.SelectColumnValue, Formatting.DEFAULT );
+        Column username = new SimpleColumn( person, "username", ColumnRole.Data, SqlDataType.TEXT,
+                ColumnValueSelectionStrategy.SelectColumnValue, Formatting.DEFAULT );
+
+        return new TableInfo( person, Optional.of( id ), Collections.emptyList(), asList( id, username ) );
+    }
+}
@@ -0,0 +1,67 @@
+package org.neo4j.etl.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import static java.util.Collections.singletonList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class FileUtilsTest
+{
+    @Rule
+    public final ResourceRule<Path> tempDirectory = new ResourceRule<>( TemporaryDirectory.temporaryDirectory() );
+
+    @Test
+    public void shouldReplaceFileContentsAtomically() throws Exception
+    {
+        // given
+        Path file = tempDirectory.get().resolve( "state.json" );
+        Files.write( file, "old".getBytes( StandardCharsets.UTF_8 ) );
+
+        // when
+        FileUtils.writeAtomically( file, output ->
+        {
+            output.write( "new".getBytes( StandardCharsets.UTF_8 ) );
+            output.close();
+        } );
+
+        // then
+        assertEquals( singletonList( "new" ), Files.readAllLines( file ) );
+        assertFalse( Files.exists( tempDirectory.get().resolve( "state.json.tmp" ) ) );
+    }
+
+    @Test
+    public void shouldKeepExistingContentsIfWritingFails() throws Exception
+    {
+        // given
+        Path file = tempDirectory.get().resolve( "state.json" );
+        Files.write( file, "old".getBytes( StandardCharsets.UTF_8 ) );
+
+        // when
+        try
+        {
+            FileUtils.writeAtomically( file, output ->
+            {
+                output.write( "partial".getBytes( StandardCharsets.UTF_8 ) );
+                throw new IOException( "Disk full" );
+            } );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertEquals( "Disk full", e.getMessage() );
+        }
+
+        assertEquals( singletonList( "old" ), Files.readAllLines( file ) );
+        assertFalse( Files.exists( tempDirectory.get().resolve( "state.json.tmp" ) ) );
+    }
+}
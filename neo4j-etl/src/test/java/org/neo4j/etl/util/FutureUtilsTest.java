@@ -124,4 +124,48 @@ public class FutureUtilsTest
         // then
         assertEquals( expectedValue, result );
     }
+
+    @Test
+    public void shouldFailAllOrFirstFailureFutureWithoutWaitingForOutstandingFutures() throws InterruptedException
+    {
+        // given
+        IOException expectedException = new IOException( "IO error" );
+
+        CompletableFuture<Object> neverCompletes = new CompletableFuture<>();
+        CompletableFuture<Object> fails = FutureUtils.exceptionableFuture( () -> {
+            Thread.sleep( 10 );
+            throw expectedException;
+        }, EXECUTOR.get() );
+
+        CompletableFuture<Void> allOrFirstFailure = FutureUtils.allOrFirstFailure( neverCompletes, fails );
+
+        try
+        {
+            // when
+            allOrFirstFailure.get();
+            fail( "Expected ExecutionException" );
+        }
+        catch ( ExecutionException e )
+        {
+            // then
+            assertEquals( expectedException, e.getCause() );
+        }
+    }
+
+    @Test
+    public void shouldCompleteAllOrFirstFailureFutureOnceAllFuturesComplete() throws Exception
+    {
+        // given
+        CompletableFuture<Object> first = FutureUtils.exceptionableFuture( Object::new, EXECUTOR.get() );
+        CompletableFuture<String> second = FutureUtils.exceptionableFuture( () -> {
+            Thread.sleep( 10 );
+            return "result";
+        }, EXECUTOR.get() );
+
+        // when
+        FutureUtils.allOrFirstFailure( first, second ).get();
+
+        // then
+        assertEquals( "result", second.getNow( null ) );
+    }
 }